@@ -0,0 +1,282 @@
+package com.github.a2435191;
+
+import java.util.Arrays;
+
+/**
+ * The puzzle space, packed into a bitset. Squares are numbered row-major ({@code y * width + x}); a set bit
+ * represents a filled square and a clear bit an empty one, just like {@code true} and {@code false} in the
+ * {@code boolean[][]} grids used elsewhere.
+ * <p>
+ * Boards are mutable, so that placing and removing a pentomino (see {@link #place} and {@link #remove}) does not
+ * allocate. Use {@link #copy()} to keep a snapshot.
+ */
+public final class Board {
+    private final int width;
+    private final int height;
+    private final long[] words;
+
+    /**
+     * Create an empty board.
+     * @param width Width of the board.
+     * @param height Height of the board.
+     */
+    public Board(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("board dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        this.words = new long[(size + 63) >>> 6];
+        // the padding past the last square counts as filled, so that searches for empty squares skip it
+        if ((size & 63) != 0) {
+            this.words[this.words.length - 1] = -1L << (size & 63);
+        }
+    }
+
+    private Board(Board other) {
+        this.width = other.width;
+        this.height = other.height;
+        this.words = other.words.clone();
+    }
+
+    /**
+     * Convert a boolean matrix to a board.
+     * @param grid Boolean matrix, where {@code true} represents a filled square and {@code false} an empty one.
+     * @return A new board with the same squares filled.
+     */
+    public static Board fromGrid(boolean[][] grid) {
+        Board out = new Board(grid[0].length, grid.length);
+        for (int y = 0; y < grid.length; y++) {
+            if (grid[y].length != out.width) {
+                throw new IllegalArgumentException("non-uniform length across rows");
+            }
+            for (int x = 0; x < out.width; x++) {
+                if (grid[y][x]) {
+                    out.fill(x, y);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Convert this board to a boolean matrix.
+     * @return A new boolean matrix, where {@code true} represents a filled square and {@code false} an empty one.
+     */
+    public boolean[][] toGrid() {
+        boolean[][] out = new boolean[this.height][this.width];
+        for (int y = 0; y < this.height; y++) {
+            for (int x = 0; x < this.width; x++) {
+                out[y][x] = this.isFilled(x, y);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Copy this board.
+     * @return An independent board with the same squares filled.
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Get the number of squares on the board, filled or not.
+     * @return {@code width * height}.
+     */
+    public int size() {
+        return this.width * this.height;
+    }
+
+    /**
+     * Check whether a square is on the board.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     * @return {@code true} if {@code (x, y)} lies within the bounds of the board.
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < this.width && y < this.height;
+    }
+
+    /**
+     * Check whether a square is filled.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     * @return {@code true} if the square is filled.
+     */
+    public boolean isFilled(int x, int y) {
+        return this.isFilled(y * this.width + x);
+    }
+
+    /**
+     * Check whether a square is filled.
+     * @param index Row-major index of the square.
+     * @return {@code true} if the square is filled.
+     */
+    public boolean isFilled(int index) {
+        return (this.words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Fill a square.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     */
+    public void fill(int x, int y) {
+        int index = y * this.width + x;
+        this.words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Empty a square.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     */
+    public void clear(int x, int y) {
+        int index = y * this.width + x;
+        this.words[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Count the empty squares.
+     * @return The number of squares that are not filled.
+     */
+    public int emptyCount() {
+        int filled = 0;
+        for (long word : this.words) {
+            filled += Long.bitCount(word);
+        }
+        return (this.words.length << 6) - filled;
+    }
+
+    /**
+     * Find the first (left-right, then up-down) empty square, a whole word of squares at a time.
+     * @param fromIndex Row-major index to start searching at. Squares before it are not checked.
+     * @return The row-major index of the first empty square at or after {@code fromIndex}, or {@code -1} if
+     * there is none.
+     */
+    public int firstEmptyIndex(int fromIndex) {
+        if (fromIndex >= this.size()) {
+            return -1;
+        }
+        int wordIndex = fromIndex >>> 6;
+        long empty = ~this.words[wordIndex] & (-1L << fromIndex);
+        while (empty == 0) {
+            if (++wordIndex == this.words.length) {
+                return -1;
+            }
+            empty = ~this.words[wordIndex];
+        }
+        return (wordIndex << 6) + Long.numberOfTrailingZeros(empty);
+    }
+
+    /**
+     * Find the first (left-right, then up-down) empty square.
+     * @return The coordinate of the square, or {@code null} if the board is full.
+     */
+    public Coordinate firstEmptySquare() {
+        int index = this.firstEmptyIndex(0);
+        return index < 0 ? null : new Coordinate(index % this.width, index / this.width);
+    }
+
+    /**
+     * Determine if a shape can be placed on the board.
+     * @param shape Boolean matrix representing the shape, e.g. a rotated pentomino.
+     * @param offset Offset to apply to the shape.
+     * @return {@code false} if the shape exceeds the bounds of the board or if one of its
+     * filled squares overlaps an already-filled square, {@code true} otherwise.
+     */
+    public boolean canFit(boolean[][] shape, Coordinate offset) {
+        final int shapeHeight = shape.length;
+        final int shapeWidth = shape[0].length;
+        if (!this.contains(offset.x(), offset.y())
+                || !this.contains(offset.x() + shapeWidth - 1, offset.y() + shapeHeight - 1)) {
+            return false;
+        }
+
+        for (int i = 0; i < shapeHeight; i++) {
+            int rowStart = (i + offset.y()) * this.width + offset.x();
+            for (int j = 0; j < shapeWidth; j++) {
+                if (shape[i][j] && this.isFilled(rowStart + j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fill the squares covered by a shape. Does no checks to see if the shape's position is valid.
+     * @param shape Boolean matrix representing the shape, e.g. a rotated pentomino.
+     * @param offset Offset to apply to the shape.
+     */
+    public void place(boolean[][] shape, Coordinate offset) {
+        for (int i = 0; i < shape.length; i++) {
+            for (int j = 0; j < shape[0].length; j++) {
+                if (shape[i][j]) {
+                    this.fill(j + offset.x(), i + offset.y());
+                }
+            }
+        }
+    }
+
+    /**
+     * Undo {@link #place}, emptying the squares covered by a shape.
+     * @param shape Boolean matrix representing the shape, e.g. a rotated pentomino.
+     * @param offset Offset to apply to the shape.
+     */
+    public void remove(boolean[][] shape, Coordinate offset) {
+        for (int i = 0; i < shape.length; i++) {
+            for (int j = 0; j < shape[0].length; j++) {
+                if (shape[i][j]) {
+                    this.clear(j + offset.x(), i + offset.y());
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the packed squares, for use as a compact key.
+     * @return A copy of the underlying words. Bits past the last square are set.
+     */
+    public long[] toLongArray() {
+        return this.words.clone();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Board board
+                && this.width == board.width
+                && this.height == board.height
+                && Arrays.equals(this.words, board.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.width + this.height) + Arrays.hashCode(this.words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = 0; y < this.height; y++) {
+            if (y > 0) {
+                sb.append('\n');
+            }
+            for (int x = 0; x < this.width; x++) {
+                sb.append(this.isFilled(x, y) ? '#' : '.');
+            }
+        }
+        return sb.toString();
+    }
+}
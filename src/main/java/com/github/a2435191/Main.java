@@ -12,21 +12,21 @@ public class Main {
 
     /**
      * Grid used in my specific problem.
-     * @return Boolean matrix
+     * @return Board whose empty squares form a diamond
      */
-    public static boolean[][] getDefaultGrid() {
+    public static Board getDefaultGrid() {
         // 11 across
         // 10 down
-        // true— filled, false— empty
-        boolean[][] out = new boolean[10][];
-        for (int i = 0; i < out.length; i++) {
-            boolean[] row = new boolean[11];
+        // filled outside the diamond, empty inside
+        Board out = new Board(11, 10);
+        for (int i = 0; i < out.getHeight(); i++) {
             int startFill = Math.abs(i - 5);
             int stopFill = 10 - startFill;
-            for (int j = 0; j < row.length; j++) {
-                row[j] = j < startFill || j > stopFill;
+            for (int j = 0; j < out.getWidth(); j++) {
+                if (j < startFill || j > stopFill) {
+                    out.fill(j, i);
+                }
             }
-            out[i] = row;
         }
         return out;
     }
@@ -35,27 +35,19 @@ public class Main {
      * Get an arbitrary, empty rectangular grid.
      * @param height Height of the rectangle.
      * @param width Width of the rectangle.
-     * @return A rectangular grid with height {@code height} and width {@code width}, filled with {@code false}.
+     * @return A rectangular board with height {@code height} and width {@code width}, with no squares filled.
      */
-    public static boolean[][] getRectangularGrid(int height, int width) {
-        boolean[][] out = new boolean[height][];
-        for (int i = 0; i < height; i++) {
-            boolean[] row = new boolean[width];
-            for (int j = 0; j < width; j++) {
-                row[j] = false;
-            }
-            out[i] = row;
-        }
-        return out;
+    public static Board getRectangularGrid(int height, int width) {
+        return new Board(width, height);
     }
 
     /**
      * Run an extremely simple (4x3) test.
      */
     public static void extremelySimpleTest() {
-        boolean[][] grid = getRectangularGrid(4, 3);
-        grid[3][0] = true;
-        grid[3][2] = true;
+        Board grid = getRectangularGrid(4, 3);
+        grid.fill(0, 3);
+        grid.fill(2, 3);
         Solution answer = SOLVER.solve(
                 new Pentomino[]{Pentomino.YELLOW_ORANGE, Pentomino.LIGHT_BLUE},
                 grid
@@ -85,9 +77,9 @@ public class Main {
      */
     public static void mediumTest() {
         // larger test
-        boolean[][] grid = getRectangularGrid(6, 7);
-        grid[0][0] = true;
-        grid[2][1] = true;
+        Board grid = getRectangularGrid(6, 7);
+        grid.fill(0, 0);
+        grid.fill(1, 2);
 
         Solution answer = SOLVER.solve(
                 new Pentomino[]{
@@ -3,8 +3,6 @@ package com.github.a2435191;
 import com.github.a2435191.solvers.PentominoPuzzleSolver;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 
 public enum Pentomino {
     PINK("-----"),
@@ -62,65 +60,90 @@ public enum Pentomino {
      */
     public final Map<boolean[][], Coordinate> startingOffsets;
 
+    /**
+     * The string the shape was parsed from, which generated tables record to tell whether they are current.
+     */
+    final String representation;
+
     /**
      * Create an un-rotated pentomino from a string.
      * @param shape String that concisely describes the pentomino's shape.
      */
     Pentomino(String shape) {
+        this.representation = shape;
         String[] split = shape.split(REPR_DELIMITER);
         this.height = split.length;
         this.width = split[0].length();
 
-        AtomicInteger area = new AtomicInteger(); // for use in lambda expression
-        this.shape = Arrays.stream(split)
-                .map(row -> {
-                    if (row.length() != this.width) {
-                        throw new IllegalArgumentException("non-uniform length across rows");
-                    }
-                    boolean[] out = new boolean[row.length()];
-                    for (int i = 0; i < row.length(); i++) {
-                        switch (row.charAt(i)) {
-                            case REPR_TRUE -> {
-                                out[i] = true;
-                                area.getAndIncrement();
-                            }
-                            case REPR_FALSE -> out[i] = false;
-                            default -> throw new IllegalArgumentException(
-                                    "shape array has illegal character: " + row.charAt(i));
-                        }
+        // plain loops rather than streams, since this runs during class initialization on every startup
+        int area = 0;
+        this.shape = new boolean[this.height][];
+        for (int y = 0; y < this.height; y++) {
+            String row = split[y];
+            if (row.length() != this.width) {
+                throw new IllegalArgumentException("non-uniform length across rows");
+            }
+            boolean[] out = new boolean[row.length()];
+            for (int i = 0; i < row.length(); i++) {
+                switch (row.charAt(i)) {
+                    case REPR_TRUE -> {
+                        out[i] = true;
+                        area++;
                     }
-                    return out;
-                })
-                .toList()
-                .toArray(new boolean[0][]);
-        this.area = area.get();
-
-        Map<Boolean2DArrayWrapper, List<Transformation>> tmp = new HashMap<>();
-        // compute all actions on this pentomino ahead of time
-        for (Transformation t : Transformation.TRANSFORMS) {
-            Boolean2DArrayWrapper result = new Boolean2DArrayWrapper(t.apply(this.shape));
-            if (!tmp.containsKey(result)) {
-                tmp.put(result, new ArrayList<>());
+                    case REPR_FALSE -> out[i] = false;
+                    default -> throw new IllegalArgumentException(
+                            "shape array has illegal character: " + row.charAt(i));
+                }
             }
-            tmp.get(result).add(t);
+            this.shape[y] = out;
         }
-        this.equivalentTransforms = tmp.entrySet().stream()
-                .collect(Collectors.toUnmodifiableMap(
-                        entry -> entry.getKey().array(),
-                        entry -> entry.getValue().toArray(new Transformation[0]))
-                );
-        this.startingOffsets = this.equivalentTransforms.keySet().stream()
-                .collect(Collectors.toMap(arr -> arr, arr -> {
-                    for (int i = 0; i < arr.length; i++) {
-                        for (int j = 0; j < arr[0].length; j++) {
-                            if (arr[i][j]) {
-                                return new Coordinate(j, i);
-                            }
-                        }
-                    }
-                    throw new RuntimeException("could not find filled-in coordinate");
-                }));
+        this.area = area;
+
+        Map<boolean[][], Transformation[]> equivalentTransforms = new LinkedHashMap<>();
+        Map<boolean[][], Coordinate> startingOffsets = new HashMap<>();
+        PieceTables tables = PieceTables.GENERATED;
+        // tables generated from an older version of the shape are ignored
+        if (tables != null && shape.equals(tables.shape(this.ordinal()))) {
+            boolean[][][] orientations = tables.orientations(this.ordinal());
+            int[][] transforms = tables.transforms(this.ordinal());
+            int[][] offsets = tables.startingOffsets(this.ordinal());
+            for (int k = 0; k < orientations.length; k++) {
+                Transformation[] equivalent = new Transformation[transforms[k].length];
+                for (int j = 0; j < equivalent.length; j++) {
+                    equivalent[j] = Transformation.TRANSFORMS[transforms[k][j]];
+                }
+                equivalentTransforms.put(orientations[k], equivalent);
+                startingOffsets.put(orientations[k], new Coordinate(offsets[k][0], offsets[k][1]));
+            }
+        } else {
+            Map<Boolean2DArrayWrapper, List<Transformation>> tmp = new LinkedHashMap<>();
+            // compute all actions on this pentomino ahead of time
+            for (Transformation t : Transformation.TRANSFORMS) {
+                Boolean2DArrayWrapper result = new Boolean2DArrayWrapper(t.apply(this.shape));
+                if (!tmp.containsKey(result)) {
+                    tmp.put(result, new ArrayList<>());
+                }
+                tmp.get(result).add(t);
+            }
+            for (var entry : tmp.entrySet()) {
+                boolean[][] arr = entry.getKey().array();
+                equivalentTransforms.put(arr, entry.getValue().toArray(new Transformation[0]));
+                startingOffsets.put(arr, firstFilledSquare(arr));
+            }
+        }
+        this.equivalentTransforms = Collections.unmodifiableMap(equivalentTransforms);
+        this.startingOffsets = startingOffsets;
+    }
 
+    private static Coordinate firstFilledSquare(boolean[][] arr) {
+        for (int i = 0; i < arr.length; i++) {
+            for (int j = 0; j < arr[0].length; j++) {
+                if (arr[i][j]) {
+                    return new Coordinate(j, i);
+                }
+            }
+        }
+        throw new RuntimeException("could not find filled-in coordinate");
     }
 
     @Override
@@ -0,0 +1,109 @@
+package com.github.a2435191;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Writes the source of the {@link PieceTables} implementation that {@link Pentomino} loads on startup, with the
+ * tables of every pentomino as constant arrays. Run by the {@code generatePieceTables} Gradle task.
+ */
+public final class PieceTableGenerator {
+    private static final String CLASS_NAME = "GeneratedPieceTables";
+
+    private PieceTableGenerator() {
+    }
+
+    /**
+     * Generate the source file.
+     *
+     * @param args A single argument: the source root to write {@code com/github/a2435191/GeneratedPieceTables.java}
+     *             under.
+     * @throws IOException If the file could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("usage: PieceTableGenerator <source root>");
+        }
+        Path out = Path.of(args[0], "com", "github", "a2435191", CLASS_NAME + ".java");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, generate(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generate the source of the tables.
+     *
+     * @return Java source code.
+     */
+    static String generate() {
+        StringBuilder shapes = new StringBuilder();
+        StringBuilder orientations = new StringBuilder();
+        StringBuilder transforms = new StringBuilder();
+        StringBuilder offsets = new StringBuilder();
+        for (Pentomino p : Pentomino.values()) {
+            shapes.append("            \"").append(p.representation.replace("\n", "\\n")).append("\",\n");
+            orientations.append("            // ").append(p.name()).append("\n            {");
+            transforms.append("            {");
+            offsets.append("            {");
+            String separator = "";
+            for (Map.Entry<boolean[][], Transformation[]> entry : p.equivalentTransforms.entrySet()) {
+                boolean[][] orientation = entry.getKey();
+                orientations.append(separator).append('{');
+                for (int y = 0; y < orientation.length; y++) {
+                    orientations.append(y == 0 ? "{" : ", {");
+                    for (int x = 0; x < orientation[y].length; x++) {
+                        orientations.append(x == 0 ? "" : ", ").append(orientation[y][x]);
+                    }
+                    orientations.append('}');
+                }
+                orientations.append('}');
+
+                transforms.append(separator).append('{');
+                Transformation[] equivalent = entry.getValue();
+                for (int j = 0; j < equivalent.length; j++) {
+                    transforms.append(j == 0 ? "" : ", ").append(equivalent[j].index());
+                }
+                transforms.append('}');
+
+                Coordinate offset = p.startingOffsets.get(orientation);
+                offsets.append(separator).append('{').append(offset.x()).append(", ").append(offset.y()).append('}');
+                separator = ",\n             ";
+            }
+            orientations.append("},\n");
+            transforms.append("},\n");
+            offsets.append("},\n");
+        }
+
+        return "// Generated by " + PieceTableGenerator.class.getName() + ". Do not edit.\n"
+                + "package com.github.a2435191;\n"
+                + "\n"
+                + "final class " + CLASS_NAME + " implements PieceTables {\n"
+                + "    private static final String[] SHAPES = {\n" + shapes + "    };\n"
+                + "    private static final boolean[][][][] ORIENTATIONS = {\n" + orientations + "    };\n"
+                + "    private static final int[][][] TRANSFORMS = {\n" + transforms + "    };\n"
+                + "    private static final int[][][] STARTING_OFFSETS = {\n" + offsets + "    };\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public String shape(int piece) {\n"
+                + "        return SHAPES[piece];\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public boolean[][][] orientations(int piece) {\n"
+                + "        return ORIENTATIONS[piece];\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public int[][] transforms(int piece) {\n"
+                + "        return TRANSFORMS[piece];\n"
+                + "    }\n"
+                + "\n"
+                + "    @Override\n"
+                + "    public int[][] startingOffsets(int piece) {\n"
+                + "        return STARTING_OFFSETS[piece];\n"
+                + "    }\n"
+                + "}\n";
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.a2435191;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The orientation tables of every {@link Pentomino}, indexed by {@link Pentomino#ordinal()}. An implementation
+ * is generated at build time by {@link PieceTableGenerator} (the {@code generatePieceTables} Gradle task), so that
+ * short-lived processes do not have to compute the tables on startup. Without it, {@link Pentomino} computes them.
+ */
+interface PieceTables {
+    /**
+     * The generated tables, or {@code null} if they are not on the classpath.
+     */
+    @Nullable PieceTables GENERATED = load("com.github.a2435191.GeneratedPieceTables");
+
+    /**
+     * Get the shape the tables of a pentomino were generated from.
+     *
+     * @param piece Ordinal of the pentomino.
+     * @return The string the shape of the pentomino was parsed from, when the tables were generated.
+     */
+    String shape(int piece);
+
+    /**
+     * Get the distinct images of a pentomino under {@link Transformation#TRANSFORMS}.
+     *
+     * @param piece Ordinal of the pentomino.
+     * @return The shape of each orientation.
+     */
+    boolean[][][] orientations(int piece);
+
+    /**
+     * Get the transformations producing each orientation.
+     *
+     * @param piece Ordinal of the pentomino.
+     * @return For each orientation, the {@link Transformation#index()} of every transformation with that image.
+     */
+    int[][] transforms(int piece);
+
+    /**
+     * Get the first filled square of each orientation (see {@link Pentomino#startingOffsets}).
+     *
+     * @param piece Ordinal of the pentomino.
+     * @return For each orientation, the {@code {x, y}} coordinates of the square.
+     */
+    int[][] startingOffsets(int piece);
+
+    private static @Nullable PieceTables load(String className) {
+        try {
+            return (PieceTables) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException
+                 | NoSuchMethodException e) {
+            throw new RuntimeException("could not load " + className, e);
+        }
+    }
+}
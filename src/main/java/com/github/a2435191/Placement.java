@@ -0,0 +1,79 @@
+package com.github.a2435191;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Wrapper record for a pentomino placed on the board.
+ * @param piece The pentomino.
+ * @param position Its transformation and the translation applied after it.
+ */
+public record Placement(Pentomino piece, TransformationAndCoordinate position) {
+    /**
+     * Compute the grid squares covered by the placed pentomino, mapping each square of the pentomino
+     * through the transformation's table instead of transforming its whole shape.
+     * @return The covered coordinates.
+     */
+    public List<Coordinate> cells() {
+        final boolean[][] shape = this.piece.shape;
+        final Transformation transform = this.position.transform();
+        final Coordinate offset = this.position.coord();
+        List<Coordinate> out = new ArrayList<>(this.piece.area);
+        for (int y = 0; y < this.piece.height; y++) {
+            for (int x = 0; x < this.piece.width; x++) {
+                if (shape[y][x]) {
+                    out.add(new Coordinate(
+                            transform.mapX(x, y, this.piece.width, this.piece.height) + offset.x(),
+                            transform.mapY(x, y, this.piece.width, this.piece.height) + offset.y()));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Solvers describe each orientation by the first of its equivalent transformations
+     * (see {@link Pentomino#equivalentTransforms}); convert to that representation so placements can be compared.
+     * @return An equal placement if it is already normalized, otherwise one with the same shape and position.
+     */
+    public Placement normalized() {
+        Transformation transform = this.position.transform();
+        boolean[][] rotated = transform.apply(this.piece.shape);
+        for (var entry : this.piece.equivalentTransforms.entrySet()) {
+            if (Arrays.deepEquals(entry.getKey(), rotated)) {
+                Transformation representative = entry.getValue()[0];
+                return representative == transform
+                        ? this
+                        : new Placement(this.piece, new TransformationAndCoordinate(representative, this.position.coord()));
+            }
+        }
+        throw new RuntimeException("could not find an equivalent transformation");
+    }
+
+    /**
+     * Move the placement along with the board it is on, e.g. to map a solution onto a rotated copy of its board.
+     * @param t Transformation applied to the board.
+     * @param boardWidth Width of the board before the transformation.
+     * @param boardHeight Height of the board before the transformation.
+     * @return The normalized placement covering the images of the squares this one covers.
+     */
+    public Placement transformed(Transformation t, int boardWidth, int boardHeight) {
+        final Transformation transform = this.position.transform();
+        final Coordinate offset = this.position.coord();
+        // the image of the piece's bounding box is spanned by the images of two opposite corners
+        final int right = offset.x() + transform.transformedWidth(this.piece.width, this.piece.height) - 1;
+        final int bottom = offset.y() + transform.transformedHeight(this.piece.width, this.piece.height) - 1;
+        int x = Math.min(t.mapX(offset.x(), offset.y(), boardWidth, boardHeight),
+                t.mapX(right, bottom, boardWidth, boardHeight));
+        int y = Math.min(t.mapY(offset.x(), offset.y(), boardWidth, boardHeight),
+                t.mapY(right, bottom, boardWidth, boardHeight));
+        return new Placement(this.piece, new TransformationAndCoordinate(transform.then(t), new Coordinate(x, y)))
+                .normalized();
+    }
+
+    @Override
+    public String toString() {
+        return this.piece.name() + ": " + this.position;
+    }
+}
@@ -1,23 +1,78 @@
 package com.github.a2435191;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Wrapper record for puzzle solutions.
- * @param data A {@link Map} from each pentomino used in the solution to its affine transformation.
+ * @param placements Where each piece is placed. A piece appears once for every copy of it in the puzzle.
+ *                   The list is kept in a canonical order (by piece, then orientation, then position), so that
+ *                   solutions with the same placements are equal.
  */
-public record Solution(Map<Pentomino, TransformationAndCoordinate> data) {
-    public @Override String toString() {
-        if (this.data == null) {
-            return "null";
-        } else {
-            List<String> sb = new ArrayList<>();
-            for (var entry : this.data.entrySet()) {
-                sb.add(entry.getKey().name() + ": " + entry.getValue().toString());
+public record Solution(List<Placement> placements) {
+    private static final Comparator<Placement> ORDER = Comparator
+            .comparingInt((Placement p) -> p.piece().ordinal())
+            .thenComparingInt(p -> p.position().transform().index())
+            .thenComparingInt(p -> p.position().coord().y())
+            .thenComparingInt(p -> p.position().coord().x());
+
+    public Solution {
+        List<Placement> sorted = new ArrayList<>(placements);
+        sorted.sort(ORDER);
+        placements = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Create a solution in which every piece is used once.
+     * @param data A {@link Map} from each pentomino used in the solution to its affine transformation.
+     */
+    public Solution(Map<Pentomino, TransformationAndCoordinate> data) {
+        this(toPlacements(data));
+    }
+
+    private static List<Placement> toPlacements(Map<Pentomino, TransformationAndCoordinate> data) {
+        List<Placement> out = new ArrayList<>(data.size());
+        for (var entry : data.entrySet()) {
+            out.add(new Placement(entry.getKey(), entry.getValue()));
+        }
+        return out;
+    }
+
+    /**
+     * View the solution as a map, for puzzles in which every piece is used once.
+     * @return A {@link Map} from each pentomino used in the solution to its affine transformation.
+     * @throws IllegalStateException If a piece is used more than once; use {@link #placements()} instead.
+     */
+    public Map<Pentomino, TransformationAndCoordinate> data() {
+        Map<Pentomino, TransformationAndCoordinate> out = new EnumMap<>(Pentomino.class);
+        for (Placement placement : this.placements) {
+            if (out.put(placement.piece(), placement.position()) != null) {
+                throw new IllegalStateException(placement.piece() + " is used more than once");
             }
-            return String.join("\n", sb);
         }
+        return Collections.unmodifiableMap(out);
+    }
+
+    /**
+     * Move the solution along with its board, e.g. to solve a rotated copy of the board.
+     * @param t Transformation applied to the board.
+     * @param boardWidth Width of the board before the transformation.
+     * @param boardHeight Height of the board before the transformation.
+     * @return A solution of the transformed board.
+     * @see Placement#transformed
+     */
+    public Solution transformed(Transformation t, int boardWidth, int boardHeight) {
+        List<Placement> out = new ArrayList<>(this.placements.size());
+        for (Placement placement : this.placements) {
+            out.add(placement.transformed(t, boardWidth, boardHeight));
+        }
+        return new Solution(out);
+    }
+
+    public @Override String toString() {
+        List<String> sb = new ArrayList<>();
+        for (Placement placement : this.placements) {
+            sb.add(placement.toString());
+        }
+        return String.join("\n", sb);
     }
 }
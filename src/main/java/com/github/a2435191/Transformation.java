@@ -1,8 +1,5 @@
 package com.github.a2435191;
 
-import java.util.Arrays;
-
-
 /**
  * Assume the axis conventions, as follows:
  * <p>
@@ -38,8 +35,11 @@ import java.util.Arrays;
  * This group has eight elements: 1, r, r^2, r^3, s, t, rs, rt.
 
  * This interface and its subclasses provide access to these transformations.
+ * <p>
+ * Each transformation is stored as a table (whether it swaps the axes, and whether it then flips each one),
+ * so it can map single coordinates or write into caller-supplied buffers without allocating.
+ * Composition and inverses are looked up in precomputed tables of the group.
  **/
-@FunctionalInterface
 public interface Transformation {
 
 
@@ -99,197 +99,292 @@ public interface Transformation {
             RT
     };
 
-    // s
-    private static boolean[][] reflectAboutVertical(boolean[][] shape) {
+    /**
+     * Apply the transformation.
+     * @param shape Boolean matrix representing some shape.
+     * @return A new matrix representing the transformed shape.
+     */
+    default boolean[][] apply(boolean[][] shape) {
         final int height = shape.length;
         final int width = shape[0].length;
-
-        boolean[][] out = new boolean[height][];
-
-        for (int i = 0; i < height; i++) {
-            boolean[] tmpRow = new boolean[width];
-            for (int j = 0; j < width; j++) {
-                tmpRow[j] = shape[i][width - j - 1];
-            }
-            out[i] = tmpRow;
-        }
+        boolean[][] out = new boolean[this.transformedHeight(width, height)][this.transformedWidth(width, height)];
+        this.applyInto(shape, out);
         return out;
     }
 
-    // t
-    private static boolean[][] reflectAboutHorizontal(boolean[][] shape) {
-        final int height = shape.length;
-        final int width = shape[0].length;
-        boolean[][] out = new boolean[height][];
+    /**
+     * Apply the transformation, writing into an existing buffer.
+     * @param shape Boolean matrix representing some shape.
+     * @param out Buffer for the transformed shape, with dimensions {@link #transformedHeight} by
+     *            {@link #transformedWidth}. Must not be {@code shape} itself.
+     */
+    void applyInto(boolean[][] shape, boolean[][] out);
 
-        for (int i = 0; i < height; i++) {
-            out[i] = Arrays.copyOf(shape[height - i - 1], width);
-        }
+    /**
+     * Get the position of this transformation in {@link #TRANSFORMS}.
+     * @return An index from 0 to 7.
+     */
+    int index();
 
-        return out;
-    }
+    /**
+     * Map the x-coordinate of a square.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     * @param width Width of the shape the square belongs to.
+     * @param height Height of the shape the square belongs to.
+     * @return The x-coordinate of the square's image, in the transformed shape.
+     */
+    int mapX(int x, int y, int width, int height);
 
-    private static boolean[][] deepCopy(boolean[][] shape) {
-        final int height = shape.length;
-        final int width = shape[0].length;
-        boolean[][] out = new boolean[height][];
+    /**
+     * Map the y-coordinate of a square.
+     * @param x x-coordinate of the square.
+     * @param y y-coordinate of the square.
+     * @param width Width of the shape the square belongs to.
+     * @param height Height of the shape the square belongs to.
+     * @return The y-coordinate of the square's image, in the transformed shape.
+     */
+    int mapY(int x, int y, int width, int height);
 
-        for (int i = 0; i < height; i++) {
-            out[i] = Arrays.copyOf(shape[i], width);
-        }
+    /**
+     * Get the width of a transformed shape.
+     * @param width Width of the shape.
+     * @param height Height of the shape.
+     * @return The width after the transformation.
+     */
+    int transformedWidth(int width, int height);
+
+    /**
+     * Get the height of a transformed shape.
+     * @param width Width of the shape.
+     * @param height Height of the shape.
+     * @return The height after the transformation.
+     */
+    int transformedHeight(int width, int height);
 
+    /**
+     * Map a list of squares given by row-major index ({@code y * width + x}).
+     * @param cells Row-major indices of squares in a shape of the given width.
+     * @param width Width of the shape.
+     * @param height Height of the shape.
+     * @param out Buffer for the mapped indices, at least as long as {@code cells}. May be {@code cells} itself.
+     * @return {@code out}, holding row-major indices relative to {@link #transformedWidth}.
+     */
+    default int[] mapIndices(int[] cells, int width, int height, int[] out) {
+        final int newWidth = this.transformedWidth(width, height);
+        for (int i = 0; i < cells.length; i++) {
+            int x = cells[i] % width;
+            int y = cells[i] / width;
+            out[i] = this.mapY(x, y, width, height) * newWidth + this.mapX(x, y, width, height);
+        }
         return out;
     }
 
-    // r
-    private static boolean[][] rotate(boolean[][] shape, int rotations) {
-        return switch (rotations) {
-            case 0 -> deepCopy(shape);
-            case 1 -> {
-                int oldHeight = shape.length;
-                int oldWidth = shape[0].length;
-                boolean[][] out = new boolean[oldWidth][];
-
-                for (int i = 0; i < oldWidth; i++) {
-                    out[i] = new boolean[oldHeight];
-                }
+    /**
+     * Compose two transformations.
+     * @param after Transformation to apply after this one.
+     * @return The transformation equivalent to applying {@code this}, then {@code after}.
+     */
+    default Transformation then(Transformation after) {
+        return TRANSFORMS[Table.COMPOSITION[this.index()][after.index()]];
+    }
 
-                for (int i = 0; i < oldHeight; i++) {
-                    for (int j = 0; j < oldWidth; j++) {
-                        out[oldWidth - j - 1][i] = shape[i][j];
+    /**
+     * Invert the transformation.
+     * @return The transformation that undoes this one.
+     */
+    default Transformation inverse() {
+        return TRANSFORMS[Table.INVERSES[this.index()]];
+    }
+
+    /**
+     * Helpful for pretty-printing.
+     */
+    class SimpleStringRepresentation {
+        @Override
+        public String toString() {
+            return this.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * A transformation stored as a table: optionally swap the axes, then optionally flip each one.
+     */
+    abstract class Table extends SimpleStringRepresentation implements Transformation {
+        // indexed like TRANSFORMS; bit 2 swaps the axes, bit 1 flips x, bit 0 flips y
+        private static final int[] CODES = {0b000, 0b101, 0b011, 0b110, 0b010, 0b001, 0b100, 0b111};
+        private static final int[][] COMPOSITION = new int[8][8];
+        private static final int[] INVERSES = new int[8];
+
+        static {
+            // compare the images of the corners of a 2x3 rectangle, which no transformation maps onto itself
+            for (int a = 0; a < 8; a++) {
+                for (int b = 0; b < 8; b++) {
+                    for (int c = 0; c < 8; c++) {
+                        if (composesTo(CODES[a], CODES[b], CODES[c])) {
+                            COMPOSITION[a][b] = c;
+                        }
                     }
-                }
-                yield out;
-            }
-            case 2 -> {
-                int height = shape.length;
-                int width = shape[0].length;
-                boolean[][] out = new boolean[height][];
-
-                for (int i = 0; i < height; i++) {
-                    boolean[] tmpRow = new boolean[width];
-                    for (int j = 0; j < width; j++) {
-                        tmpRow[j] = shape[i][width - j - 1];
+                    if (composesTo(CODES[a], CODES[b], CODES[0])) {
+                        INVERSES[a] = b;
                     }
-                    out[height - i - 1] = tmpRow;
                 }
-
-                yield out;
             }
-            case 3 -> {
-                int oldHeight = shape.length;
-                int oldWidth = shape[0].length;
-                boolean[][] out = new boolean[oldWidth][];
+        }
 
-                for (int i = 0; i < oldWidth; i++) {
-                    out[i] = new boolean[oldHeight];
-                }
+        private final int index;
+        private final boolean swap;
+        private final boolean flipX;
+        private final boolean flipY;
+
+        Table(int index) {
+            this.index = index;
+            this.swap = (CODES[index] & 0b100) != 0;
+            this.flipX = (CODES[index] & 0b010) != 0;
+            this.flipY = (CODES[index] & 0b001) != 0;
+        }
+
+        private static int mapX(int code, int x, int y, int width, int height) {
+            boolean swap = (code & 0b100) != 0;
+            int u = swap ? y : x;
+            int newWidth = swap ? height : width;
+            return (code & 0b010) != 0 ? newWidth - 1 - u : u;
+        }
 
-                for (int i = 0; i < oldHeight; i++) {
-                    for (int j = 0; j < oldWidth; j++) {
-                        out[j][oldHeight - i - 1] = shape[i][j];
+        private static int mapY(int code, int x, int y, int width, int height) {
+            boolean swap = (code & 0b100) != 0;
+            int v = swap ? x : y;
+            int newHeight = swap ? width : height;
+            return (code & 0b001) != 0 ? newHeight - 1 - v : v;
+        }
+
+        private static boolean composesTo(int first, int second, int expected) {
+            final int width = 2;
+            final int height = 3;
+            for (int y = 0; y < height; y += height - 1) {
+                for (int x = 0; x < width; x += width - 1) {
+                    int x1 = mapX(first, x, y, width, height);
+                    int y1 = mapY(first, x, y, width, height);
+                    int w1 = (first & 0b100) != 0 ? height : width;
+                    int h1 = (first & 0b100) != 0 ? width : height;
+                    if (mapX(second, x1, y1, w1, h1) != mapX(expected, x, y, width, height)
+                            || mapY(second, x1, y1, w1, h1) != mapY(expected, x, y, width, height)) {
+                        return false;
                     }
                 }
-                yield out;
             }
-            default -> throw new IllegalArgumentException("rotations must be 0, 1, 2, or 3");
-        };
-    }
+            return true;
+        }
 
-    /**
-     * Apply the transformation.
-     * @param shape Boolean matrix representing some shape.
-     * @return A new matrix representing the transformed shape.
-     */
-    boolean[][] apply(boolean[][] shape);
+        @Override
+        public final int index() {
+            return this.index;
+        }
 
-    /**
-     * Helpful for pretty-printing.
-     */
-    class SimpleStringRepresentation {
         @Override
-        public String toString() {
-            return this.getClass().getSimpleName();
+        public final int mapX(int x, int y, int width, int height) {
+            int u = this.swap ? y : x;
+            return this.flipX ? this.transformedWidth(width, height) - 1 - u : u;
+        }
+
+        @Override
+        public final int mapY(int x, int y, int width, int height) {
+            int v = this.swap ? x : y;
+            return this.flipY ? this.transformedHeight(width, height) - 1 - v : v;
+        }
+
+        @Override
+        public final int transformedWidth(int width, int height) {
+            return this.swap ? height : width;
+        }
+
+        @Override
+        public final int transformedHeight(int width, int height) {
+            return this.swap ? width : height;
+        }
+
+        @Override
+        public final void applyInto(boolean[][] shape, boolean[][] out) {
+            final int height = shape.length;
+            final int width = shape[0].length;
+            for (int y = 0; y < height; y++) {
+                boolean[] row = shape[y];
+                for (int x = 0; x < width; x++) {
+                    out[this.mapY(x, y, width, height)][this.mapX(x, y, width, height)] = row[x];
+                }
+            }
         }
     }
 
     /**
      * The identity transformation. Just a (deep) copy operation.
      */
-    final class Identity extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return deepCopy(shape);
+    final class Identity extends Table {
+        Identity() {
+            super(0);
         }
     }
 
     /**
      * Counter-clockwise rotation by 90 degrees.
      */
-    final class R extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return rotate(shape, 1);
+    final class R extends Table {
+        R() {
+            super(1);
         }
     }
 
     /**
      * Rotation by 180 degrees.
      */
-    final class R2 extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return rotate(shape, 2);
+    final class R2 extends Table {
+        R2() {
+            super(2);
         }
     }
 
     /**
      * Clockwise rotation by 90 degrees.
      */
-    final class R3 extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return rotate(shape, 3);
+    final class R3 extends Table {
+        R3() {
+            super(3);
         }
     }
 
     /**
      * Reflection about the y-axis.
      */
-    final class S extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return reflectAboutVertical(shape);
+    final class S extends Table {
+        S() {
+            super(4);
         }
     }
 
     /**
      * Reflection about the x-axis.
      */
-    final class T extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return reflectAboutHorizontal(shape);
+    final class T extends Table {
+        T() {
+            super(5);
         }
     }
 
     /**
      * Reflection about the y-axis, then counter-clockwise rotation by 90 degrees.
      */
-    final class RS extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return rotate(reflectAboutVertical(shape), 1);
+    final class RS extends Table {
+        RS() {
+            super(6);
         }
     }
 
     /**
      * Reflection about the x-axis, then counter-clockwise rotation by 90 degrees.
      */
-    final class RT extends SimpleStringRepresentation implements Transformation {
-        @Override
-        public boolean[][] apply(boolean[][] shape) {
-            return rotate(reflectAboutHorizontal(shape), 1);
+    final class RT extends Table {
+        RT() {
+            super(7);
         }
     }
 
@@ -0,0 +1,70 @@
+package com.github.a2435191.benchmarks;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.solvers.dancing_links.DancingCellsPentominoPuzzleSolver;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the linked-list {@link DancingLinksPentominoPuzzleSolver} with the array-based
+ * {@link DancingCellsPentominoPuzzleSolver} by enumerating every solution of {@link Main#getDefaultGrid()} and of
+ * the rectangles the twelve pentominos tile. Each puzzle is solved once by both engines to warm up the JIT, then
+ * timed over several rounds, alternating between the engines.
+ * <p>
+ * Usage: {@code ExactCoverBenchmark [rounds]}, 3 rounds by default.
+ */
+public final class ExactCoverBenchmark {
+    private ExactCoverBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+        Map<String, Board> boards = new LinkedHashMap<>();
+        boards.put("default grid", Main.getDefaultGrid());
+        boards.put("3x20", Main.getRectangularGrid(3, 20));
+        boards.put("4x15", Main.getRectangularGrid(4, 15));
+        boards.put("5x12", Main.getRectangularGrid(5, 12));
+        boards.put("6x10", Main.getRectangularGrid(6, 10));
+
+        DancingLinksPentominoPuzzleSolver links = new DancingLinksPentominoPuzzleSolver();
+        DancingLinksPentominoPuzzleSolver cells = new DancingCellsPentominoPuzzleSolver();
+        Pentomino[] pieces = Pentomino.values();
+
+        System.out.printf("%-14s %10s %14s %14s %8s%n", "board", "solutions", "links (ms)", "cells (ms)", "speedup");
+        for (Map.Entry<String, Board> entry : boards.entrySet()) {
+            Board board = entry.getValue();
+            long solutions = count(links, pieces, board);
+            if (count(cells, pieces, board) != solutions) {
+                throw new AssertionError("the engines disagree on " + entry.getKey());
+            }
+
+            long linksNanos = 0;
+            long cellsNanos = 0;
+            for (int round = 0; round < rounds; round++) {
+                long start = System.nanoTime();
+                count(links, pieces, board);
+                linksNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                count(cells, pieces, board);
+                cellsNanos += System.nanoTime() - start;
+            }
+            System.out.printf("%-14s %10d %14.1f %14.1f %7.2fx%n", entry.getKey(), solutions,
+                    linksNanos / 1e6 / rounds, cellsNanos / 1e6 / rounds, (double) linksNanos / cellsNanos);
+        }
+    }
+
+    private static long count(DancingLinksPentominoPuzzleSolver solver, Pentomino[] pieces, Board board) {
+        long[] out = {0};
+        solver.visitSolutions(pieces, board, placements -> {
+            out[0]++;
+            return true;
+        });
+        return out[0];
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.a2435191.benchmarks;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Solution;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Measures how long a fresh process takes to solve a puzzle the size of {@link Main#extremelySimpleTest()}, which
+ * is dominated by class loading and initialization rather than search. Run it several times, in new processes,
+ * e.g. with and without the generated piece tables or an AppCDS archive (the {@code startupBenchmark} and
+ * {@code startupBenchmarkCds} Gradle tasks).
+ */
+public final class StartupBenchmark {
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final long mainStart = System.nanoTime();
+
+        Pentomino[] pieces = Pentomino.values(); // initializes the piece tables
+        final long tablesReady = System.nanoTime();
+
+        Board grid = Main.getRectangularGrid(4, 3);
+        grid.fill(0, 3);
+        grid.fill(2, 3);
+        Solution answer = new DancingLinksPentominoPuzzleSolver().solve(
+                new Pentomino[]{pieces[Pentomino.YELLOW_ORANGE.ordinal()], pieces[Pentomino.LIGHT_BLUE.ordinal()]},
+                grid
+        );
+        final long solved = System.nanoTime();
+        if (answer == null) {
+            throw new AssertionError("the benchmark puzzle has a solution");
+        }
+
+        boolean generated;
+        try {
+            Class.forName("com.github.a2435191.GeneratedPieceTables");
+            generated = true;
+        } catch (ClassNotFoundException e) {
+            generated = false;
+        }
+
+        // queried last, since looking up process information loads classes of its own
+        Instant processStart = ProcessHandle.current().info().startInstant().orElse(null);
+        if (processStart != null) {
+            long sinceMain = System.nanoTime() - mainStart;
+            System.out.printf("process start to main: %.1f ms%n",
+                    (Duration.between(processStart, Instant.now()).toNanos() - sinceMain) / 1e6);
+        }
+        System.out.printf("piece tables (%s): %.1f ms%n",
+                generated ? "generated" : "computed", (tablesReady - mainStart) / 1e6);
+        System.out.printf("first solution: %.1f ms%n", (solved - tablesReady) / 1e6);
+        System.out.printf("main to first solution: %.1f ms%n", (solved - mainStart) / 1e6);
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.a2435191.cache;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Solution;
+import com.github.a2435191.Transformation;
+import com.github.a2435191.solvers.ISolver;
+import com.github.a2435191.solvers.SearchMetrics;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A solver that keeps its results in a directory, so that a puzzle solved once is not solved again, even by another
+ * process or after a restart.
+ * <p>
+ * Entries are keyed by the {@link CanonicalPuzzle normal form} of the puzzle, so a rotated or reflected board reuses
+ * the entry of the original, and its solutions are mapped onto it with {@link Solution#transformed}. Each entry is a
+ * compact binary file (see {@link SolutionFile}) holding the number of solutions and some or all of the solutions,
+ * and is read back by memory-mapping it. When the files take more than the size limit, the least recently used are
+ * deleted; the modification time of a file records its last use, so the order survives restarts.
+ */
+public final class CachingSolver implements ISolver {
+    private static final String SUFFIX = ".sol";
+
+    private final DancingLinksPentominoPuzzleSolver delegate;
+    private final Path directory;
+    private final long maxBytes;
+
+    // size of each entry file, least recently used first
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    /**
+     * Construct a new instance, picking up any entries already in the directory.
+     *
+     * @param delegate  Solves the puzzles that are not cached.
+     * @param directory Where to keep the entries. Created if missing.
+     * @param maxBytes  The most space the entries may take.
+     * @throws IOException If the directory cannot be created or listed.
+     */
+    public CachingSolver(DancingLinksPentominoPuzzleSolver delegate, Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative");
+        }
+        this.delegate = delegate;
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+
+        record Existing(String key, FileTime lastUsed, long size) {
+        }
+        List<Existing> existing = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) list::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    existing.add(new Existing(name.substring(0, name.length() - SUFFIX.length()),
+                            Files.getLastModifiedTime(file), Files.size(file)));
+                }
+            }
+        }
+        existing.sort(Comparator.comparing(Existing::lastUsed));
+        for (Existing entry : existing) {
+            this.sizes.put(entry.key(), entry.size());
+            this.totalBytes += entry.size();
+        }
+        synchronized (this) {
+            this.evict(null);
+        }
+    }
+
+    public CachingSolver(Path directory, long maxBytes) throws IOException {
+        this(new DancingLinksPentominoPuzzleSolver(), directory, maxBytes);
+    }
+
+    @Override
+    public @Nullable SearchMetrics getMetrics() {
+        return this.delegate.getMetrics();
+    }
+
+    @Override
+    public List<Solution> solveForMultiple(Pentomino[] pieces, Board board, int limit) {
+        CanonicalPuzzle puzzle = CanonicalPuzzle.of(pieces, board);
+        SolutionFile.Entry entry = this.load(puzzle);
+        if (entry == null || !(entry.complete() || (limit >= 0 && entry.solutions().size() >= limit))) {
+            List<Solution> solutions = this.delegate.solveForMultiple(puzzle.pieces, puzzle.board, limit);
+            boolean complete = limit < 0 || solutions.size() < limit;
+            long count = complete ? solutions.size() : entry != null ? entry.count() : -1;
+            entry = new SolutionFile.Entry(count, complete, solutions);
+            this.store(puzzle, entry);
+        }
+
+        final Transformation back = puzzle.toCanonical.inverse();
+        final int width = puzzle.board.getWidth();
+        final int height = puzzle.board.getHeight();
+        int size = limit < 0 ? entry.solutions().size() : Math.min(limit, entry.solutions().size());
+        List<Solution> out = new ArrayList<>(size);
+        for (Solution solution : entry.solutions().subList(0, size)) {
+            out.add(solution.transformed(back, width, height));
+        }
+        return out;
+    }
+
+    /**
+     * Count the solutions of a puzzle, without storing them unless they are already cached.
+     *
+     * @param pieces Pentominos to use in solving the puzzle.
+     * @param board  The puzzle space. It is not modified.
+     * @return The number of solutions, as {@link #solveForMultiple} would find with no limit.
+     */
+    public long countSolutions(Pentomino[] pieces, Board board) {
+        CanonicalPuzzle puzzle = CanonicalPuzzle.of(pieces, board);
+        SolutionFile.Entry entry = this.load(puzzle);
+        if (entry != null && entry.count() >= 0) {
+            return entry.count();
+        }
+
+        long[] count = {0};
+        this.delegate.visitSolutions(puzzle.pieces, puzzle.board, placements -> {
+            count[0]++;
+            return true;
+        });
+        this.store(puzzle, entry != null
+                ? new SolutionFile.Entry(count[0], entry.complete(), entry.solutions())
+                : new SolutionFile.Entry(count[0], false, List.of()));
+        return count[0];
+    }
+
+    private Path file(String key) {
+        return this.directory.resolve(key + SUFFIX);
+    }
+
+    private @Nullable SolutionFile.Entry load(CanonicalPuzzle puzzle) {
+        Path file = this.file(puzzle.key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            SolutionFile.Entry entry = SolutionFile.read(file, puzzle.identity);
+            if (entry != null) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                synchronized (this) {
+                    // also picks up entries written by another process since this one started
+                    if (this.sizes.get(puzzle.key) == null) {
+                        long size = Files.size(file);
+                        this.sizes.put(puzzle.key, size);
+                        this.totalBytes += size;
+                    }
+                }
+            }
+            return entry;
+        } catch (IOException e) {
+            return null; // e.g. evicted by another process; solve again
+        }
+    }
+
+    private void store(CanonicalPuzzle puzzle, SolutionFile.Entry entry) {
+        try {
+            Path temporary = Files.createTempFile(this.directory, puzzle.key, ".tmp");
+            try {
+                SolutionFile.write(temporary, puzzle.identity, entry);
+                long size = Files.size(temporary);
+                if (size > this.maxBytes) {
+                    return; // would evict everything else and still not fit
+                }
+                synchronized (this) {
+                    Files.move(temporary, this.file(puzzle.key), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                    Long previous = this.sizes.put(puzzle.key, size);
+                    this.totalBytes += size - (previous != null ? previous : 0);
+                    this.evict(puzzle.key);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // delete the least recently used entries, other than `keep`, until the rest fit
+    private void evict(@Nullable String keep) {
+        Iterator<Map.Entry<String, Long>> it = this.sizes.entrySet().iterator();
+        while (this.totalBytes > this.maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> oldest = it.next();
+            if (oldest.getKey().equals(keep)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(this.file(oldest.getKey()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.totalBytes -= oldest.getValue();
+            it.remove();
+        }
+    }
+}
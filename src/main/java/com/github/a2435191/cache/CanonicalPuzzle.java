@@ -0,0 +1,126 @@
+package com.github.a2435191.cache;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Transformation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * A puzzle in a normal form that is the same for every rotation and reflection of its board: the image of the board
+ * under whichever {@link Transformation} gives the smallest encoding, together with the multiset of pieces. Since
+ * every piece may be placed in any orientation, the solutions of the original board are exactly the images of the
+ * solutions of the canonical board under {@code toCanonical.inverse()}.
+ */
+final class CanonicalPuzzle {
+    /**
+     * The normalized board.
+     */
+    final Board board;
+
+    /**
+     * Maps the original board onto {@link #board}.
+     */
+    final Transformation toCanonical;
+
+    /**
+     * The pieces, sorted, one entry per copy.
+     */
+    final Pentomino[] pieces;
+
+    /**
+     * The exact encoding of the board and pieces, stored with the results to detect hash collisions.
+     */
+    final byte[] identity;
+
+    /**
+     * A file-name-safe hash of {@link #identity}.
+     */
+    final String key;
+
+    private CanonicalPuzzle(Board board, Transformation toCanonical, Pentomino[] pieces, byte[] identity) {
+        this.board = board;
+        this.toCanonical = toCanonical;
+        this.pieces = pieces;
+        this.identity = identity;
+        try {
+            this.key = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(identity));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+
+    /**
+     * Normalize a puzzle.
+     *
+     * @param pieces Pentominos to use in solving the puzzle, in any order.
+     * @param board  The puzzle space. It is not modified.
+     * @return The normal form of the puzzle.
+     */
+    static CanonicalPuzzle of(Pentomino[] pieces, Board board) {
+        Pentomino[] sorted = pieces.clone();
+        Arrays.sort(sorted);
+
+        Board best = null;
+        byte[] bestEncoding = null;
+        Transformation bestTransform = null;
+        for (Transformation t : Transformation.TRANSFORMS) {
+            Board image = transform(board, t);
+            byte[] encoding = encode(image, sorted);
+            if (bestEncoding == null || Arrays.compare(encoding, bestEncoding) < 0) {
+                best = image;
+                bestEncoding = encoding;
+                bestTransform = t;
+            }
+        }
+        return new CanonicalPuzzle(best, bestTransform, sorted, bestEncoding);
+    }
+
+    private static Board transform(Board board, Transformation t) {
+        final int width = board.getWidth();
+        final int height = board.getHeight();
+        Board out = new Board(t.transformedWidth(width, height), t.transformedHeight(width, height));
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (board.isFilled(x, y)) {
+                    out.fill(t.mapX(x, y, width, height), t.mapY(x, y, width, height));
+                }
+            }
+        }
+        return out;
+    }
+
+    // width, height, the filled squares as row-major bits, then the ordinal of each piece
+    private static byte[] encode(Board board, Pentomino[] sortedPieces) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(board.getWidth());
+            out.writeInt(board.getHeight());
+            int bits = 0;
+            for (int i = 0; i < board.size(); i++) {
+                bits = (bits << 1) | (board.isFilled(i) ? 1 : 0);
+                if ((i & 7) == 7) {
+                    out.writeByte(bits);
+                    bits = 0;
+                }
+            }
+            if ((board.size() & 7) != 0) {
+                out.writeByte(bits << (8 - (board.size() & 7)));
+            }
+            out.writeInt(sortedPieces.length);
+            for (Pentomino piece : sortedPieces) {
+                out.writeByte(piece.ordinal());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.a2435191.cache;
+
+import com.github.a2435191.Coordinate;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import com.github.a2435191.Transformation;
+import com.github.a2435191.TransformationAndCoordinate;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The on-disk format of one cache entry:
+ * <pre>
+ * int    magic
+ * int    length of the identity, then the identity (see {@link CanonicalPuzzle#identity})
+ * long   number of solutions, or -1 if unknown
+ * byte   1 if every solution is stored, 0 if only the first few
+ * int    number of stored solutions
+ * int    placements per solution
+ * then for each placement: byte piece ordinal, byte transformation index, short x, short y
+ * </pre>
+ * Solutions are in the frame of the canonical board.
+ */
+final class SolutionFile {
+    private static final int MAGIC = 0x50544331; // "PTC1"
+
+    /**
+     * The contents of an entry.
+     *
+     * @param count     The number of solutions, or -1 if it is not known.
+     * @param complete  Whether {@code solutions} holds every solution.
+     * @param solutions Some or all of the solutions, in the frame of the canonical board.
+     */
+    record Entry(long count, boolean complete, List<Solution> solutions) {
+    }
+
+    private SolutionFile() {
+    }
+
+    static void write(Path file, byte[] identity, Entry entry) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(identity.length);
+            out.write(identity);
+            out.writeLong(entry.count());
+            out.writeByte(entry.complete() ? 1 : 0);
+            out.writeInt(entry.solutions().size());
+            out.writeInt(entry.solutions().isEmpty() ? 0 : entry.solutions().get(0).placements().size());
+            for (Solution solution : entry.solutions()) {
+                for (Placement placement : solution.placements()) {
+                    out.writeByte(placement.piece().ordinal());
+                    out.writeByte(placement.position().transform().index());
+                    out.writeShort(placement.position().coord().x());
+                    out.writeShort(placement.position().coord().y());
+                }
+            }
+        }
+    }
+
+    /**
+     * Read an entry by memory-mapping its file.
+     *
+     * @param file     The file.
+     * @param identity The identity of the puzzle the entry must belong to.
+     * @return The entry, or {@code null} if the file belongs to another puzzle or is damaged.
+     * @throws IOException If the file cannot be read.
+     */
+    static @Nullable Entry read(Path file, byte[] identity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC) {
+                return null;
+            }
+            byte[] stored = new byte[in.getInt()];
+            in.get(stored);
+            if (!Arrays.equals(stored, identity)) {
+                return null;
+            }
+
+            long count = in.getLong();
+            boolean complete = in.get() != 0;
+            int solutions = in.getInt();
+            int placements = in.getInt();
+            Pentomino[] pieces = Pentomino.values();
+            List<Solution> out = new ArrayList<>(solutions);
+            for (int i = 0; i < solutions; i++) {
+                List<Placement> solution = new ArrayList<>(placements);
+                for (int j = 0; j < placements; j++) {
+                    Pentomino piece = pieces[in.get()];
+                    Transformation transform = Transformation.TRANSFORMS[in.get()];
+                    int x = in.getShort();
+                    int y = in.getShort();
+                    solution.add(new Placement(piece, new TransformationAndCoordinate(transform, new Coordinate(x, y))));
+                }
+                out.add(new Solution(solution));
+            }
+            return new Entry(count, complete, out);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
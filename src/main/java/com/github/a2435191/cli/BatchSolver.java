@@ -0,0 +1,200 @@
+package com.github.a2435191.cli;
+
+import com.github.a2435191.solvers.dancing_links.DancingCellsPentominoPuzzleSolver;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Solves every puzzle in a set of files (see {@link PuzzleReader} for the format) from the command line.
+ * <p>
+ * Usage: {@code BatchSolver [--mode first|count|all] [--threads N] [--engine links|cells] [--output FILE] PATH...}
+ * <ul>
+ *     <li>{@code first} (the default) prints one solution of each puzzle, {@code count} only the number of
+ *     solutions, and {@code all} every solution.</li>
+ *     <li>Puzzles are solved on {@code N} threads, one processor each by default, while the files are still being
+ *     read. Results are written in the order of the input, through one buffered writer, to {@code FILE} or standard
+ *     output.</li>
+ * </ul>
+ * Each result starts with a line {@code NAME: COUNT solution(s)}; in {@code first} mode, it is followed by the
+ * placements of the solution and a line of dashes, as printed by {@link com.github.a2435191.Main}. In {@code all}
+ * mode, the solutions of a puzzle are written as they are found rather than held until its search ends, so a result
+ * with any starts with a line {@code NAME:} instead, and the count comes last. A puzzle whose results cannot be written yet,
+ * because those of an earlier puzzle are still being written, waits for its turn at its first solution.
+ * <p>
+ * A malformed file stops the run with its name and line on standard error, and exit status 1.
+ */
+public final class BatchSolver {
+    private enum Mode {
+        FIRST, COUNT, ALL
+    }
+
+    private static final String USAGE = "usage: BatchSolver [--mode first|count|all] [--threads N] "
+            + "[--engine links|cells] [--output FILE] PATH...";
+    private static final int QUEUED_PER_THREAD = 4; // puzzles read ahead of the writer, per thread
+
+    private final Mode mode;
+    private final DancingLinksPentominoPuzzleSolver solver;
+
+    private BatchSolver(Mode mode, DancingLinksPentominoPuzzleSolver solver) {
+        this.mode = mode;
+        this.solver = solver;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Mode mode = Mode.FIRST;
+        int threads = Runtime.getRuntime().availableProcessors();
+        DancingLinksPentominoPuzzleSolver solver = new DancingLinksPentominoPuzzleSolver();
+        Path output = null;
+        List<Path> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--mode" -> mode = Mode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--engine" -> solver = switch (args[++i]) {
+                        case "links" -> new DancingLinksPentominoPuzzleSolver();
+                        case "cells" -> new DancingCellsPentominoPuzzleSolver();
+                        default -> throw new IllegalArgumentException("unknown engine " + args[i]);
+                    };
+                    case "--output" -> output = Path.of(args[++i]);
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("unknown option " + args[i]);
+                        }
+                        inputs.add(Path.of(args[i]));
+                    }
+                }
+            }
+            if (inputs.isEmpty() || threads <= 0) {
+                throw new IllegalArgumentException("no input");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        Writer writer = output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (writer) {
+            new BatchSolver(mode, solver).run(inputs, threads, writer);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage()); // from PuzzleReader, as "FILE:LINE: message"
+            System.exit(1);
+        }
+    }
+
+    // whether a puzzle may write its results, which it does once those of every earlier puzzle are written
+    private static final class Turn {
+        private boolean open = false;
+
+        synchronized void open() {
+            this.open = true;
+            this.notifyAll();
+        }
+
+        synchronized void await() throws InterruptedException {
+            while (!this.open) {
+                this.wait();
+            }
+        }
+    }
+
+    private record Pending(Future<String> result, Turn turn) {
+    }
+
+    private void run(List<Path> inputs, int threads, Writer writer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // results in the order of the input; the oldest is written before more than this many are waiting
+        ArrayDeque<Pending> pending = new ArrayDeque<>();
+        final int maxPending = QUEUED_PER_THREAD * threads;
+        try {
+            for (Path input : inputs) {
+                PuzzleReader.read(input, puzzle -> {
+                    Turn turn = new Turn();
+                    pending.add(new Pending(executor.submit(() -> this.solve(puzzle, turn, writer)), turn));
+                    if (pending.size() > maxPending) {
+                        write(pending.remove(), writer);
+                    }
+                });
+            }
+            while (!pending.isEmpty()) {
+                write(pending.remove(), writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void write(Pending pending, Writer writer) {
+        pending.turn().open();
+        try {
+            writer.write(pending.result().get());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    // the results of a puzzle, or in all mode the rest of them, after writing its solutions once it has its turn
+    private String solve(PuzzleReader.Puzzle puzzle, Turn turn, Writer writer) {
+        StringBuilder out = new StringBuilder();
+        long[] count = {0};
+        this.solver.visitSolutions(puzzle.pieces(), puzzle.board(), placements -> {
+            count[0]++;
+            if (this.mode == Mode.COUNT) {
+                return true;
+            }
+            out.append(DancingLinksPentominoPuzzleSolver.toSolution(Arrays.asList(placements)))
+                    .append('\n')
+                    .append("-".repeat(40))
+                    .append('\n');
+            if (this.mode == Mode.FIRST) {
+                return false;
+            }
+            try {
+                if (count[0] == 1) {
+                    turn.await();
+                    out.insert(0, puzzle.name() + ":\n");
+                }
+                writer.write(out.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // the run was abandoned
+                return false;
+            }
+            out.setLength(0);
+            return true;
+        });
+        String header = puzzle.name() + ": " + count[0] + (count[0] == 1 ? " solution\n" : " solutions\n");
+        return out.insert(0, header).toString();
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.a2435191.cli;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Reads puzzles from text files. A file holds any number of puzzles separated by blank lines, each made of:
+ * <ul>
+ *     <li>optional comment lines starting with {@code #}, the first of which names the puzzle;</li>
+ *     <li>an optional line {@code pieces: NAME NAME ...} listing the {@link Pentomino}s to place, by default all of
+ *     them once;</li>
+ *     <li>the rows of the board, in the format of the shapes in {@link Pentomino}: {@code -} for a square to cover
+ *     and {@code 0} for one that is not part of the puzzle.</li>
+ * </ul>
+ * For example, the 3x20 rectangle:
+ * <pre>
+ * # 3x20
+ * --------------------
+ * --------------------
+ * --------------------
+ * </pre>
+ * Files are memory-mapped and parsed a byte at a time, so a file of many thousands of puzzles is never held in memory
+ * as a whole.
+ */
+public final class PuzzleReader {
+    private static final String PIECES_PREFIX = "pieces:";
+    private static final long MAX_MAPPING = 1L << 30; // larger files are mapped a region at a time
+
+    private final Consumer<Puzzle> out;
+    private final String source;
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    private int lineNumber = 0;
+
+    // the puzzle being read
+    private String name = null;
+    private Pentomino[] pieces = null;
+    private final List<boolean[]> rows = new ArrayList<>();
+    private int index = 0;
+
+    /**
+     * A puzzle read from a file.
+     *
+     * @param name   The name of the puzzle: its first comment, or the file name and the position of the puzzle.
+     * @param pieces The pieces to place.
+     * @param board  The puzzle space.
+     */
+    public record Puzzle(String name, Pentomino[] pieces, Board board) {
+    }
+
+    private PuzzleReader(String source, Consumer<Puzzle> out) {
+        this.source = source;
+        this.out = out;
+    }
+
+    /**
+     * Read every puzzle of a file, or of every file under a directory, in order of their paths.
+     *
+     * @param path A file or directory.
+     * @param out  Called with each puzzle as soon as it has been read.
+     * @throws IOException              If a file cannot be read.
+     * @throws IllegalArgumentException If a file is malformed; the message gives the file and line.
+     */
+    public static void read(Path path, Consumer<Puzzle> out) throws IOException {
+        if (!Files.isDirectory(path)) {
+            readFile(path, out);
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(path)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            readFile(file, out);
+        }
+    }
+
+    private static void readFile(Path file, Consumer<Puzzle> out) throws IOException {
+        PuzzleReader reader = new PuzzleReader(file.getFileName().toString(), out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long position = 0; position < size; position += MAX_MAPPING) {
+                MappedByteBuffer buffer = channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_MAPPING, size - position));
+                while (buffer.hasRemaining()) {
+                    reader.accept(buffer.get());
+                }
+            }
+        }
+        reader.endLine();
+        reader.endPuzzle();
+    }
+
+    private void accept(byte b) {
+        if (b == '\n') {
+            this.endLine();
+            return;
+        }
+        if (this.lineLength == this.line.length) {
+            this.line = Arrays.copyOf(this.line, 2 * this.lineLength);
+        }
+        this.line[this.lineLength++] = b;
+    }
+
+    private void endLine() {
+        this.lineNumber++;
+        int length = this.lineLength;
+        this.lineLength = 0;
+        while (length > 0 && (this.line[length - 1] == '\r' || this.line[length - 1] == ' '
+                || this.line[length - 1] == '\t')) {
+            length--;
+        }
+
+        if (length == 0) {
+            this.endPuzzle();
+        } else if (this.line[0] == '#') {
+            if (this.name == null && this.rows.isEmpty()) {
+                this.name = new String(this.line, 1, length - 1, StandardCharsets.US_ASCII).trim();
+            }
+        } else if (startsWith(this.line, length, PIECES_PREFIX)) {
+            if (!this.rows.isEmpty()) {
+                throw this.error("the pieces must be listed before the board");
+            }
+            String list = new String(this.line, PIECES_PREFIX.length(), length - PIECES_PREFIX.length(),
+                    StandardCharsets.US_ASCII).trim();
+            try {
+                this.pieces = list.isEmpty()
+                        ? new Pentomino[0]
+                        : Arrays.stream(list.split("\\s+")).map(Pentomino::valueOf).toArray(Pentomino[]::new);
+            } catch (IllegalArgumentException e) {
+                throw this.error("unknown piece in \"" + list + "\"");
+            }
+        } else {
+            boolean[] row = new boolean[length];
+            for (int x = 0; x < length; x++) {
+                switch (this.line[x]) {
+                    case '-' -> row[x] = false;
+                    case '0' -> row[x] = true;
+                    default -> throw this.error("unexpected character '" + (char) this.line[x] + "'");
+                }
+            }
+            if (!this.rows.isEmpty() && this.rows.get(0).length != length) {
+                throw this.error("non-uniform length across rows");
+            }
+            this.rows.add(row);
+        }
+    }
+
+    private void endPuzzle() {
+        if (this.rows.isEmpty()) {
+            if (this.pieces != null) {
+                throw this.error("pieces listed without a board");
+            }
+            this.name = null;
+            return;
+        }
+        this.index++;
+        String puzzleName = this.name != null ? this.name : this.source + "#" + this.index;
+        Pentomino[] puzzlePieces = this.pieces != null ? this.pieces : Pentomino.values();
+        Board board = Board.fromGrid(this.rows.toArray(new boolean[0][]));
+
+        this.name = null;
+        this.pieces = null;
+        this.rows.clear();
+        this.out.accept(new Puzzle(puzzleName, puzzlePieces, board));
+    }
+
+    private static boolean startsWith(byte[] line, int length, String prefix) {
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(this.source + ":" + this.lineNumber + ": " + message);
+    }
+}
@@ -1,22 +1,41 @@
 package com.github.a2435191.display;
 
+import com.github.a2435191.Board;
+import com.github.a2435191.Coordinate;
 import com.github.a2435191.Pentomino;
 import com.github.a2435191.Solution;
+import com.github.a2435191.index.CompressedBitmap;
+import com.github.a2435191.index.SolutionIndex;
 import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
 
 import javax.swing.*;
 import java.util.List;
 
 public class Main {
+    /**
+     * Show the solutions for the default grid.
+     * @param args Optionally a piece name and a square, e.g. {@code LIGHT_BLUE 5 5}, to only show the solutions
+     *             where that piece covers that square.
+     */
     public static void main(String[] args) {
-        boolean[][] grid = com.github.a2435191.Main.getDefaultGrid();
+        Board grid = com.github.a2435191.Main.getDefaultGrid();
         List<Solution> solutions = new DancingLinksPentominoPuzzleSolver().solveForMultiple(
                 Pentomino.values(),
                 grid,
                 -1
         );
+
+        CompressedBitmap filter = null;
+        if (args.length == 3) {
+            filter = SolutionIndex.of(solutions).covering(
+                    Pentomino.valueOf(args[0]),
+                    new Coordinate(Integer.parseInt(args[1]), Integer.parseInt(args[2]))
+            );
+        }
+
+        final CompressedBitmap finalFilter = filter;
         SwingUtilities.invokeLater(() ->
-                new PentominoDisplay(solutions, grid[0].length, grid.length).setVisible(true)
+                new PentominoDisplay(solutions, grid, finalFilter).setVisible(true)
         );
     }
 }
@@ -1,7 +1,8 @@
 package com.github.a2435191.display;
 
-import com.github.a2435191.Main;
 import com.github.a2435191.*;
+import com.github.a2435191.index.CompressedBitmap;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.*;
@@ -14,6 +15,8 @@ import java.util.List;
  */
 public final class PentominoDisplay extends JFrame {
     private final List<Solution> solutions;
+    private final int[] solutionIds; // ids of the shown solutions in the list passed to the constructor
+    private final Board board;
     private final JButton buttonPrev = new JButton("<");
     private final JButton buttonNext = new JButton(">");
     private final JPanel imagePanel = new JPanel();
@@ -21,10 +24,34 @@ public final class PentominoDisplay extends JFrame {
     private final int cellsHeight;
     private int index = 0;
 
-    public PentominoDisplay(List<Solution> solutions, int cellsWidth, int cellsHeight) {
-        this.cellsWidth = cellsWidth;
-        this.cellsHeight = cellsHeight;
-        this.solutions = new ArrayList<>(solutions);
+    public PentominoDisplay(List<Solution> solutions, Board board) {
+        this(solutions, board, null);
+    }
+
+    /**
+     * Display only some of the solutions, e.g. the result of a query on a
+     * {@link com.github.a2435191.index.SolutionIndex}.
+     * @param solutions All solutions.
+     * @param board The puzzle space the solutions were computed for.
+     * @param filter Ids (indices into {@code solutions}) of the solutions to show, or {@code null} to show all.
+     */
+    public PentominoDisplay(List<Solution> solutions, Board board, @Nullable CompressedBitmap filter) {
+        this.board = board.copy();
+        this.cellsWidth = board.getWidth();
+        this.cellsHeight = board.getHeight();
+        if (filter == null) {
+            this.solutions = new ArrayList<>(solutions);
+            this.solutionIds = new int[solutions.size()];
+            for (int i = 0; i < this.solutionIds.length; i++) {
+                this.solutionIds[i] = i;
+            }
+        } else {
+            this.solutionIds = filter.toArray();
+            this.solutions = new ArrayList<>(this.solutionIds.length);
+            for (int id : this.solutionIds) {
+                this.solutions.add(solutions.get(id));
+            }
+        }
 
         this.initializeDisplay();
         this.updateButtonsEnabled();
@@ -60,7 +87,14 @@ public final class PentominoDisplay extends JFrame {
         this.pack();
     }
 
-    private static Color nameToColor(String name) {
+    /**
+     * Get the color a square is shown in.
+     *
+     * @param name The name of the {@link Pentomino} covering the square, or {@code GRAY} for a filled square and
+     *             {@code WHITE} for an empty one, as in {@link #colorNameGrid}.
+     * @return The color.
+     */
+    static Color nameToColor(String name) {
         return switch (name) {
             case "PINK" -> Color.PINK;
             case "DARK_GREEN" -> new Color(25, 105, 43);
@@ -80,24 +114,27 @@ public final class PentominoDisplay extends JFrame {
         };
     }
 
-    private void showPentominoes() {
-        imagePanel.removeAll();
-
-        boolean[][] grid = Main.getDefaultGrid(); // starting grid
-        String[][] colorNameGrid = new String[this.cellsHeight][];
-
-        for (int i = 0; i < this.cellsHeight; i++) {
-            colorNameGrid[i] = new String[this.cellsWidth];
-            for (int j = 0; j < this.cellsWidth; j++) {
-                colorNameGrid[i][j] = grid[i][j] ? "GRAY" : "WHITE";
+    /**
+     * Name the color of every square of a board with a solution placed on it.
+     *
+     * @param board    The puzzle space.
+     * @param solution The solution to place.
+     * @return For each row, the color name (see {@link #nameToColor}) of each square.
+     */
+    static String[][] colorNameGrid(Board board, Solution solution) {
+        String[][] colorNameGrid = new String[board.getHeight()][];
+
+        for (int i = 0; i < board.getHeight(); i++) {
+            colorNameGrid[i] = new String[board.getWidth()];
+            for (int j = 0; j < board.getWidth(); j++) {
+                colorNameGrid[i][j] = board.isFilled(j, i) ? "GRAY" : "WHITE";
             }
         }
 
-        Solution solution = this.solutions.get(this.index);
-        for (var entry : solution.data().entrySet()) {
-            Pentomino p = entry.getKey();
-            Transformation transform = entry.getValue().transform();
-            Coordinate coord = entry.getValue().coord();
+        for (Placement placement : solution.placements()) {
+            Pentomino p = placement.piece();
+            Transformation transform = placement.position().transform();
+            Coordinate coord = placement.position().coord();
 
             boolean[][] rotated = transform.apply(p.shape);
             for (int y = 0; y < rotated.length; y++) {
@@ -108,7 +145,14 @@ public final class PentominoDisplay extends JFrame {
                 }
             }
         }
+        return colorNameGrid;
+    }
 
+    private void showPentominoes() {
+        imagePanel.removeAll();
+
+        Solution solution = this.solutions.isEmpty() ? new Solution(List.of()) : this.solutions.get(this.index);
+        String[][] colorNameGrid = colorNameGrid(this.board, solution);
         for (String[] row : colorNameGrid) {
             for (String colorName : row) {
                 JLabel label = new JLabel();
@@ -143,11 +187,15 @@ public final class PentominoDisplay extends JFrame {
     }
 
     private void updateTitle() {
-        this.setTitle("PentominoDisplay [" + this.index + "]");
+        if (this.solutions.isEmpty()) {
+            this.setTitle("PentominoDisplay (no solutions)");
+        } else {
+            this.setTitle("PentominoDisplay [" + this.index + "] (solution " + this.solutionIds[this.index] + ")");
+        }
     }
 
     private void updateButtonsEnabled() {
         this.buttonPrev.setEnabled(this.index != 0);
-        this.buttonNext.setEnabled(this.index != this.solutions.size() - 1);
+        this.buttonNext.setEnabled(this.index < this.solutions.size() - 1);
     }
 }
@@ -0,0 +1,195 @@
+package com.github.a2435191.display;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Solution;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Renders solutions into PNG sprite sheets without a window, in the colors of {@link PentominoDisplay}: each sheet
+ * is a grid of tiles, one solution per tile, in the order the solver finds them.
+ * <p>
+ * Solutions are streamed from the solver. As soon as a sheet is full it is rendered and written on another thread,
+ * and the solver waits while too many sheets are queued, so memory stays bounded however many solutions there are.
+ * <p>
+ * Usage: {@code SpriteSheetExporter DIRECTORY [WIDTHxHEIGHT]}, which exports every solution of a rectangle of the
+ * twelve pentominos, or of {@link com.github.a2435191.Main#getDefaultGrid()}, to {@code sheet-00000.png}, ...
+ */
+public final class SpriteSheetExporter {
+    private static final int QUEUED_PER_THREAD = 2; // sheets waiting to be written, per thread
+    private static final Color GRID_COLOR = Color.DARK_GRAY;
+    private static final Color BACKGROUND_COLOR = Color.BLACK;
+    private static final int TILE_GAP = 4; // pixels between tiles
+
+    private final int columns;
+    private final int rows;
+    private final int squareSize;
+    private final int threads;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param columns    The number of tiles across a sheet.
+     * @param rows       The number of tiles down a sheet. The last sheet may have fewer.
+     * @param squareSize The size of a square of the board, in pixels.
+     * @param threads    The number of threads that render and write sheets.
+     */
+    public SpriteSheetExporter(int columns, int rows, int squareSize, int threads) {
+        if (columns <= 0 || rows <= 0 || squareSize <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("sizes and thread count must be positive");
+        }
+        this.columns = columns;
+        this.rows = rows;
+        this.squareSize = squareSize;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("usage: SpriteSheetExporter DIRECTORY [WIDTHxHEIGHT]");
+            System.exit(2);
+            return;
+        }
+        Board board;
+        if (args.length == 2) {
+            String[] size = args[1].split("x");
+            board = com.github.a2435191.Main.getRectangularGrid(Integer.parseInt(size[1]), Integer.parseInt(size[0]));
+        } else {
+            board = com.github.a2435191.Main.getDefaultGrid();
+        }
+
+        long start = System.nanoTime();
+        long count = new SpriteSheetExporter(10, 10, 12, Runtime.getRuntime().availableProcessors())
+                .export(new DancingLinksPentominoPuzzleSolver(), Pentomino.values(), board, Path.of(args[0]));
+        System.out.println(count + " solutions exported in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Export every solution of a puzzle.
+     *
+     * @param solver    Finds the solutions.
+     * @param pieces    Pentominos to use in solving the puzzle.
+     * @param board     The puzzle space. It is not modified.
+     * @param directory Where to write the sheets, {@code sheet-00000.png} onwards. Created if missing.
+     * @return The number of solutions exported.
+     * @throws IOException If a sheet cannot be written.
+     */
+    public long export(DancingLinksPentominoPuzzleSolver solver, Pentomino[] pieces, Board board, Path directory)
+            throws IOException {
+        Files.createDirectories(directory);
+        final Board puzzle = board.copy();
+        final int perSheet = this.columns * this.rows;
+        final int maxPending = QUEUED_PER_THREAD * this.threads;
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        ArrayDeque<Future<?>> pending = new ArrayDeque<>();
+        long[] count = {0};
+        List<Solution> sheet = new ArrayList<>(perSheet);
+        try {
+            solver.visitSolutions(pieces, board, placements -> {
+                sheet.add(DancingLinksPentominoPuzzleSolver.toSolution(Arrays.asList(placements)));
+                if (++count[0] % perSheet == 0) {
+                    this.submit(executor, pending, puzzle, List.copyOf(sheet), directory, count[0] / perSheet - 1);
+                    sheet.clear();
+                    if (pending.size() > maxPending) {
+                        await(pending.remove());
+                    }
+                }
+                return true;
+            });
+            if (!sheet.isEmpty()) {
+                this.submit(executor, pending, puzzle, List.copyOf(sheet), directory, count[0] / perSheet);
+            }
+            while (!pending.isEmpty()) {
+                await(pending.remove());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
+        return count[0];
+    }
+
+    private void submit(ExecutorService executor, ArrayDeque<Future<?>> pending, Board board,
+                        List<Solution> solutions, Path directory, long index) {
+        pending.add(executor.submit(() -> {
+            try {
+                ImageIO.write(this.render(board, solutions), "png",
+                        directory.resolve(String.format("sheet-%05d.png", index)).toFile());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    private static void await(Future<?> result) {
+        try {
+            result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Draw one sheet.
+     *
+     * @param board     The puzzle space the solutions were computed for.
+     * @param solutions The solutions to draw, at most one sheet's worth.
+     * @return The sheet, where the squares of each tile are outlined by one-pixel grid lines.
+     */
+    BufferedImage render(Board board, List<Solution> solutions) {
+        final int tileWidth = board.getWidth() * (this.squareSize + 1) + 1;
+        final int tileHeight = board.getHeight() * (this.squareSize + 1) + 1;
+        final int sheetColumns = Math.min(this.columns, solutions.size());
+        final int sheetRows = (solutions.size() + this.columns - 1) / this.columns;
+
+        BufferedImage image = new BufferedImage(Math.max(1, sheetColumns * (tileWidth + TILE_GAP) - TILE_GAP),
+                Math.max(1, sheetRows * (tileHeight + TILE_GAP) - TILE_GAP), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(BACKGROUND_COLOR);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            for (int i = 0; i < solutions.size(); i++) {
+                final int left = (i % this.columns) * (tileWidth + TILE_GAP);
+                final int top = (i / this.columns) * (tileHeight + TILE_GAP);
+                graphics.setColor(GRID_COLOR);
+                graphics.fillRect(left, top, tileWidth, tileHeight);
+                String[][] colorNameGrid = PentominoDisplay.colorNameGrid(board, solutions.get(i));
+                for (int y = 0; y < colorNameGrid.length; y++) {
+                    for (int x = 0; x < colorNameGrid[y].length; x++) {
+                        graphics.setColor(PentominoDisplay.nameToColor(colorNameGrid[y][x]));
+                        graphics.fillRect(left + 1 + x * (this.squareSize + 1), top + 1 + y * (this.squareSize + 1),
+                                this.squareSize, this.squareSize);
+                    }
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+}
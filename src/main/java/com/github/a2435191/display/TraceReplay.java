@@ -0,0 +1,142 @@
+package com.github.a2435191.display;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import com.github.a2435191.solvers.dancing_links.Column;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+import com.github.a2435191.solvers.dancing_links.Data;
+import com.github.a2435191.solvers.dancing_links.PlacementTable;
+import com.github.a2435191.solvers.dancing_links.Root;
+import com.github.a2435191.solvers.dancing_links.SearchTrace;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the dancing links search of a rectangle of the twelve pentominos to a {@link SearchTrace} file, and steps
+ * through one.
+ * <p>
+ * Usage: {@code TraceReplay record FILE [WIDTHxHEIGHT]} searches the rectangle, or
+ * {@link com.github.a2435191.Main#getDefaultGrid()}, for every solution, writing each step to {@code FILE}.
+ * {@code TraceReplay replay FILE [WIDTHxHEIGHT] [FIRST [COUNT]]} prints the steps from {@code FIRST} on (default
+ * 0, 1000 of them), with the columns and placements they refer to, and shows the partial solution after each of them
+ * in a {@link PentominoDisplay}, unless headless. The board must be the one the trace was recorded for, since the
+ * trace only stores the indices of columns and rows, and the trace must start at the start of the search, since the
+ * partial solutions are rebuilt from the rows tried.
+ */
+public final class TraceReplay {
+    private static final int BUFFERED_EVENTS = 1 << 16;
+    private static final int DEFAULT_COUNT = 1000;
+
+    private TraceReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 5 || !args[0].equals("record") && !args[0].equals("replay")
+                || args[0].equals("record") && args.length > 3) {
+            System.err.println("usage: TraceReplay record FILE [WIDTHxHEIGHT]");
+            System.err.println("       TraceReplay replay FILE [WIDTHxHEIGHT] [FIRST [COUNT]]");
+            System.exit(2);
+            return;
+        }
+        final Path file = Path.of(args[1]);
+        int next = 2;
+        Board board = com.github.a2435191.Main.getDefaultGrid();
+        if (args.length > next && args[next].contains("x")) {
+            String[] size = args[next++].split("x");
+            board = com.github.a2435191.Main.getRectangularGrid(Integer.parseInt(size[1]), Integer.parseInt(size[0]));
+        }
+        final Root<Placement> root = createRoot(board);
+
+        if (args[0].equals("record")) {
+            long start = System.nanoTime();
+            long[] solutions = {0};
+            try (SearchTrace trace = new SearchTrace(BUFFERED_EVENTS, file)) {
+                root.trace = trace;
+                root.visit((rowIndices, depth) -> {
+                    solutions[0]++;
+                    return true;
+                });
+                System.out.println(solutions[0] + " solutions, " + trace.getEventCount() + " steps recorded in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+            return;
+        }
+
+        final long first = args.length > next ? Long.parseLong(args[next++]) : 0;
+        final long count = args.length > next ? Long.parseLong(args[next]) : DEFAULT_COUNT;
+        List<Solution> frames = replay(root, file, first, count);
+        if (!frames.isEmpty() && !GraphicsEnvironment.isHeadless()) {
+            final Board finalBoard = board;
+            SwingUtilities.invokeLater(() -> new PentominoDisplay(frames, finalBoard).setVisible(true));
+        }
+    }
+
+    // the matrix the search of `record` runs on, whose rows and columns the steps refer to
+    private static Root<Placement> createRoot(Board board) {
+        Pentomino[] pieces = Pentomino.values();
+        return new DancingLinksPentominoPuzzleSolver().createRoot(pieces, board, PlacementTable.compute(pieces, board));
+    }
+
+    /**
+     * Print some steps of a trace.
+     *
+     * @param root  The matrix the trace was recorded on, before any search.
+     * @param file  The trace.
+     * @param first The index of the first step to print.
+     * @param count The number of steps to print.
+     * @return The partial solution after each printed step.
+     * @throws IOException If the trace cannot be read.
+     */
+    static List<Solution> replay(Root<Placement> root, Path file, long first, long count) throws IOException {
+        // the columns are numbered in the order of the header row before the search covers any
+        List<String> columnNames = new ArrayList<>();
+        for (Data<Placement> column = root.right; column != root; column = column.right) {
+            columnNames.add(((Column<Placement>) column).getName());
+        }
+
+        List<Solution> frames = new ArrayList<>();
+        // rows[d] is the row tried at depth d, for every depth above the current step
+        int[][] rows = {new int[16]};
+        long[] index = {0};
+        SearchTrace.read(file, event -> {
+            final long i = index[0]++;
+            final int depth = event.depth();
+            if (event.type() == SearchTrace.EventType.TRY_ROW) {
+                if (depth >= rows[0].length) {
+                    rows[0] = Arrays.copyOf(rows[0], 2 * (depth + 1));
+                }
+                rows[0][depth] = event.value();
+            }
+            if (i - first >= count) {
+                return false; // past the steps to print, so the rest of the file is not needed
+            }
+            if (i < first) {
+                return true;
+            }
+
+            final int size = event.type() == SearchTrace.EventType.TRY_ROW ? depth + 1 : depth;
+            String target = switch (event.type()) {
+                case CHOOSE_COLUMN -> "column " + columnNames.get(event.value());
+                case TRY_ROW, BACKTRACK, EXCLUDE_ROW -> String.valueOf(root.getRowData(event.value()));
+                case SOLUTION -> "";
+            };
+            System.out.printf("%10d %" + (2 * depth + 1) + "s%s %s%n", i, "", event.type(), target);
+
+            List<Placement> placements = new ArrayList<>(size);
+            for (int d = 0; d < size; d++) {
+                placements.add(root.getRowData(rows[0][d]));
+            }
+            frames.add(new Solution(placements));
+            return true;
+        });
+        return frames;
+    }
+}
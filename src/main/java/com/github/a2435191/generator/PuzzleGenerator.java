@@ -0,0 +1,178 @@
+package com.github.a2435191.generator;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Transformation;
+import com.github.a2435191.solvers.BoardSymmetries;
+import com.github.a2435191.solvers.dancing_links.PlacementTable;
+import com.github.a2435191.solvers.dancing_links.UniquenessChecker;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Generates puzzles with exactly one solution (up to symmetry) by punching holes into a base board.
+ * The base board has more empty squares than the pieces cover; the generator fills the difference with holes,
+ * then repeatedly moves one hole at a time, keeping the candidate with the fewest solutions as the parent of the
+ * next batch. Candidates in a batch are evaluated in parallel, and all of them share the placements computed once
+ * for the base board.
+ */
+public final class PuzzleGenerator {
+    /**
+     * Solutions are only counted up to this number when ranking candidates.
+     */
+    private static final int SCORE_LIMIT = 8;
+
+    private final Pentomino[] pieces;
+    private final Board baseBoard;
+    private final int threads;
+    private final int holes;
+    private final int[] emptyCells; // row-major indices of the empty squares of the base board
+    private final List<int[]> baseSymmetries = new ArrayList<>();
+    private final PlacementTable placements;
+    private final UniquenessChecker checker;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param pieces    Pentominos to use in solving the puzzles.
+     * @param baseBoard Board to punch holes into. Must have at least as many empty squares as the pieces cover.
+     * @param threads   Number of candidates to evaluate at the same time.
+     */
+    public PuzzleGenerator(Pentomino[] pieces, Board baseBoard, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.pieces = pieces.clone();
+        this.baseBoard = baseBoard.copy();
+        this.threads = threads;
+
+        List<Integer> empty = new ArrayList<>();
+        for (int idx = baseBoard.firstEmptyIndex(0); idx >= 0; idx = baseBoard.firstEmptyIndex(idx + 1)) {
+            empty.add(idx);
+        }
+        this.emptyCells = empty.stream().mapToInt(Integer::intValue).toArray();
+        this.holes = this.emptyCells.length - Arrays.stream(pieces).mapToInt(p -> p.area).sum();
+        if (this.holes < 0) {
+            throw new IllegalArgumentException("pieces cover more squares than the board has");
+        }
+
+        for (Transformation t : BoardSymmetries.of(baseBoard)) {
+            this.baseSymmetries.add(BoardSymmetries.cellPermutation(t, baseBoard.getHeight(), baseBoard.getWidth()));
+        }
+        this.placements = PlacementTable.compute(this.pieces, baseBoard);
+        this.checker = new UniquenessChecker(this.pieces);
+    }
+
+    /**
+     * Generate puzzles.
+     *
+     * @param count         The number of puzzles to generate.
+     * @param maxCandidates The maximum number of candidate boards to evaluate before giving up.
+     * @param seed          Seed for choosing holes, so that runs are reproducible.
+     * @return At most {@code count} boards, none a symmetric image of another, each with exactly one solution
+     * up to its own symmetries.
+     */
+    public List<Board> generate(int count, int maxCandidates, long seed) {
+        Random random = new Random(seed);
+        List<Board> out = new ArrayList<>();
+        Set<BitSet> seen = new HashSet<>();
+
+        BitSet parent = this.randomHoles(random);
+        int parentScore = Integer.MAX_VALUE;
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            int evaluated = 0;
+            while (out.size() < count && evaluated < maxCandidates) {
+                List<BitSet> batch = new ArrayList<>();
+                for (int attempt = 0; batch.size() < 4 * this.threads && attempt < 16 * this.threads; attempt++) {
+                    BitSet candidate = evaluated == 0 && batch.isEmpty() ? parent : this.mutate(parent, random);
+                    if (seen.add(this.canonical(candidate))) {
+                        batch.add(candidate);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    break; // the neighbourhood of the parent is exhausted
+                }
+
+                List<Future<Integer>> scores = new ArrayList<>();
+                for (BitSet candidate : batch) {
+                    scores.add(executor.submit(() -> this.checker.countSolutionsUpToSymmetry(
+                            this.toBoard(candidate), SCORE_LIMIT, this.placements)));
+                }
+                evaluated += batch.size();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    int score = scores.get(i).get();
+                    if (score == 1 && out.size() < count) {
+                        out.add(this.toBoard(batch.get(i)));
+                    }
+                    if (score > 0 && score <= parentScore) {
+                        parent = batch.get(i);
+                        parentScore = score;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return out;
+    }
+
+    private BitSet randomHoles(Random random) {
+        BitSet out = new BitSet();
+        while (out.cardinality() < this.holes) {
+            out.set(this.emptyCells[random.nextInt(this.emptyCells.length)]);
+        }
+        return out;
+    }
+
+    // move one hole to a random empty square
+    private BitSet mutate(BitSet holes, Random random) {
+        BitSet out = (BitSet) holes.clone();
+        if (this.holes == 0 || this.holes == this.emptyCells.length) {
+            return out;
+        }
+
+        int[] current = holes.stream().toArray();
+        out.clear(current[random.nextInt(current.length)]);
+        int cell;
+        do {
+            cell = this.emptyCells[random.nextInt(this.emptyCells.length)];
+        } while (holes.get(cell));
+        out.set(cell);
+        return out;
+    }
+
+    // the smallest image of a set of holes under the symmetries of the base board
+    private BitSet canonical(BitSet holes) {
+        BitSet best = null;
+        for (int[] permutation : this.baseSymmetries) {
+            BitSet image = new BitSet();
+            holes.stream().forEach(cell -> image.set(permutation[cell]));
+            if (best == null || compare(image, best) < 0) {
+                best = image;
+            }
+        }
+        return best;
+    }
+
+    private static int compare(BitSet a, BitSet b) {
+        BitSet difference = (BitSet) a.clone();
+        difference.xor(b);
+        int first = difference.nextSetBit(0);
+        return first < 0 ? 0 : (a.get(first) ? -1 : 1);
+    }
+
+    private Board toBoard(BitSet holes) {
+        final int width = this.baseBoard.getWidth();
+        Board out = this.baseBoard.copy();
+        holes.stream().forEach(cell -> out.fill(cell % width, cell / width));
+        return out;
+    }
+}
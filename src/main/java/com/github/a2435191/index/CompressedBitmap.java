@@ -0,0 +1,351 @@
+package com.github.a2435191.index;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable set of non-negative integers, compressed in the style of
+ * <a href="https://roaringbitmap.org/">Roaring bitmaps</a>. Values are split into chunks of 2<sup>16</sup> by their
+ * high bits; a sparse chunk is stored as a sorted array of its low bits, and a dense chunk as a bitmap.
+ * Intersections work a chunk at a time, and a word at a time on dense chunks.
+ */
+public final class CompressedBitmap {
+    /**
+     * The empty set.
+     */
+    public static final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Object[0], new int[0]);
+
+    private static final int ARRAY_LIMIT = 4096; // above this, a bitmap (8 KiB) is smaller than an array
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private final char[] keys; // high 16 bits of each chunk, ascending
+    private final Object[] containers; // char[] (sorted low bits) or long[] (bitmap) for each chunk
+    private final int[] cardinalities;
+
+    private CompressedBitmap(char[] keys, Object[] containers, int[] cardinalities) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinalities = cardinalities;
+    }
+
+    /**
+     * Create a set from a sorted array.
+     *
+     * @param values Distinct non-negative values, in ascending order.
+     * @return The set of {@code values}.
+     */
+    public static CompressedBitmap of(int... values) {
+        Builder builder = new Builder();
+        for (int value : values) {
+            builder.add(value);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Intersect several sets, smallest first.
+     *
+     * @param bitmaps The sets to intersect.
+     * @return Every value contained in all of {@code bitmaps}; {@link #EMPTY} if there are none.
+     */
+    public static CompressedBitmap and(CompressedBitmap... bitmaps) {
+        if (bitmaps.length == 0) {
+            return EMPTY;
+        }
+        CompressedBitmap[] sorted = bitmaps.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        CompressedBitmap out = sorted[0];
+        for (int i = 1; i < sorted.length && !out.isEmpty(); i++) {
+            out = out.and(sorted[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Count the values in the set.
+     *
+     * @return The number of values.
+     */
+    public int cardinality() {
+        int out = 0;
+        for (int c : this.cardinalities) {
+            out += c;
+        }
+        return out;
+    }
+
+    public boolean isEmpty() {
+        return this.keys.length == 0;
+    }
+
+    /**
+     * Check whether a value is in the set.
+     *
+     * @param value A non-negative value.
+     * @return {@code true} if {@code value} is in the set.
+     */
+    public boolean contains(int value) {
+        int chunk = Arrays.binarySearch(this.keys, (char) (value >>> 16));
+        if (chunk < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (this.containers[chunk] instanceof long[] bitmap) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) this.containers[chunk], low) >= 0;
+    }
+
+    /**
+     * Intersect with another set.
+     *
+     * @param other Another set.
+     * @return The values contained in both sets.
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        Builder out = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length && j < other.keys.length) {
+            if (this.keys[i] < other.keys[j]) {
+                i++;
+            } else if (this.keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                andContainers(this.keys[i], this.containers[i], other.containers[j], out);
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    /**
+     * Unite with another set.
+     *
+     * @param other Another set.
+     * @return The values contained in either set.
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        Builder out = new Builder();
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < this.keys.length && this.keys[i] < other.keys[j])) {
+                out.addContainer(this.keys[i], this.containers[i], this.cardinalities[i]);
+                i++;
+            } else if (i == this.keys.length || this.keys[i] > other.keys[j]) {
+                out.addContainer(other.keys[j], other.containers[j], other.cardinalities[j]);
+                j++;
+            } else {
+                long[] bitmap = toBitmap(this.containers[i]);
+                long[] otherBitmap = toBitmap(other.containers[j]);
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    bitmap[w] |= otherBitmap[w];
+                }
+                out.addBitmap(this.keys[i], bitmap);
+                i++;
+                j++;
+            }
+        }
+        return out.build();
+    }
+
+    /**
+     * Stream the values.
+     *
+     * @return The values in ascending order.
+     */
+    public IntStream stream() {
+        return Arrays.stream(this.toArray());
+    }
+
+    /**
+     * Copy the values into an array.
+     *
+     * @return The values in ascending order.
+     */
+    public int[] toArray() {
+        int[] out = new int[this.cardinality()];
+        int k = 0;
+        for (int chunk = 0; chunk < this.keys.length; chunk++) {
+            int high = this.keys[chunk] << 16;
+            if (this.containers[chunk] instanceof long[] bitmap) {
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long word = bitmap[w]; word != 0; word &= word - 1) {
+                        out[k++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                }
+            } else {
+                for (char low : (char[]) this.containers[chunk]) {
+                    out[k++] = high | low;
+                }
+            }
+        }
+        return out;
+    }
+
+    private static long[] toBitmap(Object container) {
+        if (container instanceof long[] bitmap) {
+            return bitmap.clone();
+        }
+        long[] out = new long[BITMAP_WORDS];
+        for (char low : (char[]) container) {
+            out[low >>> 6] |= 1L << low;
+        }
+        return out;
+    }
+
+    private static void andContainers(char key, Object a, Object b, Builder out) {
+        if (a instanceof long[] bitmapA && b instanceof long[] bitmapB) {
+            long[] bitmap = new long[BITMAP_WORDS];
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                bitmap[w] = bitmapA[w] & bitmapB[w];
+            }
+            out.addBitmap(key, bitmap);
+            return;
+        }
+        if (a instanceof long[]) {
+            Object tmp = a;
+            a = b;
+            b = tmp;
+        }
+
+        // a is now an array; probe each of its values in b
+        char[] array = (char[]) a;
+        char[] result = new char[array.length];
+        int size = 0;
+        for (char low : array) {
+            boolean found = b instanceof long[] bitmap
+                    ? (bitmap[low >>> 6] & (1L << low)) != 0
+                    : Arrays.binarySearch((char[]) b, low) >= 0;
+            if (found) {
+                result[size++] = low;
+            }
+        }
+        if (size > 0) {
+            out.addContainer(key, Arrays.copyOf(result, size), size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedBitmap (" + this.cardinality() + " values)";
+    }
+
+    /**
+     * Builds a set from values added in ascending order.
+     */
+    public static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] containers = new Object[4];
+        private int[] cardinalities = new int[4];
+        private int size = 0;
+
+        private char[] currentArray = new char[16];
+        private long[] currentBitmap = null;
+        private int currentKey = -1;
+        private int currentCardinality = 0;
+        private int last = -1;
+
+        /**
+         * Add a value.
+         *
+         * @param value A non-negative value, larger than any value added before.
+         * @return {@code this}.
+         */
+        public Builder add(int value) {
+            if (value <= this.last) {
+                throw new IllegalArgumentException("values must be added in ascending order");
+            }
+            this.last = value;
+
+            int key = value >>> 16;
+            char low = (char) value;
+            if (key != this.currentKey) {
+                this.flush();
+                this.currentKey = key;
+            }
+
+            if (this.currentBitmap != null) {
+                this.currentBitmap[low >>> 6] |= 1L << low;
+            } else if (this.currentCardinality == ARRAY_LIMIT) {
+                this.currentBitmap = toBitmap(Arrays.copyOf(this.currentArray, this.currentCardinality));
+                this.currentBitmap[low >>> 6] |= 1L << low;
+            } else {
+                if (this.currentCardinality == this.currentArray.length) {
+                    this.currentArray = Arrays.copyOf(this.currentArray, 2 * this.currentCardinality);
+                }
+                this.currentArray[this.currentCardinality] = low;
+            }
+            this.currentCardinality++;
+            return this;
+        }
+
+        private void flush() {
+            if (this.currentCardinality > 0) {
+                Object container = this.currentBitmap != null
+                        ? this.currentBitmap
+                        : Arrays.copyOf(this.currentArray, this.currentCardinality);
+                this.append((char) this.currentKey, container, this.currentCardinality);
+            }
+            this.currentBitmap = null;
+            this.currentCardinality = 0;
+        }
+
+        // for chunks computed whole, in ascending order of key
+        private void addContainer(char key, Object container, int cardinality) {
+            this.flush();
+            this.currentKey = -1;
+            this.last = (key << 16) | 0xFFFF;
+            this.append(key, container, cardinality);
+        }
+
+        private void addBitmap(char key, long[] bitmap) {
+            int cardinality = 0;
+            for (long word : bitmap) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality == 0) {
+                return;
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                this.addContainer(key, bitmap, cardinality);
+                return;
+            }
+            char[] array = new char[cardinality];
+            int k = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                for (long word = bitmap[w]; word != 0; word &= word - 1) {
+                    array[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                }
+            }
+            this.addContainer(key, array, cardinality);
+        }
+
+        private void append(char key, Object container, int cardinality) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+                this.containers = Arrays.copyOf(this.containers, 2 * this.size);
+                this.cardinalities = Arrays.copyOf(this.cardinalities, 2 * this.size);
+            }
+            this.keys[this.size] = key;
+            this.containers[this.size] = container;
+            this.cardinalities[this.size] = cardinality;
+            this.size++;
+        }
+
+        /**
+         * Finish building. The builder must not be used afterwards.
+         *
+         * @return The set of added values.
+         */
+        public CompressedBitmap build() {
+            this.flush();
+            return new CompressedBitmap(
+                    Arrays.copyOf(this.keys, this.size),
+                    Arrays.copyOf(this.containers, this.size),
+                    Arrays.copyOf(this.cardinalities, this.size));
+        }
+    }
+}
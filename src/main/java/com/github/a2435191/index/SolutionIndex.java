@@ -0,0 +1,168 @@
+package com.github.a2435191.index;
+
+import com.github.a2435191.*;
+
+import java.util.*;
+
+/**
+ * An inverted index over enumerated solutions. Solutions are numbered in the order they are added, and each
+ * placement (piece, orientation and anchor) maps to a {@link CompressedBitmap} of the solutions that contain it,
+ * so conjunctive queries like "which solutions agree with this partial layout?" are answered by intersecting
+ * bitmaps instead of scanning every {@link Solution}.
+ */
+public final class SolutionIndex {
+    private final int size;
+    private final Map<Placement, CompressedBitmap> byPlacement;
+    private final Map<PieceAndSquare, List<Placement>> placementsCovering;
+
+    private SolutionIndex(int size, Map<Placement, CompressedBitmap> byPlacement) {
+        this.size = size;
+        this.byPlacement = byPlacement;
+        this.placementsCovering = new HashMap<>();
+        for (Placement placement : byPlacement.keySet()) {
+            for (Coordinate square : placement.cells()) {
+                this.placementsCovering
+                        .computeIfAbsent(new PieceAndSquare(placement.piece(), square), k -> new ArrayList<>())
+                        .add(placement);
+            }
+        }
+    }
+
+    /**
+     * Index a list of solutions. Solution ids are indices into the list.
+     *
+     * @param solutions The solutions to index.
+     * @return The index.
+     */
+    public static SolutionIndex of(List<Solution> solutions) {
+        Builder builder = new Builder();
+        for (Solution solution : solutions) {
+            builder.add(solution);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Get the number of indexed solutions.
+     *
+     * @return The number of solutions; ids range from 0 (inclusive) to this (exclusive).
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get every placement used by some solution.
+     *
+     * @return An unmodifiable set of normalized placements.
+     */
+    public Set<Placement> placements() {
+        return Collections.unmodifiableSet(this.byPlacement.keySet());
+    }
+
+    /**
+     * Find the solutions containing a placement.
+     *
+     * @param placement A placement. It does not have to be normalized.
+     * @return The ids of the solutions containing {@code placement}.
+     */
+    public CompressedBitmap withPlacement(Placement placement) {
+        return this.byPlacement.getOrDefault(placement.normalized(), CompressedBitmap.EMPTY);
+    }
+
+    /**
+     * Find the solutions containing all of several placements.
+     *
+     * @param placements The placements. They do not have to be normalized.
+     * @return The ids of the solutions containing every one of {@code placements}.
+     */
+    public CompressedBitmap matching(Collection<Placement> placements) {
+        if (placements.isEmpty()) {
+            return this.all();
+        }
+        return CompressedBitmap.and(placements.stream()
+                .map(this::withPlacement)
+                .toArray(CompressedBitmap[]::new));
+    }
+
+    /**
+     * Find the solutions that agree with a partial layout.
+     *
+     * @param partial Some of the pieces of a layout, in the same format as {@link Solution#data()}.
+     * @return The ids of the solutions that place every piece of {@code partial} the same way.
+     */
+    public CompressedBitmap agreeingWith(Map<Pentomino, TransformationAndCoordinate> partial) {
+        List<Placement> placements = new ArrayList<>();
+        for (var entry : partial.entrySet()) {
+            placements.add(new Placement(entry.getKey(), entry.getValue()));
+        }
+        return this.matching(placements);
+    }
+
+    /**
+     * Find the solutions in which a piece covers a square, e.g. the cross in the center of the board.
+     *
+     * @param piece  The piece.
+     * @param square The square.
+     * @return The ids of the solutions where {@code piece} covers {@code square}, in any orientation.
+     */
+    public CompressedBitmap covering(Pentomino piece, Coordinate square) {
+        CompressedBitmap out = CompressedBitmap.EMPTY;
+        for (Placement placement : this.placementsCovering.getOrDefault(new PieceAndSquare(piece, square), List.of())) {
+            out = out.or(this.byPlacement.get(placement));
+        }
+        return out;
+    }
+
+    /**
+     * Get every solution.
+     *
+     * @return The ids of all indexed solutions.
+     */
+    public CompressedBitmap all() {
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        for (int i = 0; i < this.size; i++) {
+            builder.add(i);
+        }
+        return builder.build();
+    }
+
+    private record PieceAndSquare(Pentomino piece, Coordinate square) {
+    }
+
+    /**
+     * Builds an index one solution at a time, e.g. while the solutions are being enumerated.
+     */
+    public static final class Builder {
+        private final Map<Placement, CompressedBitmap.Builder> byPlacement = new HashMap<>();
+        private int size = 0;
+
+        /**
+         * Index a solution.
+         *
+         * @param solution The next solution.
+         * @return The id of {@code solution}.
+         */
+        public int add(Solution solution) {
+            int id = this.size++;
+            for (Placement placement : solution.placements()) {
+                placement = placement.normalized();
+                this.byPlacement.computeIfAbsent(placement, k -> new CompressedBitmap.Builder()).add(id);
+            }
+            return id;
+        }
+
+        /**
+         * Finish building. The builder must not be used afterwards.
+         *
+         * @return The index of every added solution.
+         */
+        public SolutionIndex build() {
+            Map<Placement, CompressedBitmap> out = new HashMap<>();
+            for (var entry : this.byPlacement.entrySet()) {
+                out.put(entry.getKey(), entry.getValue().build());
+            }
+            return new SolutionIndex(this.size, out);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.a2435191.lattice;
+
+/**
+ * The geometry of a tiling of the plane by cells, as precomputed tables. A cell is given by integer coordinates
+ * {@code (x, y)} and a {@code kind}, which tells apart cells of different shapes that share the same translation:
+ * <ul>
+ *     <li>{@link #SQUARE}: one kind of cell, {@code (x, y)} as usual.</li>
+ *     <li>{@link #HEXAGONAL}: one kind of cell, in axial coordinates: the {@code x} axis and the {@code y} axis
+ *     are 60 degrees apart, so {@code (x, y)} touches {@code (x + 1, y - 1)} and {@code (x - 1, y + 1)} as well as
+ *     its four neighbors along the axes.</li>
+ *     <li>{@link #TRIANGULAR}: the same skewed axes split into parallelograms, each cut into an upward triangle
+ *     (kind 0), with corners {@code (x, y)}, {@code (x + 1, y)} and {@code (x, y + 1)}, and a downward one
+ *     (kind 1).</li>
+ * </ul>
+ * Translating by whole {@code (x, y)} steps keeps the kind, so pieces are moved by adding offsets; only rotations
+ * and reflections, which turn upward triangles into downward ones, go through the orientation tables, and those
+ * are applied once per piece (see {@link Polyform}).
+ */
+public enum Lattice {
+    SQUARE(1, 4, new int[]{0, -1, 1, 0}, new int[][][]{
+            {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}}
+    }),
+    HEXAGONAL(1, 6, new int[]{0, -1, 1, 1}, new int[][][]{
+            {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {1, -1, 0}, {-1, 1, 0}}
+    }),
+    TRIANGULAR(2, 6, new int[]{0, -1, 1, 1}, new int[][][]{
+            {{0, 0, 1}, {0, -1, 1}, {-1, 0, 1}},
+            {{0, 0, 0}, {0, 1, 0}, {1, 0, 0}}
+    });
+
+    private final int kinds;
+    private final int rotations;
+    // orientation i maps the point (u, v) to (m[0] u + m[1] v, m[2] u + m[3] v), where m = matrices[i]
+    private final int[][] matrices;
+    private final int[][][] neighbors; // for each kind, the offsets (dx, dy) and kind of each neighbor
+
+    /**
+     * @param kinds     The number of kinds of cell.
+     * @param rotations The order of the rotation group.
+     * @param rotation  The matrix of the smallest rotation, on the points that stand for the cells.
+     * @param neighbors For each kind, the neighbors of the cell {@code (0, 0)} of that kind.
+     */
+    Lattice(int kinds, int rotations, int[] rotation, int[][][] neighbors) {
+        this.kinds = kinds;
+        this.rotations = rotations;
+        this.neighbors = neighbors;
+        this.matrices = new int[2 * rotations][];
+        int[] matrix = {1, 0, 0, 1};
+        for (int i = 0; i < rotations; i++) {
+            this.matrices[i] = matrix;
+            // the same rotation after swapping the axes, which reflects across the line x = y
+            this.matrices[rotations + i] = new int[]{matrix[1], matrix[0], matrix[3], matrix[2]};
+            matrix = new int[]{
+                    rotation[0] * matrix[0] + rotation[1] * matrix[2],
+                    rotation[0] * matrix[1] + rotation[1] * matrix[3],
+                    rotation[2] * matrix[0] + rotation[3] * matrix[2],
+                    rotation[2] * matrix[1] + rotation[3] * matrix[3]
+            };
+        }
+    }
+
+    /**
+     * Get the number of kinds of cell.
+     *
+     * @return 2 for {@link #TRIANGULAR}, otherwise 1.
+     */
+    public int getKinds() {
+        return this.kinds;
+    }
+
+    /**
+     * Count the symmetries of the lattice around a point.
+     *
+     * @param reflections Whether to count the symmetries that reflect.
+     * @return The number of orientations: 4 or 8 for {@link #SQUARE}, 6 or 12 otherwise.
+     */
+    public int getOrientationCount(boolean reflections) {
+        return reflections ? this.matrices.length : this.rotations;
+    }
+
+    /**
+     * Get the neighbors of a cell, i.e. the cells that share an edge with it.
+     *
+     * @param kind The kind of the cell.
+     * @return The {@code (dx, dy, kind)} of each neighbor, relative to the cell. Must not be modified.
+     */
+    public int[][] getNeighbors(int kind) {
+        return this.neighbors[kind];
+    }
+
+    /**
+     * Apply an orientation to a cell.
+     *
+     * @param orientation The orientation, from 0 (inclusive) to {@link #getOrientationCount(boolean)} with
+     *                    reflections (exclusive); rotations come first.
+     * @param cell        The {@code (x, y, kind)} of the cell.
+     * @param out         Array to write the {@code (x, y, kind)} of the image to. Must not be {@code cell}.
+     * @return {@code out}.
+     */
+    public int[] apply(int orientation, int[] cell, int[] out) {
+        final int[] m = this.matrices[orientation];
+        final int u = this.toPoint(cell[0], cell[2]);
+        final int v = this.toPoint(cell[1], cell[2]);
+        return this.fromPoint(m[0] * u + m[1] * v, m[2] * u + m[3] * v, out);
+    }
+
+    // a coordinate of a point that stands for the cell under the symmetries, which fix the origin: the cell itself
+    // on the square and hexagonal lattices, and the center of the triangle, scaled by 3 to be whole, on the other
+    private int toPoint(int coordinate, int kind) {
+        return this == TRIANGULAR ? 3 * coordinate + 1 + kind : coordinate;
+    }
+
+    private int[] fromPoint(int u, int v, int[] out) {
+        if (this == TRIANGULAR) {
+            out[0] = Math.floorDiv(u, 3);
+            out[1] = Math.floorDiv(v, 3);
+            out[2] = Math.floorMod(u, 3) - 1;
+        } else {
+            out[0] = u;
+            out[1] = v;
+            out[2] = 0;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.a2435191.lattice;
+
+import java.util.BitSet;
+
+/**
+ * A puzzle space on a {@link Lattice}: the cells {@code (x, y, kind)} with {@code 0 <= x < width} and
+ * {@code 0 <= y < height}, some of which may be filled in advance. That is a rectangle on the square lattice, and a
+ * parallelogram with 60 degree angles on the others; other shapes are made by filling cells. Cells are numbered
+ * {@code kind + kinds * (x + width * y)}, so that moving a piece by whole {@code (x, y)} steps adds the same amount
+ * to the index of each of its cells.
+ */
+public final class LatticeBoard {
+    private final Lattice lattice;
+    private final int width;
+    private final int height;
+    private final BitSet filled = new BitSet();
+
+    /**
+     * Construct an empty board.
+     *
+     * @param lattice The shape of the cells.
+     * @param width   Extent along the x axis.
+     * @param height  Extent along the y axis.
+     */
+    public LatticeBoard(Lattice lattice, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive");
+        }
+        this.lattice = lattice;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Lattice getLattice() {
+        return this.lattice;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Get the number of cells, filled or not.
+     *
+     * @return {@code width * height * kinds}.
+     */
+    public int size() {
+        return this.width * this.height * this.lattice.getKinds();
+    }
+
+    /**
+     * Get the index of a cell.
+     *
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @param kind The kind of cell (see {@link Lattice}).
+     * @return {@code kind + kinds * (x + width * y)}.
+     */
+    public int index(int x, int y, int kind) {
+        return kind + this.lattice.getKinds() * (x + this.width * y);
+    }
+
+    /**
+     * Check whether a cell is on the board.
+     *
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @param kind The kind of cell.
+     * @return {@code true} if the cell is on the board, filled or not.
+     */
+    public boolean contains(int x, int y, int kind) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height && kind >= 0 && kind < this.lattice.getKinds();
+    }
+
+    public boolean isFilled(int index) {
+        return this.filled.get(index);
+    }
+
+    /**
+     * Mark a cell as filled, so that no piece may cover it.
+     *
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @param kind The kind of cell.
+     */
+    public void fill(int x, int y, int kind) {
+        if (!this.contains(x, y, kind)) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ", " + kind + ") is outside the board");
+        }
+        this.filled.set(this.index(x, y, kind));
+    }
+
+    /**
+     * Count the cells that are not filled.
+     *
+     * @return The number of empty cells.
+     */
+    public int emptyCount() {
+        return this.size() - this.filled.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return this.lattice + " board " + this.width + "x" + this.height;
+    }
+}
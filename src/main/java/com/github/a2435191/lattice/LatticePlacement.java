@@ -0,0 +1,31 @@
+package com.github.a2435191.lattice;
+
+/**
+ * Wrapper record for a polyform placed on a board.
+ *
+ * @param piece       The piece.
+ * @param orientation Index of its orientation (see {@link Polyform#getOrientationCount(boolean)}).
+ * @param x           The amount it is moved along the x axis from its normalized position.
+ * @param y           The amount it is moved along the y axis.
+ */
+public record LatticePlacement(Polyform piece, int orientation, int x, int y) {
+    /**
+     * Compute the cells covered by the placed piece.
+     *
+     * @param board The board it was placed on.
+     * @return The index (see {@link LatticeBoard#index(int, int, int)}) of each covered cell.
+     */
+    public int[] cells(LatticeBoard board) {
+        int[][] cells = this.piece.getOrientation(this.orientation);
+        int[] out = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            out[i] = board.index(cells[i][0] + this.x, cells[i][1] + this.y, cells[i][2]);
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return this.piece.getName() + ": orientation " + this.orientation + " at (" + this.x + ", " + this.y + ")";
+    }
+}
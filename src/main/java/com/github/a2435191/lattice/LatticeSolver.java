@@ -0,0 +1,187 @@
+package com.github.a2435191.lattice;
+
+import com.github.a2435191.solvers.dancing_links.Root;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Solves polyomino, polyhex and polyiamond puzzles with Knuth's dancing links algorithm. There is one column for
+ * each piece and one for each empty cell, and one row for each orientation and translation of each piece that fits.
+ * A piece listed several times has a single column, which must be covered that many times, so that its copies are
+ * interchangeable and each solution is found once.
+ * <p>
+ * Rows are generated from tables, the same way on every lattice: each orientation of each piece is turned once
+ * into cell index offsets for the board, so a placement is just its anchor index plus those offsets, with no
+ * transformation of its cells.
+ */
+public final class LatticeSolver {
+    private final boolean reflections;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param reflections Whether pieces may be turned over as well as rotated, as for free polyforms; without,
+     *                    they are one-sided.
+     */
+    public LatticeSolver(boolean reflections) {
+        this.reflections = reflections;
+    }
+
+    /**
+     * Build the exact cover matrix for a puzzle.
+     *
+     * @param pieces Pieces to pack, on the lattice of the board. Every piece must be used exactly once; the same
+     *               {@link Polyform} listed several times is used that many times.
+     * @param board  The puzzle space. It is not modified.
+     * @return The root of the matrix, where each row is associated with its placement.
+     */
+    public Root<LatticePlacement> createRoot(Polyform[] pieces, LatticeBoard board) {
+        final int width = board.getWidth();
+        final int height = board.getHeight();
+        final int kinds = board.getLattice().getKinds();
+
+        int[] cellColumns = new int[board.size()];
+        List<String> columns = new ArrayList<>();
+        // the column of each distinct piece, and how many copies of it there are
+        Map<Polyform, Integer> pieceColumns = new LinkedHashMap<>();
+        List<Integer> copies = new ArrayList<>();
+        for (Polyform piece : pieces) {
+            if (piece.getLattice() != board.getLattice()) {
+                throw new IllegalArgumentException(piece + " is not made of " + board.getLattice() + " cells");
+            }
+            Integer column = pieceColumns.putIfAbsent(piece, columns.size());
+            if (column == null) {
+                columns.add("Piece: " + piece.getName());
+                copies.add(1);
+            } else {
+                copies.set(column, copies.get(column) + 1);
+            }
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int kind = 0; kind < kinds; kind++) {
+                    int index = board.index(x, y, kind);
+                    if (!board.isFilled(index)) {
+                        cellColumns[index] = columns.size();
+                        columns.add(kinds == 1
+                                ? "Cell: (" + x + ", " + y + ")"
+                                : "Cell: (" + x + ", " + y + ", " + kind + ")");
+                    }
+                }
+            }
+        }
+
+        int[] multiplicities = new int[columns.size()];
+        Arrays.fill(multiplicities, 1);
+        for (int i = 0; i < copies.size(); i++) {
+            multiplicities[i] = copies.get(i);
+        }
+
+        List<int[]> rows = new ArrayList<>();
+        List<LatticePlacement> associatedRowData = new ArrayList<>();
+        for (Map.Entry<Polyform, Integer> entry : pieceColumns.entrySet()) {
+            Polyform piece = entry.getKey();
+            for (int o = 0; o < piece.getOrientationCount(this.reflections); o++) {
+                int[][] cells = piece.getOrientation(o);
+                int[] offsets = new int[cells.length];
+                int extentX = 0;
+                int extentY = 0;
+                for (int i = 0; i < cells.length; i++) {
+                    offsets[i] = board.index(cells[i][0], cells[i][1], cells[i][2]);
+                    extentX = Math.max(extentX, cells[i][0] + 1);
+                    extentY = Math.max(extentY, cells[i][1] + 1);
+                }
+
+                for (int y = 0; y + extentY <= height; y++) {
+                    for (int x = 0; x + extentX <= width; x++) {
+                        int[] row = placementRow(board, board.index(x, y, 0), offsets, entry.getValue(),
+                                cellColumns);
+                        if (row != null) {
+                            rows.add(row);
+                            associatedRowData.add(new LatticePlacement(piece, o, x, y));
+                        }
+                    }
+                }
+            }
+        }
+
+        return new Root<>(rows.toArray(new int[0][]), columns.toArray(new String[0]), multiplicities,
+                associatedRowData);
+    }
+
+    // the columns of a placement, or null if it covers a filled cell
+    private static int[] placementRow(LatticeBoard board, int anchor, int[] offsets, int pieceColumn,
+                                      int[] cellColumns) {
+        int[] row = new int[offsets.length + 1];
+        row[0] = pieceColumn;
+        for (int i = 0; i < offsets.length; i++) {
+            int cell = anchor + offsets[i];
+            if (board.isFilled(cell)) {
+                return null;
+            }
+            row[i + 1] = cellColumns[cell];
+        }
+        return row;
+    }
+
+    /**
+     * Stream the solutions of a puzzle without collecting them.
+     *
+     * @param pieces  Pieces to pack. Every piece must be used exactly once.
+     * @param board   The puzzle space. It is not modified.
+     * @param visitor Called once for each solution with the placement of every piece, until it returns
+     *                {@code false}. The array is reused for every solution, so copy anything that should outlive
+     *                the call.
+     */
+    public void visitSolutions(Polyform[] pieces, LatticeBoard board, Predicate<LatticePlacement[]> visitor) {
+        Root<LatticePlacement> root = this.createRoot(pieces, board);
+        LatticePlacement[] buffer = new LatticePlacement[pieces.length];
+        root.visit((rowIndices, depth) -> {
+            for (int i = 0; i < depth; i++) {
+                buffer[i] = root.getRowData(rowIndices[i]);
+            }
+            return visitor.test(buffer);
+        });
+    }
+
+    /**
+     * Compute multiple solutions.
+     *
+     * @param pieces Pieces to pack. Every piece must be used exactly once.
+     * @param board  The puzzle space. It is not modified.
+     * @param limit  The maximum number of results to return. A negative value means no limit.
+     * @return Each solution, as the placement of every piece.
+     */
+    public List<List<LatticePlacement>> solveForMultiple(Polyform[] pieces, LatticeBoard board, int limit) {
+        List<List<LatticePlacement>> out = new ArrayList<>();
+        if (limit == 0) {
+            return out;
+        }
+        this.visitSolutions(pieces, board, placements -> {
+            out.add(List.copyOf(Arrays.asList(placements)));
+            return out.size() != limit;
+        });
+        return out;
+    }
+
+    /**
+     * Count the solutions of a puzzle.
+     *
+     * @param pieces Pieces to pack. Every piece must be used exactly once.
+     * @param board  The puzzle space. It is not modified.
+     * @return The number of solutions, counting symmetric images of the same packing separately.
+     */
+    public long countSolutions(Polyform[] pieces, LatticeBoard board) {
+        long[] count = {0};
+        this.visitSolutions(pieces, board, placements -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+}
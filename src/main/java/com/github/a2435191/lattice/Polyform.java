@@ -0,0 +1,228 @@
+package com.github.a2435191.lattice;
+
+import java.util.*;
+
+/**
+ * A piece made of cells of a {@link Lattice} joined edge to edge: a polyomino, polyhex or polyiamond. Its distinct
+ * orientations are computed once, on construction, so that placements can be generated by translating precomputed
+ * cell offsets.
+ */
+public final class Polyform {
+    private static final Comparator<int[]> CELL_ORDER = Comparator.<int[]>comparingInt(c -> c[1])
+            .thenComparingInt(c -> c[0])
+            .thenComparingInt(c -> c[2]);
+    private static final Comparator<List<Integer>> KEY_ORDER = (a, b) -> {
+        for (int i = 0; i < a.size(); i++) {
+            final int compared = Integer.compare(a.get(i), b.get(i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    };
+
+    private final String name;
+    private final Lattice lattice;
+    private final int size;
+    private final int[][][] orientations; // distinct normalized cell lists, rotations first
+    private final int rotationCount;
+
+    private Polyform(String name, Lattice lattice, int[][] cells) {
+        this.name = name;
+        this.lattice = lattice;
+        this.size = cells.length;
+
+        Set<List<Integer>> seen = new HashSet<>();
+        List<int[][]> distinct = new ArrayList<>();
+        int rotations = 0;
+        for (int o = 0; o < lattice.getOrientationCount(true); o++) {
+            int[][] image = normalize(lattice, cells, o);
+            if (seen.add(key(image))) {
+                distinct.add(image);
+                if (o < lattice.getOrientationCount(false)) {
+                    rotations++;
+                }
+            }
+        }
+        this.orientations = distinct.toArray(new int[0][][]);
+        this.rotationCount = rotations;
+    }
+
+    /**
+     * Create a piece.
+     *
+     * @param name    Name of the piece, used for the column names of the exact cover matrix.
+     * @param lattice The shape of its cells.
+     * @param cells   The {@code (x, y, kind)} of each cell, or just {@code (x, y)} on lattices with one kind of cell.
+     *                They must be distinct and connected.
+     * @return The piece.
+     */
+    public static Polyform of(String name, Lattice lattice, int[]... cells) {
+        if (cells.length == 0) {
+            throw new IllegalArgumentException("a polyform needs at least one cell");
+        }
+        int[][] full = new int[cells.length][];
+        Set<List<Integer>> distinct = new HashSet<>();
+        for (int i = 0; i < cells.length; i++) {
+            int[] cell = cells[i];
+            if (cell.length == 2 && lattice.getKinds() == 1) {
+                cell = new int[]{cell[0], cell[1], 0};
+            }
+            if (cell.length != 3 || cell[2] < 0 || cell[2] >= lattice.getKinds()
+                    || !distinct.add(List.of(cell[0], cell[1], cell[2]))) {
+                throw new IllegalArgumentException("cells must be distinct (x, y, kind) triples");
+            }
+            full[i] = cell;
+        }
+
+        // every cell must be reachable from the first one
+        Set<List<Integer>> reached = new HashSet<>();
+        ArrayDeque<int[]> queue = new ArrayDeque<>();
+        reached.add(List.of(full[0][0], full[0][1], full[0][2]));
+        queue.add(full[0]);
+        while (!queue.isEmpty()) {
+            int[] cell = queue.remove();
+            for (int[] offset : lattice.getNeighbors(cell[2])) {
+                List<Integer> neighbor = List.of(cell[0] + offset[0], cell[1] + offset[1], offset[2]);
+                if (distinct.contains(neighbor) && reached.add(neighbor)) {
+                    queue.add(new int[]{neighbor.get(0), neighbor.get(1), neighbor.get(2)});
+                }
+            }
+        }
+        if (reached.size() != full.length) {
+            throw new IllegalArgumentException("cells must be connected");
+        }
+        return new Polyform(name, lattice, full);
+    }
+
+    /**
+     * Generate every piece of a size, counting mirror images as the same piece, e.g. the 12 pentominos, the 7
+     * tetrahexes or the 12 hexiamonds. Each is grown from the smaller ones by adding a neighboring cell, and kept
+     * in the least of its orientations, comparing their sorted cells, so the order of the pieces is fixed.
+     *
+     * @param lattice The shape of the cells.
+     * @param size    The number of cells of each piece, at least 1.
+     * @return The pieces, named by the initial of the lattice, the size and a number, e.g. {@code H4-0}.
+     */
+    public static List<Polyform> enumerate(Lattice lattice, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        List<int[][]> forms = Collections.singletonList(new int[][]{{0, 0, 0}});
+        for (int n = 2; n <= size; n++) {
+            Map<List<Integer>, int[][]> grown = new LinkedHashMap<>();
+            for (int[][] form : forms) {
+                Set<List<Integer>> cells = new HashSet<>();
+                for (int[] cell : form) {
+                    cells.add(List.of(cell[0], cell[1], cell[2]));
+                }
+                for (int[] cell : form) {
+                    for (int[] offset : lattice.getNeighbors(cell[2])) {
+                        int[] added = {cell[0] + offset[0], cell[1] + offset[1], offset[2]};
+                        if (cells.contains(List.of(added[0], added[1], added[2]))) {
+                            continue;
+                        }
+                        int[][] larger = Arrays.copyOf(form, n);
+                        larger[n - 1] = added;
+                        int[][] canonical = canonical(lattice, larger);
+                        grown.putIfAbsent(key(canonical), canonical);
+                    }
+                }
+            }
+            forms = new ArrayList<>(grown.values());
+        }
+
+        List<Polyform> out = new ArrayList<>(forms.size());
+        for (int i = 0; i < forms.size(); i++) {
+            out.add(new Polyform(lattice.name().charAt(0) + String.valueOf(size) + "-" + i, lattice, forms.get(i)));
+        }
+        return out;
+    }
+
+    // the orientation of the cells whose key is the least, so that all orientations give the same result
+    private static int[][] canonical(Lattice lattice, int[][] cells) {
+        int[][] best = null;
+        List<Integer> bestKey = null;
+        for (int o = 0; o < lattice.getOrientationCount(true); o++) {
+            int[][] image = normalize(lattice, cells, o);
+            List<Integer> key = key(image);
+            if (bestKey == null || KEY_ORDER.compare(key, bestKey) < 0) {
+                best = image;
+                bestKey = key;
+            }
+        }
+        return best;
+    }
+
+    // the image of the cells under an orientation, translated so that its minimum is 0 on both axes, and sorted
+    private static int[][] normalize(Lattice lattice, int[][] cells, int orientation) {
+        int[][] image = new int[cells.length][];
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < cells.length; i++) {
+            image[i] = lattice.apply(orientation, cells[i], new int[3]);
+            minX = Math.min(minX, image[i][0]);
+            minY = Math.min(minY, image[i][1]);
+        }
+        for (int[] cell : image) {
+            cell[0] -= minX;
+            cell[1] -= minY;
+        }
+        Arrays.sort(image, CELL_ORDER);
+        return image;
+    }
+
+    private static List<Integer> key(int[][] cells) {
+        List<Integer> key = new ArrayList<>(3 * cells.length);
+        for (int[] cell : cells) {
+            key.add(cell[0]);
+            key.add(cell[1]);
+            key.add(cell[2]);
+        }
+        return key;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Lattice getLattice() {
+        return this.lattice;
+    }
+
+    /**
+     * Get the number of cells in the piece.
+     *
+     * @return The area of the piece, in cells.
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Count the distinct orientations of the piece.
+     *
+     * @param reflections Whether to include orientations only reachable by reflecting the piece.
+     * @return The number of distinct orientations, at most {@link Lattice#getOrientationCount(boolean)}.
+     */
+    public int getOrientationCount(boolean reflections) {
+        return reflections ? this.orientations.length : this.rotationCount;
+    }
+
+    /**
+     * Get the cells of an orientation of the piece.
+     *
+     * @param index Index of the orientation, from 0 (inclusive) to {@link #getOrientationCount(boolean)}
+     *              (exclusive). Rotations come before reflections.
+     * @return The {@code (x, y, kind)} of each cell, translated so that the minimum on each axis is 0. Must not be
+     * modified.
+     */
+    int[][] getOrientation(int index) {
+        return this.orientations[index];
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.a2435191.polycube;
+
+import java.util.BitSet;
+
+/**
+ * A 3D puzzle space: a box of unit cells, some of which may be filled in advance. Cells are numbered
+ * {@code x + width * (y + height * z)}.
+ */
+public final class Box {
+    private final int width;
+    private final int height;
+    private final int depth;
+    private final BitSet filled = new BitSet();
+
+    /**
+     * Construct an empty box.
+     *
+     * @param width  Extent along the x axis.
+     * @param height Extent along the y axis.
+     * @param depth  Extent along the z axis.
+     */
+    public Box(int width, int height, int depth) {
+        if (width <= 0 || height <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("dimensions must be positive");
+        }
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Get the number of cells, filled or not.
+     *
+     * @return {@code width * height * depth}.
+     */
+    public int size() {
+        return this.width * this.height * this.depth;
+    }
+
+    /**
+     * Get the index of a cell.
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @param z Z coordinate.
+     * @return {@code x + width * (y + height * z)}.
+     */
+    public int index(int x, int y, int z) {
+        return x + this.width * (y + this.height * z);
+    }
+
+    public boolean isFilled(int index) {
+        return this.filled.get(index);
+    }
+
+    /**
+     * Mark a cell as filled, so that no piece may cover it.
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @param z Z coordinate.
+     */
+    public void fill(int x, int y, int z) {
+        if (x < 0 || x >= this.width || y < 0 || y >= this.height || z < 0 || z >= this.depth) {
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ", " + z + ") is outside the box");
+        }
+        this.filled.set(this.index(x, y, z));
+    }
+
+    /**
+     * Count the cells that are not filled.
+     *
+     * @return The number of empty cells.
+     */
+    public int emptyCount() {
+        return this.size() - this.filled.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return "Box " + this.width + "x" + this.height + "x" + this.depth;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.a2435191.polycube;
+
+/**
+ * The 48 symmetries of the cube, as precomputed tables of signed axis permutations. Orientation {@code i} maps
+ * the point {@code (v[0], v[1], v[2])} to the point whose axis {@code a} is {@code SIGNS[i][a] * v[PERMUTATIONS[i][a]]}.
+ * Orientations 0 (the identity) through 23 are the proper rotations; 24 through 47 also reflect.
+ */
+public final class CubeOrientation {
+    /**
+     * The number of proper rotations.
+     */
+    public static final int ROTATIONS = 24;
+    /**
+     * The number of orientations, counting reflections.
+     */
+    public static final int ALL = 48;
+
+    private static final int[][] PERMUTATIONS = new int[ALL][];
+    private static final int[][] SIGNS = new int[ALL][];
+
+    static {
+        final int[][] permutations = {{0, 1, 2}, {1, 2, 0}, {2, 0, 1}, {0, 2, 1}, {2, 1, 0}, {1, 0, 2}};
+        int rotations = 0;
+        int reflections = ROTATIONS;
+        for (int p = 0; p < permutations.length; p++) {
+            int parity = p < 3 ? 1 : -1; // the first three are even
+            for (int s = 0; s < 8; s++) {
+                int[] signs = {(s & 1) == 0 ? 1 : -1, (s & 2) == 0 ? 1 : -1, (s & 4) == 0 ? 1 : -1};
+                int determinant = parity * signs[0] * signs[1] * signs[2];
+                int i = determinant > 0 ? rotations++ : reflections++;
+                PERMUTATIONS[i] = permutations[p];
+                SIGNS[i] = signs;
+            }
+        }
+    }
+
+    private CubeOrientation() {
+    }
+
+    /**
+     * Apply an orientation to a point.
+     *
+     * @param orientation The orientation, from 0 (inclusive) to {@link #ALL} (exclusive).
+     * @param point       The coordinates of the point.
+     * @param out         Array to write the coordinates of the image to. Must not be {@code point}.
+     * @return {@code out}.
+     */
+    public static int[] apply(int orientation, int[] point, int[] out) {
+        final int[] permutation = PERMUTATIONS[orientation];
+        final int[] signs = SIGNS[orientation];
+        out[0] = signs[0] * point[permutation[0]];
+        out[1] = signs[1] * point[permutation[1]];
+        out[2] = signs[2] * point[permutation[2]];
+        return out;
+    }
+
+    /**
+     * Check whether an orientation is a proper rotation.
+     *
+     * @param orientation The orientation, from 0 (inclusive) to {@link #ALL} (exclusive).
+     * @return {@code true} if {@code orientation} does not reflect.
+     */
+    public static boolean isRotation(int orientation) {
+        return orientation < ROTATIONS;
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.a2435191.polycube;
+
+import com.github.a2435191.Pentomino;
+
+import java.util.*;
+
+/**
+ * A piece made of unit cubes joined face to face. Its distinct orientations are computed once, on construction,
+ * so that placements can be generated by translating precomputed cell offsets.
+ */
+public final class Polycube {
+    private final String name;
+    private final int volume;
+    private final int[][][] orientations; // distinct normalized cube lists, rotations first
+    private final int rotationCount;
+
+    private Polycube(String name, int[][] cubes) {
+        this.name = name;
+        this.volume = cubes.length;
+
+        Set<List<Integer>> seen = new HashSet<>();
+        List<int[][]> distinct = new ArrayList<>();
+        int rotations = 0;
+        for (int o = 0; o < CubeOrientation.ALL; o++) {
+            int[][] image = normalize(cubes, o);
+            List<Integer> key = new ArrayList<>();
+            for (int[] cube : image) {
+                key.add(cube[0]);
+                key.add(cube[1]);
+                key.add(cube[2]);
+            }
+            if (seen.add(key)) {
+                distinct.add(image);
+                if (CubeOrientation.isRotation(o)) {
+                    rotations++;
+                }
+            }
+        }
+        this.orientations = distinct.toArray(new int[0][][]);
+        this.rotationCount = rotations;
+    }
+
+    /**
+     * Create a piece.
+     *
+     * @param name  Name of the piece, used for the column names of the exact cover matrix.
+     * @param cubes The {@code (x, y, z)} coordinates of each cube. They must be distinct.
+     * @return The piece.
+     */
+    public static Polycube of(String name, int[]... cubes) {
+        if (cubes.length == 0) {
+            throw new IllegalArgumentException("a polycube needs at least one cube");
+        }
+        Set<List<Integer>> distinct = new HashSet<>();
+        for (int[] cube : cubes) {
+            if (cube.length != 3 || !distinct.add(List.of(cube[0], cube[1], cube[2]))) {
+                throw new IllegalArgumentException("cubes must be distinct (x, y, z) triples");
+            }
+        }
+        return new Polycube(name, cubes);
+    }
+
+    /**
+     * Create a flat piece, one cube thick, from a pentomino.
+     *
+     * @param pentomino The pentomino.
+     * @return A piece with a cube under each filled square of {@link Pentomino#shape}.
+     */
+    public static Polycube fromPentomino(Pentomino pentomino) {
+        List<int[]> cubes = new ArrayList<>();
+        for (int y = 0; y < pentomino.height; y++) {
+            for (int x = 0; x < pentomino.width; x++) {
+                if (pentomino.shape[y][x]) {
+                    cubes.add(new int[]{x, y, 0});
+                }
+            }
+        }
+        return new Polycube(pentomino.name(), cubes.toArray(new int[0][]));
+    }
+
+    /**
+     * Create flat pieces from pentominos.
+     *
+     * @param pentominos The pentominos.
+     * @return One piece for each pentomino, in the same order.
+     * @see #fromPentomino(Pentomino)
+     */
+    public static Polycube[] fromPentominos(Pentomino... pentominos) {
+        return Arrays.stream(pentominos).map(Polycube::fromPentomino).toArray(Polycube[]::new);
+    }
+
+    // the image of the cubes under an orientation, translated so that its minimum is 0 on every axis, and sorted
+    private static int[][] normalize(int[][] cubes, int orientation) {
+        int[][] image = new int[cubes.length][];
+        int[] min = {Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE};
+        for (int i = 0; i < cubes.length; i++) {
+            image[i] = CubeOrientation.apply(orientation, cubes[i], new int[3]);
+            for (int a = 0; a < 3; a++) {
+                min[a] = Math.min(min[a], image[i][a]);
+            }
+        }
+        for (int[] cube : image) {
+            for (int a = 0; a < 3; a++) {
+                cube[a] -= min[a];
+            }
+        }
+        Arrays.sort(image, Comparator.<int[]>comparingInt(c -> c[2]).thenComparingInt(c -> c[1]).thenComparingInt(c -> c[0]));
+        return image;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Get the number of cubes in the piece.
+     *
+     * @return The volume of the piece.
+     */
+    public int getVolume() {
+        return this.volume;
+    }
+
+    /**
+     * Count the distinct orientations of the piece.
+     *
+     * @param reflections Whether to include orientations only reachable by reflecting the piece.
+     * @return The number of distinct orientations; at most {@link CubeOrientation#ROTATIONS} without reflections,
+     * and at most {@link CubeOrientation#ALL} with them.
+     */
+    public int getOrientationCount(boolean reflections) {
+        return reflections ? this.orientations.length : this.rotationCount;
+    }
+
+    /**
+     * Get the cubes of an orientation of the piece.
+     *
+     * @param index Index of the orientation, from 0 (inclusive) to {@link #getOrientationCount(boolean)}
+     *              (exclusive). Rotations come before reflections.
+     * @return The {@code (x, y, z)} coordinates of each cube, translated so that the minimum on each axis is 0.
+     * Must not be modified.
+     */
+    int[][] getOrientation(int index) {
+        return this.orientations[index];
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+}
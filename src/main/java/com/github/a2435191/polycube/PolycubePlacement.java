@@ -0,0 +1,33 @@
+package com.github.a2435191.polycube;
+
+/**
+ * Wrapper record for a polycube placed in a box.
+ *
+ * @param piece       The piece.
+ * @param orientation Index of its orientation (see {@link Polycube#getOrientationCount(boolean)}).
+ * @param x           X coordinate of the corner of its bounding box with the smallest coordinates.
+ * @param y           Y coordinate of the same corner.
+ * @param z           Z coordinate of the same corner.
+ */
+public record PolycubePlacement(Polycube piece, int orientation, int x, int y, int z) {
+    /**
+     * Compute the cells covered by the placed piece.
+     *
+     * @param box The box it was placed in.
+     * @return The index (see {@link Box#index(int, int, int)}) of each covered cell.
+     */
+    public int[] cells(Box box) {
+        int[][] cubes = this.piece.getOrientation(this.orientation);
+        int[] out = new int[cubes.length];
+        for (int i = 0; i < cubes.length; i++) {
+            out[i] = box.index(cubes[i][0] + this.x, cubes[i][1] + this.y, cubes[i][2] + this.z);
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return this.piece.getName() + ": orientation " + this.orientation
+                + " at (" + this.x + ", " + this.y + ", " + this.z + ")";
+    }
+}
@@ -0,0 +1,160 @@
+package com.github.a2435191.polycube;
+
+import com.github.a2435191.solvers.dancing_links.Root;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Packs polycubes into a box with Knuth's dancing links algorithm. There is one column for each piece and one for
+ * each empty cell, and one row for each orientation and translation of each piece that fits.
+ * <p>
+ * Rows are generated from tables: each orientation of each piece is turned once into cell index offsets for the
+ * box, so a placement is just its anchor index plus those offsets.
+ */
+public final class PolycubeSolver {
+    private final boolean reflections;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param reflections Whether pieces may be reflected as well as rotated. Flat pieces do not need this, since a
+     *                    half turn out of their plane already mirrors them.
+     */
+    public PolycubeSolver(boolean reflections) {
+        this.reflections = reflections;
+    }
+
+    /**
+     * Build the exact cover matrix for a puzzle.
+     *
+     * @param pieces Pieces to pack. Every piece must be used exactly once.
+     * @param box    The puzzle space. It is not modified.
+     * @return The root of the matrix, where each row is associated with its placement.
+     */
+    public Root<PolycubePlacement> createRoot(Polycube[] pieces, Box box) {
+        final int width = box.getWidth();
+        final int height = box.getHeight();
+        final int depth = box.getDepth();
+
+        int[] cellColumns = new int[box.size()];
+        List<String> columns = new ArrayList<>();
+        for (Polycube piece : pieces) {
+            columns.add("Piece: " + piece.getName());
+        }
+        for (int z = 0; z < depth; z++) {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int index = box.index(x, y, z);
+                    if (!box.isFilled(index)) {
+                        cellColumns[index] = columns.size();
+                        columns.add("Cell: (" + x + ", " + y + ", " + z + ")");
+                    }
+                }
+            }
+        }
+
+        List<int[]> rows = new ArrayList<>();
+        List<PolycubePlacement> associatedRowData = new ArrayList<>();
+        for (int p = 0; p < pieces.length; p++) {
+            Polycube piece = pieces[p];
+            for (int o = 0; o < piece.getOrientationCount(this.reflections); o++) {
+                int[][] cubes = piece.getOrientation(o);
+                int[] offsets = new int[cubes.length];
+                int[] extent = new int[3];
+                for (int i = 0; i < cubes.length; i++) {
+                    offsets[i] = box.index(cubes[i][0], cubes[i][1], cubes[i][2]);
+                    for (int a = 0; a < 3; a++) {
+                        extent[a] = Math.max(extent[a], cubes[i][a] + 1);
+                    }
+                }
+
+                for (int z = 0; z + extent[2] <= depth; z++) {
+                    for (int y = 0; y + extent[1] <= height; y++) {
+                        for (int x = 0; x + extent[0] <= width; x++) {
+                            int[] row = placementRow(box, box.index(x, y, z), offsets, p, cellColumns);
+                            if (row != null) {
+                                rows.add(row);
+                                associatedRowData.add(new PolycubePlacement(piece, o, x, y, z));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new Root<>(rows.toArray(new int[0][]), columns.toArray(new String[0]), associatedRowData);
+    }
+
+    // the columns of a placement, or null if it covers a filled cell
+    private static int[] placementRow(Box box, int anchor, int[] offsets, int pieceColumn, int[] cellColumns) {
+        int[] row = new int[offsets.length + 1];
+        row[0] = pieceColumn;
+        for (int i = 0; i < offsets.length; i++) {
+            int cell = anchor + offsets[i];
+            if (box.isFilled(cell)) {
+                return null;
+            }
+            row[i + 1] = cellColumns[cell];
+        }
+        return row;
+    }
+
+    /**
+     * Stream the solutions of a puzzle without collecting them.
+     *
+     * @param pieces  Pieces to pack. Every piece must be used exactly once.
+     * @param box     The puzzle space. It is not modified.
+     * @param visitor Called once for each solution with the placement of every piece, until it returns
+     *                {@code false}. The array is reused for every solution, so copy anything that should outlive
+     *                the call.
+     */
+    public void visitSolutions(Polycube[] pieces, Box box, Predicate<PolycubePlacement[]> visitor) {
+        Root<PolycubePlacement> root = this.createRoot(pieces, box);
+        PolycubePlacement[] buffer = new PolycubePlacement[pieces.length];
+        root.visit((rowIndices, depth) -> {
+            for (int i = 0; i < depth; i++) {
+                buffer[i] = root.getRowData(rowIndices[i]);
+            }
+            return visitor.test(buffer);
+        });
+    }
+
+    /**
+     * Compute multiple solutions.
+     *
+     * @param pieces Pieces to pack. Every piece must be used exactly once.
+     * @param box    The puzzle space. It is not modified.
+     * @param limit  The maximum number of results to return. A negative value means no limit.
+     * @return Each solution, as the placement of every piece.
+     */
+    public List<List<PolycubePlacement>> solveForMultiple(Polycube[] pieces, Box box, int limit) {
+        List<List<PolycubePlacement>> out = new ArrayList<>();
+        if (limit == 0) {
+            return out;
+        }
+        this.visitSolutions(pieces, box, placements -> {
+            out.add(List.copyOf(Arrays.asList(placements)));
+            return out.size() != limit;
+        });
+        return out;
+    }
+
+    /**
+     * Count the solutions of a puzzle.
+     *
+     * @param pieces Pieces to pack. Every piece must be used exactly once.
+     * @param box    The puzzle space. It is not modified.
+     * @return The number of solutions, counting symmetric images of the same packing separately.
+     */
+    public long countSolutions(Polycube[] pieces, Box box) {
+        long[] count = {0};
+        this.visitSolutions(pieces, box, placements -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.a2435191.solvers;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Transformation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilities for the symmetries of a board, i.e. the {@link Transformation}s that map it onto itself.
+ */
+public final class BoardSymmetries {
+    private BoardSymmetries() {
+    }
+
+    /**
+     * Find the symmetries of a board.
+     *
+     * @param board The puzzle space.
+     * @return Every transformation {@code t} that maps {@code board} onto itself.
+     * Always includes {@link Transformation#IDENTITY}.
+     */
+    public static List<Transformation> of(Board board) {
+        final int width = board.getWidth();
+        final int height = board.getHeight();
+        List<Transformation> out = new ArrayList<>();
+        for (Transformation t : Transformation.TRANSFORMS) {
+            if (t.transformedWidth(width, height) != width) {
+                continue;
+            }
+            boolean symmetric = true;
+            for (int y = 0; y < height && symmetric; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (board.isFilled(x, y)
+                            != board.isFilled(t.mapX(x, y, width, height), t.mapY(x, y, width, height))) {
+                        symmetric = false;
+                        break;
+                    }
+                }
+            }
+            if (symmetric) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Compute where a transformation moves each square of a grid.
+     *
+     * @param t      The transformation.
+     * @param height Height of the grid.
+     * @param width  Width of the grid.
+     * @return An array {@code out}, where {@code out[i]} is the row-major index of the image of the square with
+     * row-major index {@code i} ({@code y * width + x}). Indices of the image are relative to the width of the
+     * transformed grid.
+     */
+    public static int[] cellPermutation(Transformation t, int height, int width) {
+        int[] out = new int[height * width];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = i;
+        }
+        return t.mapIndices(out, width, height, out);
+    }
+}
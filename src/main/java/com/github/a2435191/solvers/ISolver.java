@@ -1,5 +1,6 @@
 package com.github.a2435191.solvers;
 
+import com.github.a2435191.Board;
 import com.github.a2435191.Pentomino;
 import com.github.a2435191.Solution;
 import org.jetbrains.annotations.Nullable;
@@ -10,6 +11,28 @@ import java.util.List;
  * Interface for all pentomino puzzle solvers.
  */
 public interface ISolver {
+    /**
+     * Get the live counters of this solver's searches, which implementations register with JMX
+     * (see {@link SearchMetrics#forSolver(String)}).
+     *
+     * @return The metrics, or {@code null} if this solver does not report any.
+     */
+    default @Nullable SearchMetrics getMetrics() {
+        return null;
+    }
+
+    /**
+     * Compute multiple solutions.
+     *
+     * @param pieces Pentominos (unique up to rotation) to use in solving the puzzle.
+     * @param board  The puzzle space. It is not modified.
+     * @param limit  The maximum number of results to return. Calls with a negative {@code limit} value should return
+     *               all results.
+     * @return A list of {@link Solution} instances, each representing a particular set of transformations of pentominos.
+     * All pentominos from {@code pieces} are used.
+     */
+    List<Solution> solveForMultiple(Pentomino[] pieces, Board board, int limit);
+
     /**
      * Compute multiple solutions.
      *
@@ -21,7 +44,23 @@ public interface ISolver {
      * @return A list of {@link Solution} instances, each representing a particular set of transformations of pentominos.
      * All pentominos from {@code pieces} are used.
      */
-    List<Solution> solveForMultiple(Pentomino[] pieces, boolean[][] grid, int limit);
+    default List<Solution> solveForMultiple(Pentomino[] pieces, boolean[][] grid, int limit) {
+        return this.solveForMultiple(pieces, Board.fromGrid(grid), limit);
+    }
+
+    /**
+     * Compute a single solution.
+     *
+     * @param pieces Pentominos to use in solving the puzzle.
+     *               Rotations are automatically computed.
+     * @param board  The puzzle space. It is not modified.
+     * @return If no solution exists, {@code null}. Otherwise, a {@link Solution} instance representing a particular
+     * set of transformations of pentominos. All pentominos from {@code pieces} are used.
+     */
+    default @Nullable Solution solve(Pentomino[] pieces, Board board) {
+        List<Solution> list = solveForMultiple(pieces, board, 1);
+        return list.size() == 0 ? null : list.get(0);
+    }
 
     /**
      * Compute a single solution.
@@ -34,8 +73,7 @@ public interface ISolver {
      * set of transformations of pentominos. All pentominos from {@code pieces} are used.
      */
     default @Nullable Solution solve(Pentomino[] pieces, boolean[][] grid) {
-        List<Solution> list = solveForMultiple(pieces, grid, 1);
-        return list.size() == 0 ? null : list.get(0);
+        return this.solve(pieces, Board.fromGrid(grid));
     }
 
 
@@ -0,0 +1,210 @@
+package com.github.a2435191.solvers;
+
+import com.github.a2435191.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A breadth-first solver like {@link PentominoPuzzleSolver}, but level-synchronous and parallel. Each level places
+ * one more piece at the first empty square, expanding every state of the frontier at once. Different placement
+ * orders often lead to the same state (the same filled squares and the same used pieces); such states are merged,
+ * and each keeps a multiplicity, the number of partial solutions that reach it, so counts stay exact while each
+ * distinct state is expanded only once.
+ */
+public final class ParallelBreadthFirstSolver implements ISolver {
+    private final int threads;
+    private final SearchMetrics metrics = SearchMetrics.forSolver(ParallelBreadthFirstSolver.class.getSimpleName());
+
+    /**
+     * Construct a new instance using one thread per processor.
+     */
+    public ParallelBreadthFirstSolver() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param threads Number of threads to expand each frontier with.
+     */
+    public ParallelBreadthFirstSolver(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Count solutions without enumerating them. Only the current frontier is kept in memory.
+     *
+     * @param pieces Distinct pentominos to use in solving the puzzle; at most 64.
+     * @param board  The puzzle space. It is not modified.
+     * @return The number of solutions, as {@link #solveForMultiple} would find with no limit.
+     * @throws CancellationException If the thread is interrupted while waiting for the other threads; its interrupt
+     *                               status is set again.
+     */
+    public long countSolutions(Pentomino[] pieces, Board board) {
+        long out = 0;
+        for (State state : this.expand(pieces, board, false).values()) {
+            out = Math.addExact(out, state.multiplicity.get());
+        }
+        return out;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws CancellationException If the thread is interrupted while waiting for the other threads; its interrupt
+     *                               status is set again.
+     */
+    @Override
+    public List<Solution> solveForMultiple(Pentomino[] pieces, Board board, int limit) {
+        List<Solution> out = new ArrayList<>();
+        if (limit == 0) {
+            return out;
+        }
+        Deque<Placement> path = new ArrayDeque<>();
+        for (State state : this.expand(pieces, board, true).values()) {
+            if (!collect(state, path, out, limit)) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    // walk back along every path to the initial state; returns false once the limit is reached
+    private static boolean collect(State state, Deque<Placement> path, List<Solution> out, int limit) {
+        if (state.parents.isEmpty()) {
+            Map<Pentomino, TransformationAndCoordinate> map = new HashMap<>();
+            for (Placement placement : path) {
+                map.put(placement.piece(), placement.position());
+            }
+            out.add(new Solution(map));
+            return out.size() != limit;
+        }
+        for (Edge edge : state.parents) {
+            path.push(edge.placement());
+            boolean more = collect(edge.parent(), path, out, limit);
+            path.pop();
+            if (!more) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the frontier after every piece has been placed
+    private Map<StateKey, State> expand(Pentomino[] pieces, Board board, boolean keepParents) {
+        if (pieces.length > Long.SIZE) {
+            throw new IllegalArgumentException("at most " + Long.SIZE + " pieces are supported");
+        }
+        if (new HashSet<>(Arrays.asList(pieces)).size() != pieces.length) {
+            throw new IllegalArgumentException("pieces must be distinct");
+        }
+
+        Map<StateKey, State> frontier = new HashMap<>();
+        State initial = new State(board.copy(), 0);
+        initial.multiplicity.set(1);
+        frontier.put(new StateKey(initial.board, 0), initial);
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        this.metrics.searchStarted();
+        boolean complete = false;
+        try {
+            for (int level = 0; level < pieces.length && !frontier.isEmpty(); level++) {
+                List<State> states = new ArrayList<>(frontier.values());
+                this.metrics.addNodes(states.size());
+                this.metrics.reportPosition(level, 0, 0, (double) level / pieces.length);
+                ConcurrentHashMap<StateKey, State> next = new ConcurrentHashMap<>();
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int t = 0; t < this.threads; t++) {
+                    final int first = t;
+                    tasks.add(executor.submit(() -> {
+                        for (int i = first; i < states.size(); i += this.threads) {
+                            expandState(pieces, states.get(i), next, keepParents);
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get();
+                }
+                frontier = next;
+            }
+            for (State state : frontier.values()) {
+                this.metrics.addSolutions(state.multiplicity.get());
+            }
+            complete = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("search interrupted");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            this.metrics.searchFinished(complete);
+        }
+        return frontier;
+    }
+
+    private static void expandState(Pentomino[] pieces, State state, ConcurrentHashMap<StateKey, State> next,
+                                    boolean keepParents) {
+        final Board board = state.board;
+        int firstEmptyIndex = board.firstEmptyIndex(0);
+        if (firstEmptyIndex < 0) {
+            return; // filled up before every piece was used
+        }
+        Coordinate firstEmptySquare = new Coordinate(
+                firstEmptyIndex % board.getWidth(), firstEmptyIndex / board.getWidth());
+        long multiplicity = state.multiplicity.get();
+
+        for (int i = 0; i < pieces.length; i++) {
+            if ((state.used & (1L << i)) != 0) {
+                continue;
+            }
+            Pentomino p = pieces[i];
+            long used = state.used | (1L << i);
+            for (var entry : p.equivalentTransforms.entrySet()) {
+                boolean[][] rotation = entry.getKey();
+                Coordinate offset = PentominoPuzzleSolver.offsetByStartingSquare(p, rotation, firstEmptySquare);
+                if (!board.canFit(rotation, offset)) {
+                    continue;
+                }
+
+                Board newBoard = PentominoPuzzleSolver.updateGrid(rotation, offset, board);
+                State merged = next.computeIfAbsent(new StateKey(newBoard, used), k -> new State(newBoard, used));
+                merged.multiplicity.addAndGet(multiplicity);
+                if (keepParents) {
+                    merged.parents.add(new Edge(state,
+                            new Placement(p, new TransformationAndCoordinate(entry.getValue()[0], offset))));
+                }
+            }
+        }
+    }
+
+    private record StateKey(Board board, long used) {
+    }
+
+    private record Edge(State parent, Placement placement) {
+    }
+
+    private static final class State {
+        final Board board;
+        final long used; // bit i is set if pieces[i] is on the board
+        final AtomicLong multiplicity = new AtomicLong();
+        final Queue<Edge> parents = new ConcurrentLinkedQueue<>();
+
+        State(Board board, long used) {
+            this.board = board;
+            this.used = used;
+        }
+    }
+}
@@ -9,33 +9,30 @@ import java.util.stream.Collectors;
  * The basic, naive implementation.
  */
 public final class PentominoPuzzleSolver implements ISolver {
+    private static final int REPORT_INTERVAL = 1 << 10; // states between updates of the metrics
+
+    private final SearchMetrics metrics = SearchMetrics.forSolver(PentominoPuzzleSolver.class.getSimpleName());
+
     /**
-     * Determine the first (left-right, then up-down) empty square of a grid.
+     * Determine the first (left-right, then up-down) empty square of a board.
      * @param p Pentomino to use to compute the offset (see {@link Pentomino#startingOffsets}).
      * @param rotation Rotation to use to compute the offset.
-     * @param grid Boolean matrix representing the puzzle base.
+     * @param board The puzzle base.
      *
      * @return A coordinate in which the upper left corner of the transformed pentomino {@code rotation}
      * can be placed. Does not guarantee that the pentomino can actually fit (see {@link #canFit}), only
      * that the upper-left coordinate and the first filled-in coordinate of {@code rotation} do.
      */
-    public static Coordinate determineFirstEmptySquare(Pentomino p, boolean[][] rotation, boolean[][] grid) {
+    public static Coordinate determineFirstEmptySquare(Pentomino p, boolean[][] rotation, Board board) {
         // get the next candidate square to check
-        Coordinate firstEmptySquare = null;
-        out:
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[0].length; j++) {
-                if (!grid[i][j]) {
-                    firstEmptySquare = new Coordinate(j, i);
-                    break out;
-                }
-            }
-        }
+        Coordinate firstEmptySquare = board.firstEmptySquare();
         if (firstEmptySquare == null) {
             throw new RuntimeException("could not find an empty square");
         }
+        return offsetByStartingSquare(p, rotation, firstEmptySquare);
+    }
 
-
+    static Coordinate offsetByStartingSquare(Pentomino p, boolean[][] rotation, Coordinate firstEmptySquare) {
         // can't just use first empty square directly, since some pieces (like light blue)
         // aren't filled in at the top left
         // so must use pre-computed offsets
@@ -47,96 +44,108 @@ public final class PentominoPuzzleSolver implements ISolver {
      * Determine if a pentomino can fit on the board.
      * @param pentomino Rotated pentomino shape to check.
      * @param offset Offset to apply to the pentomino, so that it can be compared against different places on the board.
-     * @param grid The board, represented as a boolean matrix.
-     * @return {@code false} if the pentomino exceeds the bounds of the {@code grid} or if one of its
+     * @param board The board.
+     * @return {@code false} if the pentomino exceeds the bounds of the {@code board} or if one of its
      * filled squares overlaps an already-filled board tile, {@code true} otherwise.
      */
-    public static boolean canFit(boolean[][] pentomino, Coordinate offset, boolean[][] grid) {
-        final int height = pentomino.length;
-        final int width = pentomino[0].length;
-        try {
-
-            for (int i = 0; i < height; i++) {
-                for (int j = 0; j < width; j++) {
-                    if (grid[i + offset.y()][j + offset.x()] && pentomino[i][j]) {
-                        return false;
-                    }
-                }
-            }
-            return true;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return false;
-        }
+    public static boolean canFit(boolean[][] pentomino, Coordinate offset, Board board) {
+        return board.canFit(pentomino, offset);
     }
 
     /**
      * Update the game board with a pentomino. Does no checks to see if the pentomino's position is valid.
      * @param pentomino Rotated pentomino shape to update the board with.
      * @param offset Offset to apply to the pentomino, so that it can be added to different places on the board.
-     * @param grid The board, represented as a boolean matrix.
-     * @return An updated boolean matrix.
+     * @param board The board. It is not modified.
+     * @return An updated copy of the board.
      */
-    public static boolean[][] updateGrid(boolean[][] pentomino, Coordinate offset, boolean[][] grid) {
-        final int height = pentomino.length;
-        final int width = pentomino[0].length;
-        boolean[][] out = Transformation.IDENTITY.apply(grid); // copy
-
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (pentomino[i][j]) {
-                    out[i + offset.y()][j + offset.x()] = true;
-                }
-            }
-        }
-
+    public static Board updateGrid(boolean[][] pentomino, Coordinate offset, Board board) {
+        Board out = board.copy();
+        out.place(pentomino, offset);
         return out;
     }
 
     @Override
-    public List<Solution> solveForMultiple(Pentomino[] pieces, boolean[][] grid, int limit) {
-        List<Solution> out = new ArrayList<>();
-        // Simple BFS
-        final Set<Pentomino> piecesSet = Arrays.stream(pieces).collect(Collectors.toSet());
-        //int attempts = 0;
-
-        final Queue<State> q = new LinkedList<>();
-        q.add(new State(new HashMap<>(), grid));
-
-        while (!q.isEmpty()) {
-            //attempts++;
-            State state = q.remove();
-
-            Set<Pentomino> piecesToVisit = new HashSet<>(piecesSet);
-            piecesToVisit.removeAll(state.map.keySet()); // remove already visited
-
-            for (Pentomino p : piecesToVisit) {
-                for (var entry : p.equivalentTransforms.entrySet()) {
-                    boolean[][] rotation = entry.getKey();
-                    Transformation transform = entry.getValue()[0];
-                    Coordinate coordinateToCheck = determineFirstEmptySquare(p, rotation, state.grid());
-
-                    if (canFit(rotation, coordinateToCheck, state.grid())) {
-                        Map<Pentomino, TransformationAndCoordinate> newMap = new HashMap<>(state.map());
-                        newMap.put(p, new TransformationAndCoordinate(transform, coordinateToCheck));
-
-                        if (newMap.keySet().size() == pieces.length) {
-                            //System.out.println(attempts);
-                            out.add(new Solution(newMap));
-                            if (out.size() == limit) {
-                                return out;
+    public SearchMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public List<Solution> solveForMultiple(Pentomino[] pieces, Board board, int limit) {
+        this.metrics.searchStarted();
+        long states = 0;
+        boolean complete = false;
+        try {
+            List<Solution> out = new ArrayList<>();
+            // Simple BFS
+            final Set<Pentomino> piecesSet = Arrays.stream(pieces).collect(Collectors.toSet());
+
+            final Queue<State> q = new LinkedList<>();
+            q.add(new State(new HashMap<>(), board, 0));
+            // the states of each level are dequeued one after another, so the progress is the levels done so far
+            // plus the share of the current one
+            int level = -1;
+            long levelSize = 0;
+            long levelIndex = 0;
+
+            while (!q.isEmpty()) {
+                State state = q.remove();
+                if (state.map().size() != level) {
+                    level = state.map().size();
+                    levelSize = q.size() + 1;
+                    levelIndex = 0;
+                }
+                levelIndex++;
+                if (++states % REPORT_INTERVAL == 0) {
+                    this.metrics.addNodes(REPORT_INTERVAL);
+                    this.metrics.reportPosition(level, 0, 0,
+                            (level + (double) levelIndex / levelSize) / pieces.length);
+                }
+
+                Set<Pentomino> piecesToVisit = new HashSet<>(piecesSet);
+                piecesToVisit.removeAll(state.map.keySet()); // remove already visited
+
+                // squares before the previous first empty square stay filled, so resume the search from there
+                int firstEmptyIndex = state.board().firstEmptyIndex(state.firstEmptyIndex());
+                if (firstEmptyIndex < 0) {
+                    throw new RuntimeException("could not find an empty square");
+                }
+                Coordinate firstEmptySquare = new Coordinate(
+                        firstEmptyIndex % board.getWidth(), firstEmptyIndex / board.getWidth());
+
+                for (Pentomino p : piecesToVisit) {
+                    for (var entry : p.equivalentTransforms.entrySet()) {
+                        boolean[][] rotation = entry.getKey();
+                        Transformation transform = entry.getValue()[0];
+                        Coordinate coordinateToCheck = offsetByStartingSquare(p, rotation, firstEmptySquare);
+
+                        if (canFit(rotation, coordinateToCheck, state.board())) {
+                            Map<Pentomino, TransformationAndCoordinate> newMap = new HashMap<>(state.map());
+                            newMap.put(p, new TransformationAndCoordinate(transform, coordinateToCheck));
+
+                            if (newMap.keySet().size() == pieces.length) {
+                                out.add(new Solution(newMap));
+                                this.metrics.addSolution();
+                                if (out.size() == limit) {
+                                    return out;
+                                }
+                            } else {
+                                Board newBoard = updateGrid(rotation, coordinateToCheck, state.board());
+                                q.add(new State(newMap, newBoard, firstEmptyIndex));
                             }
-                        } else {
-                            boolean[][] newGrid = updateGrid(rotation, coordinateToCheck, state.grid());
-                            q.add(new State(newMap, newGrid));
                         }
                     }
                 }
             }
+            complete = true;
+            return out;
+        } finally {
+            this.metrics.addNodes(states % REPORT_INTERVAL);
+            this.metrics.searchFinished(complete);
         }
-        return out;
     }
 
 
-    record State(Map<Pentomino, TransformationAndCoordinate> map, boolean[][] grid) {
+    record State(Map<Pentomino, TransformationAndCoordinate> map, Board board, int firstEmptyIndex) {
     }
 }
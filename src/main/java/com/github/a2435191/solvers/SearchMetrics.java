@@ -0,0 +1,214 @@
+package com.github.a2435191.solvers;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of the searches run by a solver, exposed over JMX as
+ * {@code com.github.a2435191:type=SearchMetrics,name=<solver>}. Searches may run on several threads at once: the
+ * counters are {@link LongAdder}s, which are striped across threads and only summed when read, and searches add
+ * to them in batches rather than once per node. Depth and progress are those of whichever search reported last.
+ */
+public final class SearchMetrics implements SearchMetricsMBean {
+    /**
+     * System property that enables JMX registration in {@link #forSolver(String)}; {@code true} by default.
+     */
+    public static final String JMX_PROPERTY = "com.github.a2435191.jmx";
+    private static final long REGISTRATION_DELAY_MILLIS = 1000;
+    private static final Map<String, SearchMetrics> REGISTERED = new HashMap<>();
+
+    private final LongAdder solutions = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final AtomicInteger activeSearches = new AtomicInteger();
+    private volatile int depth = 0;
+    private volatile int topLevelBranch = 0;
+    private volatile int topLevelBranches = 0;
+    private volatile double progress = 0;
+
+    // for getNodesPerSecond
+    private long lastReadNodes = 0;
+    private long lastReadTime = System.nanoTime();
+
+    /**
+     * Construct an instance that is not registered with JMX, e.g. to read the counters directly.
+     */
+    public SearchMetrics() {
+    }
+
+    /**
+     * Get the metrics shared by every instance of a solver. The first time, they are registered with the platform
+     * MBean server by a background thread after a short delay: starting the server takes far longer than a small
+     * search, and short-lived processes should not pay for it. Set the system property {@value #JMX_PROPERTY} to
+     * {@code false} to skip registration.
+     *
+     * @param solver Name of the solver, e.g. its simple class name. Must be a valid {@link ObjectName} value.
+     * @return The metrics for {@code solver}.
+     */
+    public static synchronized SearchMetrics forSolver(String solver) {
+        // no lambdas here: this runs on startup, before anything else has paid for bootstrapping them
+        SearchMetrics metrics = REGISTERED.get(solver);
+        if (metrics == null) {
+            metrics = new SearchMetrics();
+            REGISTERED.put(solver, metrics);
+            if (Boolean.parseBoolean(System.getProperty(JMX_PROPERTY, "true"))) {
+                final SearchMetrics toRegister = metrics;
+                Thread thread = new Thread("SearchMetrics registration") {
+                    @Override
+                    public void run() {
+                        register(toRegister, solver);
+                    }
+                };
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+        return metrics;
+    }
+
+    private static void register(SearchMetrics metrics, String name) {
+        try {
+            Thread.sleep(REGISTRATION_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    metrics, new ObjectName("com.github.a2435191:type=SearchMetrics,name=" + name));
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another class loader; this instance is only readable directly
+        } catch (JMException e) {
+            throw new RuntimeException("could not register metrics for " + name, e);
+        }
+    }
+
+    /**
+     * Record the start of a search.
+     */
+    public void searchStarted() {
+        this.activeSearches.incrementAndGet();
+        this.depth = 0;
+        this.topLevelBranch = 0;
+        this.topLevelBranches = 0;
+        this.progress = 0;
+    }
+
+    /**
+     * Record the end of a search.
+     *
+     * @param complete Whether the whole search tree was explored, rather than the search stopping early.
+     */
+    public void searchFinished(boolean complete) {
+        this.activeSearches.decrementAndGet();
+        if (complete) {
+            this.progress = 1;
+        }
+    }
+
+    /**
+     * Add to the number of visited nodes.
+     *
+     * @param count The number of nodes visited since the last call.
+     */
+    public void addNodes(long count) {
+        this.nodes.add(count);
+    }
+
+    /**
+     * Count a solution.
+     */
+    public void addSolution() {
+        this.solutions.increment();
+    }
+
+    /**
+     * Count several solutions at once.
+     *
+     * @param count The number of solutions found since the last call.
+     */
+    public void addSolutions(long count) {
+        this.solutions.add(count);
+    }
+
+    /**
+     * Report where a search is.
+     *
+     * @param depth            Depth of the current node.
+     * @param topLevelBranch   Index of the top-level branch containing it.
+     * @param topLevelBranches Number of top-level branches.
+     * @param progress         Estimated fraction of the search that is done.
+     */
+    public void reportPosition(int depth, int topLevelBranch, int topLevelBranches, double progress) {
+        this.depth = depth;
+        this.topLevelBranch = topLevelBranch;
+        this.topLevelBranches = topLevelBranches;
+        this.progress = progress;
+    }
+
+    @Override
+    public long getSolutionsFound() {
+        return this.solutions.sum();
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return this.nodes.sum();
+    }
+
+    @Override
+    public synchronized double getNodesPerSecond() {
+        long now = System.nanoTime();
+        long nodes = this.nodes.sum();
+        double out = now == this.lastReadTime ? 0 : (nodes - this.lastReadNodes) * 1e9 / (now - this.lastReadTime);
+        this.lastReadNodes = nodes;
+        this.lastReadTime = now;
+        return out;
+    }
+
+    @Override
+    public int getDepth() {
+        return this.depth;
+    }
+
+    @Override
+    public int getTopLevelBranch() {
+        return this.topLevelBranch;
+    }
+
+    @Override
+    public int getTopLevelBranches() {
+        return this.topLevelBranches;
+    }
+
+    @Override
+    public double getProgress() {
+        return this.progress;
+    }
+
+    @Override
+    public int getActiveSearches() {
+        return this.activeSearches.get();
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.solutions.reset();
+        this.nodes.reset();
+        this.lastReadNodes = 0;
+        this.lastReadTime = System.nanoTime();
+        this.depth = 0;
+        this.topLevelBranch = 0;
+        this.topLevelBranches = 0;
+        this.progress = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchMetrics (" + this.getSolutionsFound() + " solutions, " + this.getNodesVisited() + " nodes)";
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.a2435191.solvers;
+
+/**
+ * Management interface of {@link SearchMetrics}, for jconsole and other JMX clients.
+ */
+public interface SearchMetricsMBean {
+    /**
+     * @return The number of solutions found since the last reset.
+     */
+    long getSolutionsFound();
+
+    /**
+     * @return The number of search tree nodes visited since the last reset.
+     */
+    long getNodesVisited();
+
+    /**
+     * @return The nodes visited per second since this attribute was last read, or since the last reset.
+     */
+    double getNodesPerSecond();
+
+    /**
+     * @return The depth of the most recently reported search tree node.
+     */
+    int getDepth();
+
+    /**
+     * @return The index of the top-level branch the most recently reported search is in, counting from 0.
+     */
+    int getTopLevelBranch();
+
+    /**
+     * @return The number of top-level branches of the most recently reported search.
+     */
+    int getTopLevelBranches();
+
+    /**
+     * @return An estimate of the fraction of the most recently reported search that is done, from 0 to 1, based
+     * on the position in the first few levels of the search tree.
+     */
+    double getProgress();
+
+    /**
+     * @return The number of searches currently running.
+     */
+    int getActiveSearches();
+
+    /**
+     * Reset every counter to 0.
+     */
+    void reset();
+}
@@ -12,6 +12,9 @@ import java.util.List;
 public class Column<T> extends Data<T> {
     private final String name;
     private int size = 0; // number of 1s in column
+    int index = -1; // position in the header row, set by Root
+    int bound = 1; // number of rows still to choose from this column, set by Root
+    boolean secondary = false; // satisfied by at most `bound` rows instead of exactly, set by Root
 
     public Column(String name, Column<T> left, Column<T> right, Data<T> up, Data<T> down) {
         super(left, right, up, down, null, null);
@@ -43,14 +46,17 @@ public class Column<T> extends Data<T> {
     /**
      * Perform Knuth's cover operation: remove this column from the header row,
      * and remove any row containing any value in this column from all other columns.
+     *
+     * @return The number of nodes removed from other columns, i.e. Knuth's "updates."
      */
-    public final void cover() {
+    public final int cover() {
         //System.out.println("covering " + this.name);
         // remove this column from the header
         this.right.left = this.left;
         this.left.right = this.right;
 
         // remove all rows in `this`'s list from all other column lists
+        int updates = 0;
         for (Data<T> verticalNeighbor = this.down;
              verticalNeighbor != this;
              verticalNeighbor = verticalNeighbor.down) {
@@ -60,8 +66,32 @@ public class Column<T> extends Data<T> {
                 horizontalNeighbor.down.up = horizontalNeighbor.up;
                 horizontalNeighbor.up.down = horizontalNeighbor.down;
                 horizontalNeighbor.column.size--;
+                updates++;
             }
         }
+        return updates;
+    }
+
+    /**
+     * Remove a single node from this column, leaving the rest of its row alone.
+     *
+     * @param node A node in this column.
+     */
+    final void unlink(Data<T> node) {
+        node.down.up = node.up;
+        node.up.down = node.down;
+        this.size--;
+    }
+
+    /**
+     * Undo {@link #unlink(Data)}.
+     *
+     * @param node The node that was removed.
+     */
+    final void relink(Data<T> node) {
+        node.down.up = node;
+        node.up.down = node;
+        this.size++;
     }
 
     /**
@@ -0,0 +1,423 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.solvers.SearchMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An exact cover engine in the style of Knuth's "dancing cells": the same search as {@link Root}, but the matrix
+ * is kept in a handful of int arrays instead of a web of linked objects.
+ * <p>
+ * The active items form a sparse set, i.e. a permutation of the items whose first entries are the active ones, and
+ * each item owns a segment of one shared array holding the nodes of the options that contain it, the available
+ * ones first. Removing an element swaps it just past the end of the active part and shrinks the count; since the
+ * search undoes its removals in the reverse order, restoring one is only a matter of growing the count again, so
+ * nothing is ever relinked or allocated. Scanning an item's options reads consecutive memory instead of chasing
+ * pointers, which is where most of the time of {@link Root} goes.
+ * <p>
+ * Items that must be covered several times are handled as in {@link Root}, by branching on whether their first
+ * available option is part of the solution.
+ *
+ * @param <T> The type of the data associated with each option (row).
+ */
+public final class DancingCells<T> implements ExactCover<T> {
+    private static final int REPORT_INTERVAL = 1 << 12; // nodes between updates of the metrics; a power of 2
+    private static final int PROGRESS_LEVELS = 4;
+
+    private final List<T> rowData;
+
+    // options: the nodes of option o are optionStart[o] (inclusive) to optionStart[o + 1] (exclusive)
+    private final int[] optionStart;
+    private final int[] nodeItem;
+    private final int[] nodeOption;
+
+    // items: the nodes of item i fill set[itemStart[i]...], the first itemSize[i] of them available
+    private final int[] itemStart;
+    private final int[] itemSize;
+    private final int[] bound;
+    private final int[] set;
+    private final int[] nodePosition; // index of each node in set
+
+    // items whose counts were decreased, in order, so that they can be grown back without rereading the options
+    private final int[] trail;
+    private int trailSize = 0;
+    private final int[] coverMark; // trailSize when each covered item was covered
+
+    // active items: the first activeCount entries of active, a permutation of the items
+    private final int[] active;
+    private final int[] activePosition;
+    private int activeCount;
+
+    private int[] rowIndices = new int[16];
+    private SolutionVisitor visitor;
+    private boolean stopped = false;
+    private long nodeBudget = -1;
+    private long nodesVisited = 0;
+    private long nodesReported = 0;
+    private long updates = 0;
+    private boolean budgetExhausted = false;
+
+    private final int[] branchIndex = new int[PROGRESS_LEVELS];
+    private final int[] branchCount = new int[PROGRESS_LEVELS];
+
+    /**
+     * Where to report the progress of searches, or {@code null} not to.
+     */
+    public @Nullable SearchMetrics metrics = null;
+
+    /**
+     * Construct a new instance from the items covered by each option.
+     *
+     * @param rowColumns            The items of each option, as indices from 0 (inclusive) to {@code itemCount}
+     *                              (exclusive). An option must not list an item twice.
+     * @param itemCount             The number of items.
+     * @param multiplicities        How many options must cover each item, or {@code null} for exactly one each.
+     * @param associatedRowDataList The data associated with each option.
+     */
+    public DancingCells(int[][] rowColumns, int itemCount, int @Nullable [] multiplicities,
+                        List<T> associatedRowDataList) {
+        if (rowColumns.length != associatedRowDataList.size()) {
+            throw new IllegalArgumentException("every row needs associated data");
+        }
+        if (multiplicities != null && multiplicities.length != itemCount) {
+            throw new IllegalArgumentException("every column needs a multiplicity");
+        }
+        this.rowData = new ArrayList<>(associatedRowDataList);
+
+        int nodeCount = 0;
+        for (int[] row : rowColumns) {
+            nodeCount += row.length;
+        }
+        this.optionStart = new int[rowColumns.length + 1];
+        this.nodeItem = new int[nodeCount];
+        this.nodeOption = new int[nodeCount];
+        this.itemStart = new int[itemCount + 1];
+        this.itemSize = new int[itemCount];
+        this.set = new int[nodeCount];
+        this.nodePosition = new int[nodeCount];
+
+        int node = 0;
+        for (int o = 0; o < rowColumns.length; o++) {
+            this.optionStart[o] = node;
+            for (int item : rowColumns[o]) {
+                if (item < 0 || item >= itemCount) {
+                    throw new IllegalArgumentException("column index out of range: " + item);
+                }
+                this.nodeItem[node] = item;
+                this.nodeOption[node] = o;
+                this.itemSize[item]++;
+                node++;
+            }
+        }
+        this.optionStart[rowColumns.length] = node;
+
+        for (int i = 0; i < itemCount; i++) {
+            this.itemStart[i + 1] = this.itemStart[i] + this.itemSize[i];
+        }
+        int[] fill = Arrays.copyOf(this.itemStart, itemCount);
+        for (int n = 0; n < nodeCount; n++) {
+            int position = fill[this.nodeItem[n]]++;
+            this.set[position] = n;
+            this.nodePosition[n] = position;
+        }
+
+        this.bound = new int[itemCount];
+        Arrays.fill(this.bound, 1);
+        if (multiplicities != null) {
+            for (int i = 0; i < itemCount; i++) {
+                if (multiplicities[i] <= 0) {
+                    throw new IllegalArgumentException("multiplicities must be positive");
+                }
+                this.bound[i] = multiplicities[i];
+            }
+        }
+
+        this.trail = new int[nodeCount]; // a node is hidden at most once at a time
+        this.coverMark = new int[itemCount];
+        this.active = new int[itemCount];
+        this.activePosition = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            this.active[i] = i;
+            this.activePosition[i] = i;
+        }
+        this.activeCount = itemCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowData.size();
+    }
+
+    @Override
+    public T getRowData(int index) {
+        return this.rowData.get(index);
+    }
+
+    @Override
+    public boolean isBudgetExhausted() {
+        return this.budgetExhausted;
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return this.nodesVisited;
+    }
+
+    @Override
+    public long getUpdates() {
+        return this.updates;
+    }
+
+    @Override
+    public void visit(long nodeBudget, SolutionVisitor visitor) {
+        this.visitor = Objects.requireNonNull(visitor);
+        this.stopped = false;
+        this.nodeBudget = nodeBudget;
+        this.nodesVisited = 0;
+        this.nodesReported = 0;
+        this.updates = 0;
+        this.budgetExhausted = false;
+
+        if (this.metrics != null) {
+            this.metrics.searchStarted();
+        }
+        try {
+            this.searchAtDepth(0);
+        } finally {
+            if (this.metrics != null) {
+                this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+                this.nodesReported = this.nodesVisited;
+                this.metrics.searchFinished(!this.shouldStop());
+            }
+            this.visitor = null;
+        }
+    }
+
+    private boolean shouldStop() {
+        return this.budgetExhausted || this.stopped;
+    }
+
+    private void searchAtDepth(int k) {
+        ++this.nodesVisited;
+        if (this.nodeBudget >= 0 && this.nodesVisited > this.nodeBudget) {
+            this.budgetExhausted = true;
+            return;
+        }
+        if (this.metrics != null && (this.nodesVisited & (REPORT_INTERVAL - 1)) == 0) {
+            this.reportMetrics(k);
+        }
+        if (this.activeCount == 0) {
+            if (this.metrics != null) {
+                this.metrics.addSolution();
+            }
+            this.stopped = !this.visitor.visit(this.rowIndices, k);
+            return;
+        }
+        if (k == this.rowIndices.length) {
+            this.rowIndices = Arrays.copyOf(this.rowIndices, 2 * k);
+        }
+
+        int item = this.chooseItem();
+        if (this.bound[item] > 1) {
+            this.searchMultiplicity(item, k);
+            return;
+        }
+        if (k < PROGRESS_LEVELS) {
+            this.branchCount[k] = this.itemSize[item];
+            this.branchIndex[k] = 0;
+        }
+        this.cover(item);
+
+        // covering the item hid its options everywhere else, so its own segment stays put during the loop
+        final int start = this.itemStart[item];
+        final int end = start + this.itemSize[item];
+        for (int p = start; p < end; p++) {
+            final int node = this.set[p];
+            final int option = this.nodeOption[node];
+            this.rowIndices[k] = option;
+
+            for (int n = this.optionStart[option]; n < this.optionStart[option + 1]; n++) {
+                if (n != node && --this.bound[this.nodeItem[n]] == 0) {
+                    this.cover(this.nodeItem[n]);
+                }
+            }
+
+            this.searchAtDepth(k + 1);
+
+            for (int n = this.optionStart[option + 1] - 1; n >= this.optionStart[option]; n--) {
+                if (n != node && this.bound[this.nodeItem[n]]++ == 0) {
+                    this.uncover(this.nodeItem[n]);
+                }
+            }
+
+            if (this.shouldStop()) {
+                break;
+            }
+            if (k < PROGRESS_LEVELS) {
+                this.branchIndex[k]++;
+            }
+        }
+
+        this.uncover(item);
+    }
+
+    // as in Root: either the first available option of the item is in the solution, or it is not
+    private void searchMultiplicity(int item, int k) {
+        if (this.itemSize[item] < this.bound[item]) {
+            return;
+        }
+        if (k < PROGRESS_LEVELS) {
+            this.branchCount[k] = 2;
+            this.branchIndex[k] = 0;
+        }
+
+        final int option = this.nodeOption[this.set[this.itemStart[item]]];
+        this.rowIndices[k] = option;
+        this.hideOption(option);
+        for (int n = this.optionStart[option]; n < this.optionStart[option + 1]; n++) {
+            if (--this.bound[this.nodeItem[n]] == 0) {
+                this.cover(this.nodeItem[n]);
+            }
+        }
+        this.searchAtDepth(k + 1);
+        for (int n = this.optionStart[option + 1] - 1; n >= this.optionStart[option]; n--) {
+            if (this.bound[this.nodeItem[n]]++ == 0) {
+                this.uncover(this.nodeItem[n]);
+            }
+        }
+        this.unhideOption(option);
+        if (this.shouldStop()) {
+            return;
+        }
+
+        if (k < PROGRESS_LEVELS) {
+            this.branchIndex[k]++;
+        }
+        this.hideOption(option);
+        this.searchAtDepth(k);
+        this.unhideOption(option);
+    }
+
+    private int chooseItem() {
+        // fewest ways to satisfy the item, as in Root#chooseColumn
+        int out = -1;
+        int minSize = Integer.MAX_VALUE;
+        for (int a = 0; a < this.activeCount; a++) {
+            final int item = this.active[a];
+            final int size = this.itemSize[item] - this.bound[item] + 1;
+            if (size < minSize || (size == minSize && item > out)) {
+                out = item;
+                minSize = size;
+            }
+        }
+        return out;
+    }
+
+    // deactivate an item and hide each of its options from the other items
+    private void cover(int item) {
+        final int[] active = this.active;
+        final int[] activePosition = this.activePosition;
+        final int position = activePosition[item];
+        final int last = active[--this.activeCount];
+        active[position] = last;
+        activePosition[last] = position;
+        active[this.activeCount] = item;
+        activePosition[item] = this.activeCount;
+
+        // hideNode, inlined: this loop is where most of the time goes
+        final int[] set = this.set;
+        final int[] nodePosition = this.nodePosition;
+        final int[] nodeItem = this.nodeItem;
+        final int[] nodeOption = this.nodeOption;
+        final int[] optionStart = this.optionStart;
+        final int[] itemStart = this.itemStart;
+        final int[] itemSize = this.itemSize;
+        final int[] trail = this.trail;
+        int trailSize = this.trailSize;
+        this.coverMark[item] = trailSize;
+        final int start = itemStart[item];
+        final int end = start + itemSize[item];
+        for (int p = start; p < end; p++) {
+            final int node = set[p];
+            final int option = nodeOption[node];
+            for (int n = optionStart[option], optionEnd = optionStart[option + 1]; n < optionEnd; n++) {
+                if (n == node) {
+                    continue;
+                }
+                final int other = nodeItem[n];
+                final int from = nodePosition[n];
+                final int to = itemStart[other] + --itemSize[other];
+                final int swapped = set[to];
+                set[from] = swapped;
+                nodePosition[swapped] = from;
+                set[to] = n;
+                nodePosition[n] = to;
+                trail[trailSize++] = other;
+            }
+        }
+        this.updates += trailSize - this.trailSize;
+        this.trailSize = trailSize;
+    }
+
+    // the reverse of cover; every removal since has been undone, so only the counts need to grow back
+    private void uncover(int item) {
+        this.restoreTrail(this.coverMark[item]);
+        this.activeCount++;
+    }
+
+    private void hideOption(int option) {
+        for (int n = this.optionStart[option]; n < this.optionStart[option + 1]; n++) {
+            this.hideNode(n);
+        }
+    }
+
+    private void unhideOption(int option) {
+        this.restoreTrail(this.trailSize - (this.optionStart[option + 1] - this.optionStart[option]));
+    }
+
+    // swap a node just past the available part of its item's segment
+    private void hideNode(int node) {
+        final int[] set = this.set;
+        final int[] nodePosition = this.nodePosition;
+        final int item = this.nodeItem[node];
+        final int position = nodePosition[node];
+        final int lastPosition = this.itemStart[item] + --this.itemSize[item];
+        final int last = set[lastPosition];
+        set[position] = last;
+        nodePosition[last] = position;
+        set[lastPosition] = node;
+        nodePosition[node] = lastPosition;
+        this.trail[this.trailSize++] = item;
+        this.updates++;
+    }
+
+    private void restoreTrail(int mark) {
+        final int[] trail = this.trail;
+        final int[] itemSize = this.itemSize;
+        for (int t = this.trailSize - 1; t >= mark; t--) {
+            itemSize[trail[t]]++;
+        }
+        this.trailSize = mark;
+    }
+
+    private void reportMetrics(int k) {
+        double progress = 0;
+        double share = 1;
+        for (int level = 0; level < Math.min(k, PROGRESS_LEVELS); level++) {
+            share /= this.branchCount[level];
+            progress += this.branchIndex[level] * share;
+        }
+        this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+        this.nodesReported = this.nodesVisited;
+        this.metrics.reportPosition(k, this.branchIndex[0], this.branchCount[0], progress);
+    }
+
+    @Override
+    public String toString() {
+        return "DancingCells (" + this.itemSize.length + " items, " + this.rowData.size() + " options)";
+    }
+}
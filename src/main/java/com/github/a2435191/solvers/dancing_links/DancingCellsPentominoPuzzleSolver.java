@@ -0,0 +1,21 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+
+/**
+ * The same search as {@link DancingLinksPentominoPuzzleSolver}, run by the array-based {@link DancingCells} engine
+ * instead of linked {@link Root} objects. Queries that need the linked matrix itself, such as
+ * {@link #solveToZdd}, still build a {@link Root}.
+ */
+public class DancingCellsPentominoPuzzleSolver extends DancingLinksPentominoPuzzleSolver {
+    @Override
+    protected ExactCover<Placement> createExactCover(Pentomino[] pieces, Board board) {
+        Matrix matrix = buildMatrix(pieces, board, PlacementTable.compute(pieces, board));
+        DancingCells<Placement> cells = new DancingCells<>(
+                matrix.rows(), matrix.columns().length, matrix.multiplicities(), matrix.rowData());
+        cells.metrics = this.getMetrics();
+        return cells;
+    }
+}
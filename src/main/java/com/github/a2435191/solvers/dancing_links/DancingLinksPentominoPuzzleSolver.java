@@ -2,101 +2,206 @@ package com.github.a2435191.solvers.dancing_links;
 
 import com.github.a2435191.*;
 import com.github.a2435191.solvers.ISolver;
-import com.github.a2435191.solvers.PentominoPuzzleSolver;
+import com.github.a2435191.solvers.SearchMetrics;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * The implementation using Knuth's dancing links algorithm.
  */
 public class DancingLinksPentominoPuzzleSolver implements ISolver {
-    private static List<Coordinate> allEmptyCoordinates(boolean[][] grid) {
+    private final SearchMetrics metrics = SearchMetrics.forSolver(this.getClass().getSimpleName());
+
+    private static List<Coordinate> allEmptyCoordinates(Board board) {
         List<Coordinate> out = new ArrayList<>();
-        for (int i = 0; i < grid.length; i++) {
-            for (int j = 0; j < grid[0].length; j++) {
-                if (!grid[i][j]) {
-                    out.add(new Coordinate(j, i));
-                }
-            }
+        for (int idx = board.firstEmptyIndex(0); idx >= 0; idx = board.firstEmptyIndex(idx + 1)) {
+            out.add(new Coordinate(idx % board.getWidth(), idx / board.getWidth()));
         }
         return out;
     }
 
-    private static String[] createColumns(Pentomino[] pieces, List<Coordinate> emptyCoordinates) {
-        String[] columns = new String[pieces.length + emptyCoordinates.size()];
-        for (int i = 0; i < pieces.length; i++) {
-            columns[i] = "Piece: " + pieces[i].name();
+    private static String[] createColumns(List<Pentomino> distinctPieces, List<Coordinate> emptyCoordinates) {
+        String[] columns = new String[distinctPieces.size() + emptyCoordinates.size()];
+        for (int i = 0; i < distinctPieces.size(); i++) {
+            columns[i] = "Piece: " + distinctPieces.get(i).name();
         }
 
         int columnsIdx = 0;
         for (Coordinate c : emptyCoordinates) {
-            columns[pieces.length + columnsIdx++] = "Position: " + c;
+            columns[distinctPieces.size() + columnsIdx++] = "Position: " + c;
         }
 
         return columns;
     }
 
-    @Override
-    public List<Solution> solveForMultiple(Pentomino[] pieces, boolean[][] grid, int limit) {
-        final int positionsToPlace = Arrays.stream(grid)
-                .mapToInt(arr -> {
-                    int count = 0;
-                    for (boolean b : arr) {
-                        if (!b) count++;
-                    }
-                    return count;
-                })
-                .sum();
+    /**
+     * Build the exact cover matrix for a puzzle, with one row for each placement of each piece.
+     *
+     * @param pieces Pentominos to use in solving the puzzle. A pentomino listed several times is placed that many
+     *               times, and its copies are interchangeable.
+     * @param board  The puzzle space.
+     * @return The root of the matrix, where each row is associated with its placement.
+     */
+    protected Root<Placement> createRoot(Pentomino[] pieces, Board board) {
+        return this.createRoot(pieces, board, PlacementTable.compute(pieces, board));
+    }
+
+    /**
+     * Build the exact cover matrix for a puzzle from precomputed placements.
+     *
+     * @param pieces     Pentominos to use in solving the puzzle. A pentomino listed several times is placed that
+     *                   many times, and its copies are interchangeable.
+     * @param board      The puzzle space.
+     * @param placements Placements of {@code pieces} computed for a board of the same size as {@code board}, whose
+     *                   filled squares are a subset of those of {@code board}. Placements that no longer fit
+     *                   are skipped.
+     * @return The root of the matrix, where each row is associated with its placement.
+     */
+    public Root<Placement> createRoot(Pentomino[] pieces, Board board, PlacementTable placements) {
+        Matrix matrix = buildMatrix(pieces, board, placements);
+        Root<Placement> root = new Root<>(matrix.rows(), matrix.columns(), matrix.multiplicities(), matrix.rowData());
+        root.metrics = this.metrics;
+        return root;
+    }
+
+    /**
+     * Build the exact cover problem for a puzzle, to be searched by {@link #visitSolutions}. Subclasses may
+     * return a different {@link ExactCover} engine; the rows must be those {@link #buildMatrix} lists.
+     *
+     * @param pieces Pentominos to use in solving the puzzle.
+     * @param board  The puzzle space.
+     * @return The problem, where each row is associated with its placement.
+     */
+    protected ExactCover<Placement> createExactCover(Pentomino[] pieces, Board board) {
+        return this.createRoot(pieces, board);
+    }
+
+    /**
+     * The rows of an exact cover matrix, independent of the engine that will search it.
+     *
+     * @param rows           The columns of each row, sorted.
+     * @param columns        The name of each column.
+     * @param multiplicities How many rows must cover each column.
+     * @param rowData        The placement of each row.
+     */
+    record Matrix(int[][] rows, String[] columns, int[] multiplicities, List<Placement> rowData) {
+    }
+
+    static Matrix buildMatrix(Pentomino[] pieces, Board board, PlacementTable placements) {
+        if (placements.getHeight() != board.getHeight() || placements.getWidth() != board.getWidth()) {
+            throw new IllegalArgumentException("placements were computed for a board of a different size");
+        }
 
         // columns:
-        // one each for if each Pentomino is on the board
+        // one each for if each Pentomino is on the board, as many times as it is listed
         // one each for each empty grid square being covered
-        final int width = pieces.length + positionsToPlace;
-        List<Coordinate> allEmptyCoordinates = allEmptyCoordinates(grid);
-        String[] columns = createColumns(pieces, allEmptyCoordinates);
-
-        List<Map.Entry<Pentomino, TransformationAndCoordinate>> associatedRowData = new ArrayList<>();
-
-        List<boolean[]> constraints = new ArrayList<>();
-        for (int i = 0; i < pieces.length; i++) {
-            Pentomino p = pieces[i];
-            for (var equivalentTransform : p.equivalentTransforms.entrySet()) {
-                boolean[][] rotated = equivalentTransform.getKey();
-                Transformation transform = equivalentTransform.getValue()[0];
-
-                for (int y = 0; y < grid.length; y++) {
-                    for (int x = 0; x < grid[0].length; x++) {
-                        Coordinate coord = new Coordinate(x, y);
-                        if (PentominoPuzzleSolver.canFit(rotated, coord, grid)) {
-                            boolean[] row = new boolean[width];
-                            row[i] = true;
-
-                            boolean[][] newGrid = PentominoPuzzleSolver.updateGrid(rotated, coord, grid);
-                            for (int j = 0; j < allEmptyCoordinates.size(); j++) {
-                                Coordinate testCoordinate = allEmptyCoordinates.get(j);
-                                if (newGrid[testCoordinate.y()][testCoordinate.x()]) {
-                                    row[pieces.length + j] = true;
-                                }
-                            }
-                            constraints.add(row);
-                            associatedRowData.add(Map.entry(p, new TransformationAndCoordinate(transform, coord)));
-                        }
-                    }
-                }
+        Map<Pentomino, Integer> pieceColumns = new HashMap<>();
+        List<Pentomino> distinctPieces = new ArrayList<>();
+        List<Integer> copies = new ArrayList<>();
+        for (Pentomino p : pieces) {
+            Integer column = pieceColumns.get(p);
+            if (column == null) {
+                pieceColumns.put(p, distinctPieces.size());
+                distinctPieces.add(p);
+                copies.add(1);
+            } else {
+                copies.set(column, copies.get(column) + 1);
+            }
+        }
+        List<Coordinate> allEmptyCoordinates = allEmptyCoordinates(board);
+        String[] columns = createColumns(distinctPieces, allEmptyCoordinates);
+        int[] multiplicities = new int[columns.length];
+        Arrays.fill(multiplicities, 1);
+        for (int i = 0; i < copies.size(); i++) {
+            multiplicities[i] = copies.get(i);
+        }
+        int[] cellColumns = new int[board.size()];
+        for (int j = 0; j < allEmptyCoordinates.size(); j++) {
+            Coordinate c = allEmptyCoordinates.get(j);
+            cellColumns[c.y() * board.getWidth() + c.x()] = distinctPieces.size() + j;
+        }
+
+        List<Placement> associatedRowData = new ArrayList<>();
+        List<int[]> constraints = new ArrayList<>();
+        for (int i = 0; i < placements.size(); i++) {
+            Placement placement = placements.getPlacement(i);
+            Integer pieceColumn = pieceColumns.get(placement.piece());
+            if (pieceColumn == null || !placements.fits(i, board)) {
+                continue;
             }
+
+            int[] cells = placements.getCells(i);
+            int[] row = new int[cells.length + 1];
+            row[0] = pieceColumn;
+            for (int j = 0; j < cells.length; j++) {
+                row[j + 1] = cellColumns[cells[j]];
+            }
+            constraints.add(row);
+            associatedRowData.add(placement);
         }
 
-        Root<Map.Entry<Pentomino, TransformationAndCoordinate>> root =
-                new Root<>(constraints.toArray(new boolean[0][]), columns, associatedRowData);
-        var solution = root.search();
-
-        return solution.stream().map(set -> {
-                    Map<Pentomino, TransformationAndCoordinate> map = new HashMap<>();
-                    for (var entry : set) {
-                        map.put(entry.getKey(), entry.getValue());
-                    }
-                    return new Solution(map);
-                })
-                .toList();
+        return new Matrix(constraints.toArray(new int[0][]), columns, multiplicities, associatedRowData);
+    }
+
+    /**
+     * Convert a solution of the exact cover matrix built by {@link #createRoot} to a {@link Solution}.
+     *
+     * @param rows The associated data of each row in the solution.
+     * @return The equivalent {@link Solution}.
+     */
+    public static Solution toSolution(Collection<Placement> rows) {
+        return new Solution(new ArrayList<>(rows));
+    }
+
+    /**
+     * Compute every solution, compressed into a zero-suppressed decision diagram.
+     *
+     * @param pieces Pentominos to use in solving the puzzle.
+     * @param board  The puzzle space.
+     * @return A diagram whose solutions can be converted with {@link #toSolution(Collection)}.
+     * @see ZddBuilder
+     */
+    public Zdd<Placement> solveToZdd(Pentomino[] pieces, Board board) {
+        return new ZddBuilder<>(this.createRoot(pieces, board)).build();
+    }
+
+    /**
+     * Stream the solutions of a puzzle without collecting them, so that memory use does not grow with the number
+     * of solutions.
+     *
+     * @param pieces  Pentominos to use in solving the puzzle.
+     * @param board   The puzzle space.
+     * @param visitor Called once for each solution with the placement of every piece, until it returns
+     *                {@code false}. The array is reused for every solution, so copy anything that should outlive
+     *                the call.
+     */
+    public void visitSolutions(Pentomino[] pieces, Board board, Predicate<Placement[]> visitor) {
+        ExactCover<Placement> problem = this.createExactCover(pieces, board);
+        Placement[] buffer = new Placement[pieces.length];
+        problem.visit((rowIndices, depth) -> {
+            for (int i = 0; i < depth; i++) {
+                buffer[i] = problem.getRowData(rowIndices[i]);
+            }
+            return visitor.test(buffer);
+        });
+    }
+
+    @Override
+    public SearchMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    @Override
+    public List<Solution> solveForMultiple(Pentomino[] pieces, Board board, int limit) {
+        List<Solution> out = new ArrayList<>();
+        if (limit == 0) {
+            return out;
+        }
+        this.visitSolutions(pieces, board, placements -> {
+            out.add(toSolution(Arrays.asList(placements)));
+            return out.size() != limit;
+        });
+        return out;
     }
 }
@@ -14,6 +14,7 @@ public class Data<T> {
     public Data<T> down;
     protected Column<T> column;
     protected T associatedRowData;
+    int rowIndex = -1;
 
     public Data(Data<T> left, Data<T> right, Data<T> up, Data<T> down, Column<T> column, T associatedRowData) {
         this.left = left;
@@ -43,6 +44,15 @@ public class Data<T> {
         return this.associatedRowData;
     }
 
+    /**
+     * The index of the row of {@code this} in the matrix it was built from.
+     *
+     * @return A row index, or {@code -1} for header objects.
+     */
+    public final int getRowIndex() {
+        return this.rowIndex;
+    }
+
     @Override
     public String toString() {
         return "Data object";
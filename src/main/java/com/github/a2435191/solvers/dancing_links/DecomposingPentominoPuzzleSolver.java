@@ -0,0 +1,275 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Dancing links that first splits the empty squares of the board into connected regions, when filled squares cut
+ * it into several. No piece can straddle two regions, so each region is searched on its own, once, for every way
+ * to fill it with some of the pieces; the solutions of the whole puzzle are the combinations of one filling per
+ * region that use each piece exactly once. Counts are sums of products, and solutions are enumerated one
+ * combination at a time, so only the fillings of each region are kept, never their product.
+ * <p>
+ * The board is only split before searching: the regions left after placing some pieces are still searched as one.
+ * A board whose empty squares are connected is solved exactly as by {@link DancingLinksPentominoPuzzleSolver}.
+ */
+public class DecomposingPentominoPuzzleSolver extends DancingLinksPentominoPuzzleSolver {
+    /**
+     * Split the empty squares of a board into connected regions, squares being connected when they share an edge.
+     *
+     * @param board The puzzle space.
+     * @return One board per region, of the same size as {@code board}, with every square outside the region
+     * filled; in the order of the first empty square of each region.
+     */
+    public static List<Board> regions(Board board) {
+        final int width = board.getWidth();
+        final int height = board.getHeight();
+        int[] region = new int[board.size()];
+        Arrays.fill(region, -1);
+        List<List<Integer>> squares = new ArrayList<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (int start = board.firstEmptyIndex(0); start >= 0; start = board.firstEmptyIndex(start + 1)) {
+            if (region[start] >= 0) {
+                continue;
+            }
+            List<Integer> found = new ArrayList<>();
+            region[start] = squares.size();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                final int index = queue.remove();
+                found.add(index);
+                final int x = index % width;
+                final int y = index / width;
+                int[][] neighbors = {{x - 1, y}, {x + 1, y}, {x, y - 1}, {x, y + 1}};
+                for (int[] neighbor : neighbors) {
+                    if (!board.contains(neighbor[0], neighbor[1])) {
+                        continue;
+                    }
+                    final int next = neighbor[1] * width + neighbor[0];
+                    if (region[next] < 0 && !board.isFilled(next)) {
+                        region[next] = squares.size();
+                        queue.add(next);
+                    }
+                }
+            }
+            squares.add(found);
+        }
+
+        List<Board> out = new ArrayList<>(squares.size());
+        for (List<Integer> found : squares) {
+            boolean[][] grid = new boolean[height][width];
+            for (boolean[] row : grid) {
+                Arrays.fill(row, true);
+            }
+            for (int index : found) {
+                grid[index / width][index % width] = false;
+            }
+            out.add(Board.fromGrid(grid));
+        }
+        return out;
+    }
+
+    /**
+     * Count the solutions of a puzzle, multiplying the counts of its regions instead of combining their solutions.
+     *
+     * @param pieces Pentominos to use in solving the puzzle.
+     * @param board  The puzzle space.
+     * @return The number of solutions {@link #visitSolutions} would visit.
+     */
+    public long countSolutions(Pentomino[] pieces, Board board) {
+        List<Board> regions = regions(board);
+        if (regions.size() <= 1) {
+            long[] count = {0};
+            super.visitSolutions(pieces, board, placements -> {
+                count[0]++;
+                return true;
+            });
+            return count[0];
+        }
+        return new Decomposition(pieces, regions).count();
+    }
+
+    @Override
+    public void visitSolutions(Pentomino[] pieces, Board board, Predicate<Placement[]> visitor) {
+        List<Board> regions = regions(board);
+        if (regions.size() <= 1) {
+            super.visitSolutions(pieces, board, visitor);
+            return;
+        }
+        new Decomposition(pieces, regions).visit(visitor);
+    }
+
+    // the regions of one puzzle, each searched at most once
+    private final class Decomposition {
+        private final Pentomino[] pieces;
+        private final List<Pentomino> distinctPieces = new ArrayList<>();
+        private final int[] copies;
+        private final List<Board> regions;
+        // for each region once it has been searched: the number of its solutions, or the solutions themselves, for
+        // each share of the pieces, given as the number of copies of each distinct piece placed in the region
+        private final List<Map<List<Integer>, Long>> counts = new ArrayList<>();
+        private final List<Map<List<Integer>, List<Placement[]>>> solutions = new ArrayList<>();
+
+        Decomposition(Pentomino[] pieces, List<Board> regions) {
+            Map<Pentomino, Integer> copies = new LinkedHashMap<>();
+            for (Pentomino p : pieces) {
+                copies.merge(p, 1, Integer::sum);
+            }
+            this.pieces = pieces;
+            this.distinctPieces.addAll(copies.keySet());
+            this.copies = copies.values().stream().mapToInt(Integer::intValue).toArray();
+            this.regions = regions;
+            for (int i = 0; i < regions.size(); i++) {
+                this.counts.add(null);
+                this.solutions.add(null);
+            }
+        }
+
+        long count() {
+            long[] total = {0};
+            this.shareOut(shares -> {
+                long product = 1;
+                for (int region = 0; region < this.regions.size() && product != 0; region++) {
+                    product *= this.counts(region).getOrDefault(key(shares[region]), 0L);
+                }
+                total[0] += product;
+                return true;
+            });
+            return total[0];
+        }
+
+        void visit(Predicate<Placement[]> visitor) {
+            Placement[] buffer = new Placement[this.pieces.length];
+            this.shareOut(shares -> {
+                List<List<Placement[]>> parts = new ArrayList<>(this.regions.size());
+                for (int region = 0; region < this.regions.size(); region++) {
+                    List<Placement[]> part = this.solutions(region).getOrDefault(key(shares[region]), List.of());
+                    if (part.isEmpty()) {
+                        return true;
+                    }
+                    parts.add(part);
+                }
+
+                // every combination of one solution per region, the last region changing fastest
+                int[] chosen = new int[parts.size()];
+                while (true) {
+                    int offset = 0;
+                    for (int region = 0; region < parts.size(); region++) {
+                        Placement[] part = parts.get(region).get(chosen[region]);
+                        System.arraycopy(part, 0, buffer, offset, part.length);
+                        offset += part.length;
+                    }
+                    if (!visitor.test(buffer)) {
+                        return false;
+                    }
+                    int region = parts.size() - 1;
+                    while (region >= 0 && ++chosen[region] == parts.get(region).size()) {
+                        chosen[region--] = 0;
+                    }
+                    if (region < 0) {
+                        return true;
+                    }
+                }
+            });
+        }
+
+        private static List<Integer> key(int[] share) {
+            return Arrays.stream(share).boxed().toList();
+        }
+
+        // call `out` with each way to share the pieces among the regions that fills each exactly, as the number of
+        // copies of each distinct piece per region, until it returns false
+        private boolean shareOut(Predicate<int[][]> out) {
+            int[] remaining = new int[this.regions.size()];
+            for (int region = 0; region < remaining.length; region++) {
+                remaining[region] = this.regions.get(region).emptyCount();
+            }
+            return this.shareOut(0, 0, this.copies.length == 0 ? 0 : this.copies[0],
+                    new int[this.regions.size()][this.distinctPieces.size()], remaining, out);
+        }
+
+        private boolean shareOut(int piece, int region, int left, int[][] shares, int[] remaining,
+                                 Predicate<int[][]> out) {
+            if (piece == this.distinctPieces.size()) {
+                for (int area : remaining) {
+                    if (area != 0) {
+                        return true;
+                    }
+                }
+                return out.test(shares);
+            }
+            final int area = this.distinctPieces.get(piece).area;
+            final boolean last = region == this.regions.size() - 1;
+            for (int k = last ? left : 0; k <= left && k * area <= remaining[region]; k++) {
+                shares[region][piece] = k;
+                remaining[region] -= k * area;
+                boolean go = last
+                        ? this.shareOut(piece + 1, 0, piece + 1 < this.copies.length ? this.copies[piece + 1] : 0,
+                        shares, remaining, out)
+                        : this.shareOut(piece, region + 1, left - k, shares, remaining, out);
+                remaining[region] += k * area;
+                shares[region][piece] = 0;
+                if (!go) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Map<List<Integer>, Long> counts(int region) {
+            if (this.counts.get(region) == null) {
+                Map<List<Integer>, Long> counts = new HashMap<>();
+                this.search(region, (share, placements) -> counts.merge(key(share), 1L, Long::sum));
+                this.counts.set(region, counts);
+            }
+            return this.counts.get(region);
+        }
+
+        private Map<List<Integer>, List<Placement[]>> solutions(int region) {
+            if (this.solutions.get(region) == null) {
+                Map<List<Integer>, List<Placement[]>> solutions = new HashMap<>();
+                this.search(region, (share, placements) ->
+                        solutions.computeIfAbsent(key(share), k -> new ArrayList<>()).add(placements));
+                this.solutions.set(region, solutions);
+            }
+            return this.solutions.get(region);
+        }
+
+        // find every way to fill one region with some of the pieces, in a single search: the piece columns are
+        // secondary, so that each piece may be placed up to as many times as it is listed, or not at all
+        private void search(int region, BiConsumer<int[], Placement[]> out) {
+            final Board board = this.regions.get(region);
+            Matrix matrix = buildMatrix(this.pieces, board, PlacementTable.compute(this.pieces, board));
+            // buildMatrix numbers the piece columns first, in the order of the first copy of each piece
+            boolean[] secondary = new boolean[matrix.columns().length];
+            Arrays.fill(secondary, 0, this.copies.length, true);
+            Root<Placement> root = new Root<>(
+                    matrix.rows(), matrix.columns(), matrix.multiplicities(), secondary, matrix.rowData());
+            root.metrics = DecomposingPentominoPuzzleSolver.this.getMetrics();
+
+            int[] share = new int[this.copies.length];
+            root.visit((rowIndices, depth) -> {
+                Arrays.fill(share, 0);
+                Placement[] placements = new Placement[depth];
+                for (int i = 0; i < depth; i++) {
+                    placements[i] = root.getRowData(rowIndices[i]);
+                    share[this.distinctPieces.indexOf(placements[i].piece())]++;
+                }
+                out.accept(share, placements);
+                return true;
+            });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.a2435191.solvers.dancing_links;
+
+/**
+ * An exact cover search over a fixed matrix, whose rows are numbered from 0 in the order they were given and
+ * associated with data. Implementations differ only in how they represent the matrix while searching.
+ *
+ * @param <T> The type of the data associated with each row.
+ * @see Root
+ * @see DancingCells
+ */
+public interface ExactCover<T> {
+    /**
+     * Get the number of rows in the matrix.
+     *
+     * @return The number of rows this instance was constructed with.
+     */
+    int getRowCount();
+
+    /**
+     * Get the data associated with a row of the matrix.
+     *
+     * @param index The index of the row.
+     * @return The data the row was constructed with.
+     */
+    T getRowData(int index);
+
+    /**
+     * Search the matrix, handing each solution to a visitor instead of collecting them.
+     *
+     * @param nodeBudget The maximum number of search tree nodes to visit; negative for no limit. Check
+     *                   {@link #isBudgetExhausted()} afterwards to tell whether the search was cut short.
+     * @param visitor    Called once for each solution, until it returns {@code false}.
+     */
+    void visit(long nodeBudget, SolutionVisitor visitor);
+
+    /**
+     * Search the whole matrix, handing each solution to a visitor instead of collecting them.
+     *
+     * @param visitor Called once for each solution, until it returns {@code false}.
+     */
+    default void visit(SolutionVisitor visitor) {
+        this.visit(-1, visitor);
+    }
+
+    /**
+     * Check whether the last search ran out of nodes.
+     *
+     * @return {@code true} if the last search was stopped by its node budget.
+     */
+    boolean isBudgetExhausted();
+
+    /**
+     * Count the search tree nodes the last search visited. Unlike its running time, this only depends on the
+     * matrix and the order of its rows.
+     *
+     * @return The number of nodes, including the root and the leaves.
+     */
+    long getNodesVisited();
+
+    /**
+     * Count the removals of a row from a column (Knuth's "updates") the last search made. Like
+     * {@link #getNodesVisited()}, this is a deterministic measure of work.
+     *
+     * @return The number of removals; each is undone once, which is not counted again.
+     */
+    long getUpdates();
+}
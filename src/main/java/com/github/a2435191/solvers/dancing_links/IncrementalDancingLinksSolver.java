@@ -0,0 +1,74 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Dancing links for repeated queries on the same board, where some pieces have already been placed by hand.
+ * The exact cover matrix is built once; each query only covers the rows of the pre-placed pieces,
+ * searches, and uncovers them again.
+ * <p>
+ * Instances are not thread-safe, since every query searches the same matrix.
+ */
+public final class IncrementalDancingLinksSolver {
+    private final Root<Placement> root;
+    private final Map<Placement, Data<Placement>> rowsByPlacement = new HashMap<>();
+
+    /**
+     * Construct a new instance, building the exact cover matrix.
+     *
+     * @param pieces Pentominos to use in solving the puzzle, including those that will be pre-placed.
+     * @param board  The puzzle space.
+     */
+    public IncrementalDancingLinksSolver(Pentomino[] pieces, Board board) {
+        this.root = new DancingLinksPentominoPuzzleSolver().createRoot(pieces, board);
+        for (int i = 0; i < this.root.getRowCount(); i++) {
+            Data<Placement> row = this.root.getRow(i);
+            this.rowsByPlacement.put(row.getAssociatedRowData(), row);
+        }
+    }
+
+    /**
+     * Compute multiple completions of a partially filled board.
+     *
+     * @param fixed Pieces that have already been placed, in the same format as {@link Solution#data()}.
+     * @param limit The maximum number of results to return. A negative value means all results.
+     * @return A list of {@link Solution} instances, each containing the fixed pieces as well as the rest.
+     * @throws IllegalArgumentException If a fixed piece is not part of the puzzle, does not fit on the board,
+     *                                  or overlaps another fixed piece.
+     */
+    public List<Solution> complete(Map<Pentomino, TransformationAndCoordinate> fixed, int limit) {
+        List<Data<Placement>> fixedRows = new ArrayList<>();
+        for (var entry : fixed.entrySet()) {
+            fixedRows.add(this.findRow(entry.getKey(), entry.getValue()));
+        }
+
+        return this.root.search(fixedRows, limit, -1).stream()
+                .map(DancingLinksPentominoPuzzleSolver::toSolution)
+                .toList();
+    }
+
+    /**
+     * Compute a single completion of a partially filled board.
+     *
+     * @param fixed Pieces that have already been placed, in the same format as {@link Solution#data()}.
+     * @return If no completion exists, {@code null}. Otherwise, a {@link Solution} instance containing the fixed
+     * pieces as well as the rest.
+     * @see #complete(Map, int)
+     */
+    public @Nullable Solution completeOne(Map<Pentomino, TransformationAndCoordinate> fixed) {
+        List<Solution> list = this.complete(fixed, 1);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    private Data<Placement> findRow(Pentomino p, TransformationAndCoordinate placement) {
+        // rows use the first of several equivalent transformations, so normalize first
+        var row = this.rowsByPlacement.get(new Placement(p, placement).normalized());
+        if (row == null) {
+            throw new IllegalArgumentException("not a valid placement: " + p + " at " + placement);
+        }
+        return row;
+    }
+}
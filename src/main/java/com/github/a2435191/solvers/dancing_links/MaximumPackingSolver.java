@@ -0,0 +1,384 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import com.github.a2435191.solvers.SearchMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the largest packing of a puzzle that cannot be tiled exactly: the most pieces placed, or the most squares
+ * covered, without overlap. The search is branch and bound over the placement rows of
+ * {@link DancingLinksPentominoPuzzleSolver}: it takes the empty square with the fewest placements left, and either
+ * covers it with one of them or leaves it empty for good. A branch is cut as soon as it cannot beat the best packing
+ * found so far, bounding what it could still add by
+ * <ul>
+ *     <li>the squares that some remaining placement could still cover, and</li>
+ *     <li>the pieces that have a placement left, smallest first, as many as fit in those squares.</li>
+ * </ul>
+ * Both bounds are kept up to date as squares are decided, with counts per square and per piece of the placements
+ * still possible, so that each node costs about as much as in dancing links.
+ * <p>
+ * Exact tilings are found as by {@link DancingLinksPentominoPuzzleSolver}.
+ */
+public class MaximumPackingSolver extends DancingLinksPentominoPuzzleSolver {
+    private static final int REPORT_INTERVAL = 1 << 12; // nodes between updates of the metrics; a power of 2
+
+    private volatile @Nullable Packing best = null;
+
+    /**
+     * What a packing maximizes.
+     */
+    public enum Objective {
+        /**
+         * The number of pieces placed.
+         */
+        PIECES,
+        /**
+         * The number of squares covered. Equivalent to {@link #PIECES} when all pieces have the same area.
+         */
+        SQUARES
+    }
+
+    /**
+     * A packing of some of the pieces.
+     *
+     * @param solution The placed pieces; unlike a tiling, not every piece appears.
+     * @param score    The number of pieces placed or squares covered, depending on the objective.
+     * @param optimal  Whether no packing with a higher score exists. {@code false} for packings reported while
+     *                 searching, and for the result of a search cut short.
+     */
+    public record Packing(Solution solution, int score, boolean optimal) {
+    }
+
+    /**
+     * Find a packing with the highest score.
+     *
+     * @param pieces    Pentominos to use in solving the puzzle.
+     * @param board     The puzzle space. It is not modified.
+     * @param objective What to maximize.
+     * @return The packing, which is optimal.
+     */
+    public Packing pack(Pentomino[] pieces, Board board, Objective objective) {
+        return this.pack(pieces, board, objective, -1, packing -> true);
+    }
+
+    /**
+     * Find a packing with the highest score, reporting each packing better than the ones before.
+     *
+     * @param pieces        Pentominos to use in solving the puzzle.
+     * @param board         The puzzle space. It is not modified.
+     * @param objective     What to maximize.
+     * @param nodeBudget    The maximum number of search tree nodes to visit. A negative value means no limit.
+     * @param onImprovement Called with each packing better than the ones before, until it returns {@code false},
+     *                      which ends the search.
+     * @return The best packing found, which is optimal unless the search was cut short.
+     */
+    public Packing pack(Pentomino[] pieces, Board board, Objective objective, long nodeBudget,
+                        Predicate<Packing> onImprovement) {
+        Search search = new Search(pieces, board, objective, nodeBudget, onImprovement);
+        this.best = search.bestPacking;
+        final SearchMetrics metrics = this.getMetrics();
+        metrics.searchStarted();
+        boolean complete = false;
+        try {
+            search.searchAtDepth(0);
+            complete = !search.stopped;
+        } finally {
+            metrics.addNodes(search.nodesVisited - search.nodesReported);
+            metrics.searchFinished(complete);
+        }
+        Packing out = new Packing(search.bestPacking.solution(), search.bestPacking.score(), complete);
+        this.best = out;
+        return out;
+    }
+
+    /**
+     * Get the best packing of the current search so far, e.g. from another thread while {@link #pack} runs.
+     *
+     * @return The packing, or {@code null} if no search was started.
+     */
+    public @Nullable Packing getBest() {
+        return this.best;
+    }
+
+    // the state of one call to pack
+    private final class Search {
+        private final Objective objective;
+        private final long nodeBudget;
+        private final Predicate<Packing> onImprovement;
+        private final List<Placement> rowData;
+        private final int[][] rowCells; // the squares of each row, numbered in the order of the empty squares
+        private final int[] rowPiece; // the distinct piece of each row
+        private final int[][] cellRows; // the rows covering each square
+        private final int[][] pieceRows; // the rows of each distinct piece
+        private final int[] pieceArea;
+        private final int[] piecesByArea; // distinct pieces, smallest first
+        private final int[] copiesLeft; // copies of each distinct piece not yet placed
+        private final int[] blocked; // for each row, the number of reasons it cannot be placed; 0 if it can
+        private final int[] coverCount; // for each square, the rows that can still cover it
+        private final int[] pieceAlive; // for each distinct piece, the rows that can still be placed
+        private final boolean[] decided; // whether each square is covered or left empty
+        private int coverable; // squares not yet decided that some row can still cover
+        private final long[] sums; // scratch space for the bound on squares
+        private final int[] placed; // the rows of the current packing
+        private int placedCount = 0;
+        private int coveredSquares = 0;
+        private int bestScore = 0;
+        private Packing bestPacking; // the empty packing until a better one is found
+        private final int maxScore;
+        long nodesVisited = 0;
+        long nodesReported = 0;
+        boolean stopped = false;
+
+        Search(Pentomino[] pieces, Board board, Objective objective, long nodeBudget,
+               Predicate<Packing> onImprovement) {
+            this.objective = objective;
+            this.nodeBudget = nodeBudget;
+            this.onImprovement = onImprovement;
+            Matrix matrix = buildMatrix(pieces, board, PlacementTable.compute(pieces, board));
+            final int cells = board.emptyCount();
+            final int distinct = matrix.columns().length - cells;
+            this.rowData = matrix.rowData();
+
+            final int rows = matrix.rows().length;
+            this.rowCells = new int[rows][];
+            this.rowPiece = new int[rows];
+            int[] cellRowCounts = new int[cells];
+            int[] pieceRowCounts = new int[distinct];
+            for (int r = 0; r < rows; r++) {
+                int[] row = matrix.rows()[r];
+                this.rowPiece[r] = row[0];
+                this.rowCells[r] = new int[row.length - 1];
+                for (int j = 1; j < row.length; j++) {
+                    this.rowCells[r][j - 1] = row[j] - distinct;
+                    cellRowCounts[row[j] - distinct]++;
+                }
+                pieceRowCounts[row[0]]++;
+            }
+            this.cellRows = new int[cells][];
+            for (int c = 0; c < cells; c++) {
+                this.cellRows[c] = new int[cellRowCounts[c]];
+            }
+            this.pieceRows = new int[distinct][];
+            for (int p = 0; p < distinct; p++) {
+                this.pieceRows[p] = new int[pieceRowCounts[p]];
+            }
+            this.coverCount = new int[cells];
+            this.pieceAlive = new int[distinct];
+            for (int r = 0; r < rows; r++) {
+                for (int c : this.rowCells[r]) {
+                    this.cellRows[c][this.coverCount[c]++] = r;
+                }
+                this.pieceRows[this.rowPiece[r]][this.pieceAlive[this.rowPiece[r]]++] = r;
+            }
+
+            this.pieceArea = new int[distinct];
+            for (int r = 0; r < rows; r++) {
+                this.pieceArea[this.rowPiece[r]] = this.rowData.get(r).piece().area;
+            }
+            this.copiesLeft = Arrays.copyOf(matrix.multiplicities(), distinct);
+            this.piecesByArea = IntStream.range(0, distinct).boxed()
+                    .sorted(Comparator.comparingInt(p -> this.pieceArea[p]))
+                    .mapToInt(Integer::intValue).toArray();
+
+            this.blocked = new int[rows];
+            this.decided = new boolean[cells];
+            for (int c = 0; c < cells; c++) {
+                if (this.coverCount[c] > 0) {
+                    this.coverable++;
+                }
+            }
+            this.sums = new long[cells / Long.SIZE + 1];
+            this.placed = new int[pieces.length];
+            this.maxScore = this.bound();
+            this.bestPacking = this.packing(false);
+        }
+
+        Packing packing(boolean optimal) {
+            List<Placement> placements = new ArrayList<>(this.placedCount);
+            for (int i = 0; i < this.placedCount; i++) {
+                placements.add(this.rowData.get(this.placed[i]));
+            }
+            return new Packing(toSolution(placements), this.score(), optimal);
+        }
+
+        private int score() {
+            return this.objective == Objective.PIECES ? this.placedCount : this.coveredSquares;
+        }
+
+        // the highest score that the current packing could still reach
+        private int bound() {
+            if (this.objective == Objective.PIECES) {
+                int squares = this.coverable;
+                int pieces = this.placedCount;
+                for (int p : this.piecesByArea) {
+                    if (this.pieceAlive[p] > 0) {
+                        final int k = Math.min(this.copiesLeft[p], squares / this.pieceArea[p]);
+                        pieces += k;
+                        squares -= k * this.pieceArea[p];
+                    }
+                }
+                return pieces;
+            }
+            // the squares covered are a sum of areas, so find the largest sum of the areas of the pieces with a
+            // placement left that fits in the coverable squares: bit i of `sums` is set if some copies add up to i
+            final int words = this.coverable / Long.SIZE + 1;
+            Arrays.fill(this.sums, 0, words, 0);
+            this.sums[0] = 1;
+            for (int p = 0; p < this.pieceAlive.length; p++) {
+                if (this.pieceAlive[p] == 0) {
+                    continue;
+                }
+                final int wordShift = this.pieceArea[p] / Long.SIZE;
+                final int bitShift = this.pieceArea[p] % Long.SIZE;
+                for (int copy = 0; copy < this.copiesLeft[p]; copy++) {
+                    for (int i = words - 1; i >= wordShift; i--) {
+                        long shifted = this.sums[i - wordShift] << bitShift;
+                        if (bitShift != 0 && i - wordShift > 0) {
+                            shifted |= this.sums[i - wordShift - 1] >>> (Long.SIZE - bitShift);
+                        }
+                        this.sums[i] |= shifted;
+                    }
+                }
+            }
+            this.sums[words - 1] &= -1L >>> (Long.SIZE - 1 - this.coverable % Long.SIZE);
+            int word = words - 1;
+            while (this.sums[word] == 0) {
+                word--; // stops at word 0, where the empty sum is set
+            }
+            return this.coveredSquares + (word + 1) * Long.SIZE - 1 - Long.numberOfLeadingZeros(this.sums[word]);
+        }
+
+        void searchAtDepth(int k) {
+            ++this.nodesVisited;
+            if (this.nodeBudget >= 0 && this.nodesVisited > this.nodeBudget) {
+                this.stopped = true;
+                return;
+            }
+            if ((this.nodesVisited & (REPORT_INTERVAL - 1)) == 0) {
+                MaximumPackingSolver.this.getMetrics().addNodes(this.nodesVisited - this.nodesReported);
+                this.nodesReported = this.nodesVisited;
+            }
+
+            final int score = this.score();
+            if (score > this.bestScore) {
+                this.bestScore = score;
+                this.bestPacking = this.packing(false);
+                MaximumPackingSolver.this.best = this.bestPacking;
+                if (!this.onImprovement.test(this.bestPacking)) {
+                    this.stopped = true;
+                    return;
+                }
+            }
+            if (this.bestScore == this.maxScore || this.bound() <= this.bestScore) {
+                return;
+            }
+
+            // the square with the fewest rows left; one exists, or the bound would be the score
+            int cell = -1;
+            for (int c = 0; c < this.decided.length; c++) {
+                if (!this.decided[c] && this.coverCount[c] > 0
+                        && (cell < 0 || this.coverCount[c] < this.coverCount[cell])) {
+                    cell = c;
+                }
+            }
+
+            for (int row : this.cellRows[cell]) {
+                if (this.blocked[row] != 0) {
+                    continue;
+                }
+                this.placed[k] = row;
+                this.place(row);
+                this.searchAtDepth(k + 1);
+                this.unplace(row);
+                if (this.stopped || this.bestScore == this.maxScore) {
+                    return;
+                }
+            }
+
+            this.decide(cell);
+            this.searchAtDepth(k);
+            this.undecide(cell);
+        }
+
+        private void place(int row) {
+            this.placedCount++;
+            for (int c : this.rowCells[row]) {
+                this.decide(c);
+            }
+            this.coveredSquares += this.rowCells[row].length;
+            final int piece = this.rowPiece[row];
+            if (--this.copiesLeft[piece] == 0) {
+                for (int r : this.pieceRows[piece]) {
+                    this.block(r);
+                }
+            }
+        }
+
+        private void unplace(int row) {
+            final int piece = this.rowPiece[row];
+            if (this.copiesLeft[piece]++ == 0) {
+                for (int r : this.pieceRows[piece]) {
+                    this.unblock(r);
+                }
+            }
+            this.coveredSquares -= this.rowCells[row].length;
+            int[] cells = this.rowCells[row];
+            for (int j = cells.length - 1; j >= 0; j--) {
+                this.undecide(cells[j]);
+            }
+            this.placedCount--;
+        }
+
+        private void decide(int cell) {
+            if (this.coverCount[cell] > 0) {
+                this.coverable--;
+            }
+            this.decided[cell] = true;
+            for (int r : this.cellRows[cell]) {
+                this.block(r);
+            }
+        }
+
+        private void undecide(int cell) {
+            for (int r : this.cellRows[cell]) {
+                this.unblock(r);
+            }
+            this.decided[cell] = false;
+            if (this.coverCount[cell] > 0) {
+                this.coverable++;
+            }
+        }
+
+        private void block(int row) {
+            if (this.blocked[row]++ == 0) {
+                for (int c : this.rowCells[row]) {
+                    if (--this.coverCount[c] == 0 && !this.decided[c]) {
+                        this.coverable--;
+                    }
+                }
+                this.pieceAlive[this.rowPiece[row]]--;
+            }
+        }
+
+        private void unblock(int row) {
+            if (--this.blocked[row] == 0) {
+                for (int c : this.rowCells[row]) {
+                    if (this.coverCount[c]++ == 0 && !this.decided[c]) {
+                        this.coverable++;
+                    }
+                }
+                this.pieceAlive[this.rowPiece[row]]++;
+            }
+        }
+    }
+}
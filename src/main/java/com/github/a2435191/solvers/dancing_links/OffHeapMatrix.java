@@ -0,0 +1,548 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.solvers.SearchMetrics;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * An exact cover matrix for instances too large for {@link Root}, e.g. millions of rows. Instead of a {@link Data}
+ * object per node, the matrix is laid out in int arrays as in Knuth's DLX1 (TAOCP 7.2.2.1), stored outside the Java
+ * heap: in a direct buffer, or in a memory-mapped file that can be reopened later without building the matrix again
+ * (on a machine with the same byte order).
+ * Nothing per row is kept on the heap either; the data of a row is only looked up when a solution is reported.
+ * <p>
+ * The search is the same as that of {@link Root}, cover for cover, including columns that must be covered several
+ * times. A buffer is limited to 2 GiB, i.e. about 170 million nodes.
+ *
+ * <pre>
+ * header  MAGIC, item count N, node count, row count
+ * items   for the root (0) and each column (1 to N): LLINK, RLINK, LEN, BOUND
+ * nodes   for each node: TOP, ULINK, DLINK
+ * </pre>
+ * Nodes 1 to N head the column lists. Each row is a run of consecutive nodes, with a spacer node (TOP = -row - 1)
+ * before and after it, whose ULINK and DLINK point to the first node of the row before and the last node of the row
+ * after.
+ *
+ * @param <T> The type of the data associated with each row.
+ */
+public final class OffHeapMatrix<T> implements ExactCover<T> {
+    private static final int MAGIC = 0x444c5831; // "DLX1"
+    private static final int HEADER = 4;
+    private static final int ITEM_INTS = 4;
+    private static final int NODE_INTS = 3;
+    private static final int LLINK = 0;
+    private static final int RLINK = 1;
+    private static final int LEN = 2;
+    private static final int BOUND = 3;
+    private static final int TOP = 0;
+    private static final int ULINK = 1;
+    private static final int DLINK = 2;
+    private static final int MAX_INTS = Integer.MAX_VALUE / Integer.BYTES; // in one buffer
+
+    private final IntBuffer items;
+    private final IntBuffer nodes;
+    private final int itemCount;
+    private final int rowCount;
+    private final IntFunction<? extends T> rowData;
+
+    private int[] rowIndices = new int[16];
+    private SolutionVisitor visitor;
+    private boolean stopped = false;
+    private long nodeBudget = -1;
+    private long nodesVisited = 0;
+    private long nodesReported = 0;
+    private long updates = 0;
+    private boolean budgetExhausted = false;
+
+    /**
+     * Where to report the progress of searches, or {@code null} not to.
+     */
+    public @Nullable SearchMetrics metrics = null;
+
+    private OffHeapMatrix(ByteBuffer buffer, IntFunction<? extends T> rowData) {
+        IntBuffer ints = buffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+        if (ints.get(0) != MAGIC) {
+            throw new IllegalArgumentException("not an exact cover matrix");
+        }
+        this.itemCount = ints.get(1);
+        final int nodeCount = ints.get(2);
+        this.rowCount = ints.get(3);
+        this.items = ints.position(HEADER).slice().limit(ITEM_INTS * (this.itemCount + 1)).slice();
+        this.nodes = ints.position(HEADER + ITEM_INTS * (this.itemCount + 1)).slice()
+                .limit(NODE_INTS * nodeCount).slice();
+        this.rowData = Objects.requireNonNull(rowData);
+    }
+
+    /**
+     * Reopen a matrix written by a {@link Builder} with a file. The file is mapped copy-on-write, so searching does
+     * not change it, and several matrices can share it; it must still be opened for writing to map it that way.
+     *
+     * @param file    The file.
+     * @param rowData Looks up the data associated with each row, by index.
+     * @param <T>     The type of the data associated with each row.
+     * @return The matrix.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static <T> OffHeapMatrix<T> open(Path file, IntFunction<? extends T> rowData) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new OffHeapMatrix<>(channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size()), rowData);
+        }
+    }
+
+    /**
+     * Builds a matrix one row at a time, so that the rows never have to be on the heap all at once.
+     */
+    public static final class Builder {
+        private final int itemCount;
+        private final int nodesOffset; // in ints
+        private final @Nullable FileChannel channel;
+        private ByteBuffer buffer;
+        private IntBuffer ints;
+        private int nodeCount;
+        private int rowCount = 0;
+        private int lastSpacer;
+
+        /**
+         * Start building a matrix in a direct buffer.
+         *
+         * @param columnCount    The number of columns.
+         * @param multiplicities How many rows must cover each column, or {@code null} for exactly one each.
+         */
+        public Builder(int columnCount, int @Nullable [] multiplicities) {
+            this(columnCount, multiplicities, null);
+        }
+
+        /**
+         * Start building a matrix.
+         *
+         * @param columnCount    The number of columns.
+         * @param multiplicities How many rows must cover each column, or {@code null} for exactly one each.
+         * @param file           A file to build the matrix in, which {@link #open} can map again later, or
+         *                       {@code null} to build it in a direct buffer. An existing file is overwritten.
+         * @throws UncheckedIOException If the file cannot be created.
+         */
+        public Builder(int columnCount, int @Nullable [] multiplicities, @Nullable Path file) {
+            if (multiplicities != null && multiplicities.length != columnCount) {
+                throw new IllegalArgumentException("every column needs a multiplicity");
+            }
+            this.itemCount = columnCount;
+            this.nodesOffset = HEADER + ITEM_INTS * (columnCount + 1);
+            try {
+                this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.allocate(this.nodesOffset + (long) NODE_INTS * (2L * columnCount + 64));
+
+            // the header row: the root and one item per column, in a circle
+            for (int i = 0; i <= columnCount; i++) {
+                this.item(i, LLINK, i == 0 ? columnCount : i - 1);
+                this.item(i, RLINK, i == columnCount ? 0 : i + 1);
+                this.item(i, LEN, 0);
+                this.item(i, BOUND, i == 0 ? 0 : multiplicities == null ? 1 : multiplicities[i - 1]);
+                if (i > 0 && this.ints.get(HEADER + ITEM_INTS * i + BOUND) <= 0) {
+                    throw new IllegalArgumentException("multiplicities must be positive");
+                }
+            }
+            // node 0 is unused, nodes 1 to N head the columns, and the first spacer follows
+            for (int i = 1; i <= columnCount; i++) {
+                this.node(i, TOP, 0);
+                this.node(i, ULINK, i);
+                this.node(i, DLINK, i);
+            }
+            this.lastSpacer = columnCount + 1;
+            this.node(this.lastSpacer, TOP, 0);
+            this.node(this.lastSpacer, ULINK, 0);
+            this.node(this.lastSpacer, DLINK, 0);
+            this.nodeCount = columnCount + 2;
+        }
+
+        private void allocate(long capacityInts) {
+            if (capacityInts > MAX_INTS) {
+                throw new IllegalStateException("matrix needs " + capacityInts + " ints, more than the " + MAX_INTS
+                        + " that fit in one buffer");
+            }
+            final long bytes = (long) Integer.BYTES * capacityInts;
+            ByteBuffer grown;
+            if (this.channel != null) {
+                try {
+                    // mapping a larger region extends the file, and keeps what is already written
+                    grown = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                grown = ByteBuffer.allocateDirect((int) bytes);
+                if (this.buffer != null) {
+                    grown.put(this.buffer.clear());
+                    grown.clear();
+                }
+            }
+            this.buffer = grown.order(ByteOrder.nativeOrder());
+            this.ints = this.buffer.asIntBuffer();
+        }
+
+        private void item(int i, int field, int value) {
+            this.ints.put(HEADER + ITEM_INTS * i + field, value);
+        }
+
+        private void node(int x, int field, int value) {
+            this.ints.put(this.nodesOffset + NODE_INTS * x + field, value);
+        }
+
+        private int node(int x, int field) {
+            return this.ints.get(this.nodesOffset + NODE_INTS * x + field);
+        }
+
+        /**
+         * Append a row.
+         *
+         * @param columns The columns of the row, from 0 (inclusive) to the column count (exclusive), each at most
+         *                once.
+         * @return The index of the row.
+         */
+        public int addRow(int... columns) {
+            if (columns.length == 0) {
+                throw new IllegalArgumentException("rows must not be empty");
+            }
+            final long needed = this.nodesOffset + (long) NODE_INTS * (this.nodeCount + columns.length + 1L);
+            if (needed > this.ints.capacity()) {
+                // double, but only up to the limit, where allocate() fails if even that is too small
+                this.allocate(Math.max(needed, Math.min(MAX_INTS, 2L * this.ints.capacity())));
+            }
+
+            final int first = this.nodeCount;
+            for (int column : columns) {
+                if (column < 0 || column >= this.itemCount) {
+                    throw new IllegalArgumentException("column index out of range: " + column);
+                }
+                // append to the bottom of the column's list
+                final int item = column + 1;
+                final int x = this.nodeCount++;
+                final int last = this.node(item, ULINK);
+                this.node(x, TOP, item);
+                this.node(x, ULINK, last);
+                this.node(x, DLINK, item);
+                this.node(last, DLINK, x);
+                this.node(item, ULINK, x);
+                final int len = HEADER + ITEM_INTS * item + LEN;
+                this.ints.put(len, this.ints.get(len) + 1);
+            }
+
+            final int spacer = this.nodeCount++;
+            this.node(this.lastSpacer, DLINK, spacer - 1);
+            this.node(spacer, TOP, -(this.rowCount + 1));
+            this.node(spacer, ULINK, first);
+            this.node(spacer, DLINK, 0);
+            this.lastSpacer = spacer;
+            return this.rowCount++;
+        }
+
+        /**
+         * Finish building. The builder must not be used afterwards.
+         *
+         * @param rowData Looks up the data associated with each row, by index.
+         * @param <T>     The type of the data associated with each row.
+         * @return The matrix.
+         */
+        public <T> OffHeapMatrix<T> build(IntFunction<? extends T> rowData) {
+            this.ints.put(0, MAGIC);
+            this.ints.put(1, this.itemCount);
+            this.ints.put(2, this.nodeCount);
+            this.ints.put(3, this.rowCount);
+            if (this.channel == null) {
+                return new OffHeapMatrix<>(this.buffer, rowData);
+            }
+            try (FileChannel channel = this.channel) {
+                ((MappedByteBuffer) this.buffer).force();
+                channel.truncate(4L * (this.nodesOffset + NODE_INTS * this.nodeCount));
+                // search a private mapping, so that the file stays intact even if a search is abandoned
+                return new OffHeapMatrix<>(channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size()), rowData);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public T getRowData(int index) {
+        Objects.checkIndex(index, this.rowCount);
+        return this.rowData.apply(index);
+    }
+
+    @Override
+    public boolean isBudgetExhausted() {
+        return this.budgetExhausted;
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return this.nodesVisited;
+    }
+
+    @Override
+    public long getUpdates() {
+        return this.updates;
+    }
+
+    @Override
+    public void visit(long nodeBudget, SolutionVisitor visitor) {
+        this.visitor = Objects.requireNonNull(visitor);
+        this.stopped = false;
+        this.nodeBudget = nodeBudget;
+        this.nodesVisited = 0;
+        this.nodesReported = 0;
+        this.updates = 0;
+        this.budgetExhausted = false;
+
+        if (this.metrics != null) {
+            this.metrics.searchStarted();
+        }
+        try {
+            this.searchAtDepth(0);
+        } finally {
+            if (this.metrics != null) {
+                this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+                this.nodesReported = this.nodesVisited;
+                this.metrics.searchFinished(!this.shouldStop());
+            }
+            this.visitor = null;
+        }
+    }
+
+    private boolean shouldStop() {
+        return this.budgetExhausted || this.stopped;
+    }
+
+    // field accessors; items and nodes are both addressed by index, as in Knuth's arrays
+
+    private int item(int i, int field) {
+        return this.items.get(ITEM_INTS * i + field);
+    }
+
+    private void item(int i, int field, int value) {
+        this.items.put(ITEM_INTS * i + field, value);
+    }
+
+    private int node(int x, int field) {
+        return this.nodes.get(NODE_INTS * x + field);
+    }
+
+    private void node(int x, int field, int value) {
+        this.nodes.put(NODE_INTS * x + field, value);
+    }
+
+    private int rowOf(int x) {
+        while (this.node(x, TOP) > 0) {
+            x++;
+        }
+        return -this.node(x, TOP) - 1;
+    }
+
+    // the node after x in its row, wrapping around at the spacer
+    private int right(int x) {
+        x++;
+        return this.node(x, TOP) <= 0 ? this.node(x, ULINK) : x;
+    }
+
+    // the node before x in its row, wrapping around at the spacer
+    private int left(int x) {
+        x--;
+        return this.node(x, TOP) <= 0 ? this.node(x, DLINK) : x;
+    }
+
+    private void searchAtDepth(int k) {
+        ++this.nodesVisited;
+        if (this.nodeBudget >= 0 && this.nodesVisited > this.nodeBudget) {
+            this.budgetExhausted = true;
+            return;
+        }
+        if (this.metrics != null && (this.nodesVisited & ((1 << 12) - 1)) == 0) {
+            this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+            this.nodesReported = this.nodesVisited;
+        }
+        if (this.item(0, RLINK) == 0) {
+            if (this.metrics != null) {
+                this.metrics.addSolution();
+            }
+            this.stopped = !this.visitor.visit(this.rowIndices, k);
+            return;
+        }
+        if (k == this.rowIndices.length) {
+            this.rowIndices = Arrays.copyOf(this.rowIndices, 2 * k);
+        }
+
+        final int item = this.chooseItem();
+        if (this.item(item, BOUND) > 1) {
+            this.searchMultiplicity(item, k);
+            return;
+        }
+        this.cover(item);
+
+        for (int x = this.node(item, DLINK); x != item; x = this.node(x, DLINK)) {
+            this.rowIndices[k] = this.rowOf(x);
+            for (int q = this.right(x); q != x; q = this.right(q)) {
+                final int other = this.node(q, TOP);
+                final int bound = this.item(other, BOUND) - 1;
+                this.item(other, BOUND, bound);
+                if (bound == 0) {
+                    this.cover(other);
+                }
+            }
+
+            this.searchAtDepth(k + 1);
+
+            for (int q = this.left(x); q != x; q = this.left(q)) {
+                final int other = this.node(q, TOP);
+                final int bound = this.item(other, BOUND);
+                this.item(other, BOUND, bound + 1);
+                if (bound == 0) {
+                    this.uncover(other);
+                }
+            }
+            if (this.shouldStop()) {
+                break;
+            }
+        }
+
+        this.uncover(item);
+    }
+
+    // as in Root: either the first remaining row of the item is in the solution, or it is not
+    private void searchMultiplicity(int item, int k) {
+        if (this.item(item, LEN) < this.item(item, BOUND)) {
+            return;
+        }
+        final int first = this.node(item, DLINK);
+        this.rowIndices[k] = this.rowOf(first);
+
+        this.hideRow(first);
+        int x = first;
+        do {
+            final int other = this.node(x, TOP);
+            final int bound = this.item(other, BOUND) - 1;
+            this.item(other, BOUND, bound);
+            if (bound == 0) {
+                this.cover(other);
+            }
+            x = this.right(x);
+        } while (x != first);
+        this.searchAtDepth(k + 1);
+        x = this.left(first);
+        final int last = x;
+        do {
+            final int other = this.node(x, TOP);
+            final int bound = this.item(other, BOUND);
+            this.item(other, BOUND, bound + 1);
+            if (bound == 0) {
+                this.uncover(other);
+            }
+            x = this.left(x);
+        } while (x != last);
+        this.unhideRow(first);
+        if (this.shouldStop()) {
+            return;
+        }
+
+        this.hideRow(first);
+        this.searchAtDepth(k);
+        this.unhideRow(first);
+    }
+
+    private int chooseItem() {
+        // fewest ways to satisfy the item, as in Root#chooseColumn
+        int out = 0;
+        int minSize = Integer.MAX_VALUE;
+        for (int i = this.item(0, RLINK); i != 0; i = this.item(i, RLINK)) {
+            final int size = this.item(i, LEN) - this.item(i, BOUND) + 1;
+            if (size <= minSize) {
+                out = i;
+                minSize = size;
+            }
+        }
+        return out;
+    }
+
+    private void cover(int item) {
+        for (int p = this.node(item, DLINK); p != item; p = this.node(p, DLINK)) {
+            for (int q = this.right(p); q != p; q = this.right(q)) {
+                this.unlink(q);
+            }
+        }
+        final int l = this.item(item, LLINK);
+        final int r = this.item(item, RLINK);
+        this.item(l, RLINK, r);
+        this.item(r, LLINK, l);
+    }
+
+    private void uncover(int item) {
+        final int l = this.item(item, LLINK);
+        final int r = this.item(item, RLINK);
+        this.item(l, RLINK, item);
+        this.item(r, LLINK, item);
+        for (int p = this.node(item, ULINK); p != item; p = this.node(p, ULINK)) {
+            for (int q = this.left(p); q != p; q = this.left(q)) {
+                this.relink(q);
+            }
+        }
+    }
+
+    private void hideRow(int x) {
+        int q = x;
+        do {
+            this.unlink(q);
+            q = this.right(q);
+        } while (q != x);
+    }
+
+    private void unhideRow(int x) {
+        int q = this.left(x);
+        final int last = q;
+        do {
+            this.relink(q);
+            q = this.left(q);
+        } while (q != last);
+    }
+
+    private void unlink(int x) {
+        final int u = this.node(x, ULINK);
+        final int d = this.node(x, DLINK);
+        this.node(u, DLINK, d);
+        this.node(d, ULINK, u);
+        final int item = this.node(x, TOP);
+        this.item(item, LEN, this.item(item, LEN) - 1);
+        this.updates++;
+    }
+
+    private void relink(int x) {
+        final int u = this.node(x, ULINK);
+        final int d = this.node(x, DLINK);
+        this.node(u, DLINK, x);
+        this.node(d, ULINK, x);
+        final int item = this.node(x, TOP);
+        this.item(item, LEN, this.item(item, LEN) + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapMatrix (" + this.itemCount + " columns, " + this.rowCount + " rows)";
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+
+/**
+ * Finds every offset at which a shape fits on a board, testing a whole row of offsets at once instead of one square
+ * at a time. The empty squares of each row of the board are packed into a {@code long}, bit {@code x} for column
+ * {@code x}; a shape fits with its top left corner at {@code (x, y)} if, for each of its squares {@code (j, i)},
+ * bit {@code x + j} of row {@code y + i} is set. Shifting row {@code y + i} right by {@code j} lines that bit up
+ * with bit {@code x}, so ANDing the shifted rows, one per square of the shape, leaves the set of offsets {@code x}
+ * where the shape fits in row {@code y}.
+ * <p>
+ * When the {@code jdk.incubator.vector} module is available (e.g. with {@code --add-modules jdk.incubator.vector}),
+ * {@link VectorPlacementFilter} also tests several rows at once, one per vector lane; otherwise, or for the rows
+ * left over, the rows are tested one by one.
+ */
+final class PlacementFilter {
+    /**
+     * The widest board the filter handles: one row per {@code long}.
+     */
+    static final int MAX_WIDTH = Long.SIZE;
+
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && VectorPlacementFilter.LANES > 1;
+
+    private PlacementFilter() {
+    }
+
+    /**
+     * Pack the empty squares of a board.
+     *
+     * @param board The board, at most {@link #MAX_WIDTH} squares wide.
+     * @return For each row, the empty squares in it, bit {@code x} for column {@code x}.
+     */
+    static long[] emptyRows(Board board) {
+        if (board.getWidth() > MAX_WIDTH) {
+            throw new IllegalArgumentException("board is wider than " + MAX_WIDTH + " squares");
+        }
+        long[] out = new long[board.getHeight()];
+        for (int y = 0; y < board.getHeight(); y++) {
+            for (int x = 0; x < board.getWidth(); x++) {
+                if (!board.isFilled(x, y)) {
+                    out[y] |= 1L << x;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Find every offset at which a shape fits.
+     *
+     * @param emptyRows The packed board, from {@link #emptyRows}.
+     * @param width     The width of the board.
+     * @param shape     Boolean matrix representing the shape, e.g. a rotated pentomino.
+     * @return For each row {@code y} of the board, the offsets {@code x} such that the shape fits with its top left
+     * corner at {@code (x, y)}, bit {@code x} for offset {@code x}.
+     */
+    static long[] offsets(long[] emptyRows, int width, boolean[][] shape) {
+        final int height = emptyRows.length;
+        final int shapeHeight = shape.length;
+        final int shapeWidth = shape[0].length;
+        long[] out = new long[height];
+        if (shapeWidth > width || shapeHeight > height) {
+            return out;
+        }
+
+        int cellCount = 0;
+        for (boolean[] row : shape) {
+            for (boolean cell : row) {
+                cellCount += cell ? 1 : 0;
+            }
+        }
+        int[] cellRows = new int[cellCount];
+        int[] cellColumns = new int[cellCount];
+        int k = 0;
+        for (int i = 0; i < shapeHeight; i++) {
+            for (int j = 0; j < shapeWidth; j++) {
+                if (shape[i][j]) {
+                    cellRows[k] = i;
+                    cellColumns[k++] = j;
+                }
+            }
+        }
+
+        // the shape must not stick out on the right, and can only start in the rows where it does not stick out below
+        final long inBounds = -1L >>> (Long.SIZE - (width - shapeWidth + 1));
+        final int anchors = height - shapeHeight + 1;
+        int y = 0;
+        if (VECTORIZED) {
+            y = VectorPlacementFilter.offsets(emptyRows, cellRows, cellColumns, inBounds, anchors, out);
+        }
+        for (; y < anchors; y++) {
+            long fits = inBounds;
+            for (int c = 0; c < cellCount; c++) {
+                fits &= emptyRows[y + cellRows[c]] >>> cellColumns[c];
+            }
+            out[y] = fits;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,163 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.*;
+import com.github.a2435191.solvers.PentominoPuzzleSolver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Every placement of a set of pieces on a board, together with the grid squares each one covers.
+ * Computing the placements is the expensive part of building an exact cover matrix, so one table can be
+ * shared by boards that only differ by having more filled squares: see
+ * {@link DancingLinksPentominoPuzzleSolver#createRoot(Pentomino[], Board, PlacementTable)}.
+ * <p>
+ * Instances are immutable, and can be shared between threads.
+ */
+public final class PlacementTable {
+    private final int width;
+    private final int height;
+    private final List<Placement> placements;
+    private final int[][] cells; // row-major cell indices (y * width + x) covered by each placement
+
+    private PlacementTable(int width, int height, List<Placement> placements, int[][] cells) {
+        this.width = width;
+        this.height = height;
+        this.placements = Collections.unmodifiableList(placements);
+        this.cells = cells;
+    }
+
+    /**
+     * Compute every placement of some pieces on a board. On boards up to {@link PlacementFilter#MAX_WIDTH} squares
+     * wide, a {@link PlacementFilter} tests a whole row of positions at once.
+     *
+     * @param pieces Pentominos to place. Repeated pentominos are only placed once.
+     * @param board  The puzzle space.
+     * @return A table of all placements that fit on {@code board}.
+     */
+    public static PlacementTable compute(Pentomino[] pieces, Board board) {
+        final int height = board.getHeight();
+        final int width = board.getWidth();
+        final long[] emptyRows = width <= PlacementFilter.MAX_WIDTH ? PlacementFilter.emptyRows(board) : null;
+        List<Placement> placements = new ArrayList<>();
+        List<int[]> cells = new ArrayList<>();
+
+        for (Pentomino p : new LinkedHashSet<>(Arrays.asList(pieces))) {
+            for (var equivalentTransform : p.equivalentTransforms.entrySet()) {
+                boolean[][] rotated = equivalentTransform.getKey();
+                Transformation transform = equivalentTransform.getValue()[0];
+
+                long[] offsets = emptyRows != null ? PlacementFilter.offsets(emptyRows, width, rotated) : null;
+                int[] relative = covered(rotated, p.area, width);
+                for (int y = 0; y < height; y++) {
+                    if (offsets != null) {
+                        for (long fits = offsets[y]; fits != 0; fits &= fits - 1) {
+                            final int x = Long.numberOfTrailingZeros(fits);
+                            placements.add(new Placement(p, new TransformationAndCoordinate(transform,
+                                    new Coordinate(x, y))));
+                            cells.add(translated(relative, y * width + x));
+                        }
+                        continue;
+                    }
+                    for (int x = 0; x < width; x++) {
+                        Coordinate coord = new Coordinate(x, y);
+                        if (PentominoPuzzleSolver.canFit(rotated, coord, board)) {
+                            placements.add(new Placement(p, new TransformationAndCoordinate(transform, coord)));
+                            cells.add(translated(relative, y * width + x));
+                        }
+                    }
+                }
+            }
+        }
+
+        return new PlacementTable(width, height, placements, cells.toArray(new int[0][]));
+    }
+
+    private static int[] translated(int[] cells, int offset) {
+        int[] out = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            out[i] = cells[i] + offset;
+        }
+        return out;
+    }
+
+    // the row-major cell indices covered by a shape with its top left corner at (0, 0)
+    private static int[] covered(boolean[][] shape, int area, int width) {
+        int[] out = new int[area];
+        int idx = 0;
+        for (int i = 0; i < shape.length; i++) {
+            for (int j = 0; j < shape[0].length; j++) {
+                if (shape[i][j]) {
+                    out[idx++] = i * width + j;
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Get the width of the board this table was computed for.
+     *
+     * @return The width, in grid squares.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Get the height of the board this table was computed for.
+     *
+     * @return The height, in grid squares.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Get the number of placements.
+     *
+     * @return The number of placements in the table.
+     */
+    public int size() {
+        return this.placements.size();
+    }
+
+    /**
+     * Get a placement.
+     *
+     * @param index Index of the placement.
+     * @return The placement.
+     */
+    public Placement getPlacement(int index) {
+        return this.placements.get(index);
+    }
+
+    /**
+     * Get the grid squares covered by a placement.
+     *
+     * @param index Index of the placement.
+     * @return The row-major cell indices ({@code y * width + x}) covered. Must not be modified.
+     */
+    int[] getCells(int index) {
+        return this.cells[index];
+    }
+
+    /**
+     * Check whether a placement still fits on a board with possibly more filled squares.
+     *
+     * @param index Index of the placement.
+     * @param board Board with the same dimensions as the one this table was computed for.
+     * @return {@code true} if every square covered by the placement is empty on {@code board}.
+     */
+    public boolean fits(int index, Board board) {
+        for (int cell : this.cells[index]) {
+            if (board.isFilled(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Dancing links with randomized restarts for single-solution queries. Each attempt shuffles the order of the
+ * rows within each column and searches with a limited number of nodes; the budget grows following the
+ * <a href="https://doi.org/10.1016/0020-0190(93)90029-9">Luby sequence</a> (1, 1, 2, 1, 1, 2, 4, ...), so
+ * an unlucky row order is abandoned quickly while completeness is kept: eventually the budget is large enough
+ * for an exhaustive search.
+ * <p>
+ * Enumerating several solutions is not affected, and works exactly as in {@link DancingLinksPentominoPuzzleSolver}.
+ */
+public class RestartingDancingLinksPentominoPuzzleSolver extends DancingLinksPentominoPuzzleSolver {
+    private final long seed;
+    private final long baseNodeBudget;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param seed           Seed for shuffling the rows, so that runs are reproducible.
+     * @param baseNodeBudget Number of search tree nodes that one unit of the Luby sequence stands for.
+     */
+    public RestartingDancingLinksPentominoPuzzleSolver(long seed, long baseNodeBudget) {
+        if (baseNodeBudget <= 0) {
+            throw new IllegalArgumentException("baseNodeBudget must be positive");
+        }
+        this.seed = seed;
+        this.baseNodeBudget = baseNodeBudget;
+    }
+
+    public RestartingDancingLinksPentominoPuzzleSolver(long seed) {
+        this(seed, 1000);
+    }
+
+    /**
+     * Compute the {@code i}th term of the Luby sequence.
+     *
+     * @param i One-based index into the sequence.
+     * @return 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ... for {@code i} = 1, 2, 3, ...
+     */
+    public static long luby(long i) {
+        if (i <= 0) {
+            throw new IllegalArgumentException("i must be positive");
+        }
+        // find k such that 2^(k-1) <= i < 2^k
+        while (true) {
+            int k = 64 - Long.numberOfLeadingZeros(i);
+            if (i == (1L << k) - 1) {
+                return 1L << (k - 1);
+            }
+            i -= (1L << (k - 1)) - 1;
+        }
+    }
+
+    @Override
+    public @Nullable Solution solve(Pentomino[] pieces, Board board) {
+        Root<Placement> root = this.createRoot(pieces, board);
+        Random random = new Random(this.seed);
+
+        for (long attempt = 1; ; attempt++) {
+            long units = luby(attempt);
+            long budget = units > Long.MAX_VALUE / this.baseNodeBudget
+                    ? -1 // would overflow, so search exhaustively
+                    : units * this.baseNodeBudget;
+            root.shuffleRows(random);
+
+            List<Set<Placement>> found = root.search(1, budget);
+            if (!found.isEmpty()) {
+                return toSolution(found.get(0));
+            }
+            if (!root.isBudgetExhausted()) {
+                return null; // searched the whole tree, so there is no solution
+            }
+        }
+    }
+}
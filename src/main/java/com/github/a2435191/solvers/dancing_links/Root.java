@@ -1,10 +1,16 @@
 package com.github.a2435191.solvers.dancing_links;
 
+import com.github.a2435191.solvers.SearchMetrics;
+import org.jetbrains.annotations.Nullable;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The "root object," taken almost directly from
@@ -13,16 +19,41 @@ import java.util.stream.Collectors;
  * @param <T> The type of the additional data associated with each row.
  *            Unused here, since this class is in the header row.
  */
-public final class Root<T> extends Column<T> {
+public final class Root<T> extends Column<T> implements ExactCover<T> {
+    private static final int REPORT_INTERVAL = 1 << 12; // nodes between updates of the metrics; a power of 2
+    private static final int PROGRESS_LEVELS = 4;
 
-    private final ArrayList<Data<T>> dataList = new ArrayList<>();
-    private final List<Set<T>> solutions = new ArrayList<>();
+    private final List<Data<T>> rows = new ArrayList<>(); // first data object of each row
+    private int[] rowIndices = new int[16]; // row of each depth of the current partial solution
+    private SolutionVisitor visitor;
+    private boolean stopped = false;
+    private long nodeBudget = -1;
+    private long nodesVisited = 0;
+    private long updates = 0;
+    private long nodesReported = 0;
+    private boolean budgetExhausted = false;
+    private int fixedDepth = 0;
+    // index and count of the branches taken at the first PROGRESS_LEVELS levels below the fixed rows
+    private final int[] branchIndex = new int[PROGRESS_LEVELS];
+    private final int[] branchCount = new int[PROGRESS_LEVELS];
     /**
      * If {@code true}, choose columns by the lowest {@link Column#getSize()}.
      * Otherwise, just choose the first column to the right of the root.
      */
     public boolean useShortestColumnAsHeuristic = true;
 
+    /**
+     * If not {@code null}, searches report their progress here. Node counts are reported in batches, so the
+     * overhead on the search is negligible.
+     */
+    public @Nullable SearchMetrics metrics = null;
+
+    /**
+     * If not {@code null}, searches record each of their steps here. When {@code null}, the only overhead on the
+     * search is a check of this field per step.
+     */
+    public @Nullable SearchTrace trace = null;
+
     public Root(Column<T> left, Column<T> right) {
         super(null, left, right, null, null);
     }
@@ -39,45 +70,117 @@ public final class Root<T> extends Column<T> {
      *                              Therefore, {@code choices.length == associatedRowDataList.size()} must hold.
      */
     public Root(boolean[][] choices, String[] columnNames, List<T> associatedRowDataList) {
+        this(toColumnIndices(choices), columnNames, associatedRowDataList);
+    }
+
+    /**
+     * Construct a new instance from a sparse matrix, which is much smaller than a {@code boolean[][]} when there
+     * are many rows and columns but each row has only a few 1s.
+     *
+     * @param rowColumns            For each row, the distinct indices of the columns it satisfies.
+     *                              Every row must satisfy at least one column.
+     * @param columnNames           Names to use for the columns. Helpful for debugging.
+     * @param associatedRowDataList Each element is associated with its corresponding row.
+     *                              Therefore, {@code rowColumns.length == associatedRowDataList.size()} must hold.
+     */
+    public Root(int[][] rowColumns, String[] columnNames, List<T> associatedRowDataList) {
+        this(rowColumns, columnNames, null, associatedRowDataList);
+    }
+
+    /**
+     * Construct a new instance from a sparse matrix, where some columns must be satisfied more than once, as in
+     * Knuth's Algorithm M. Choosing the rows of such a column in a different order gives the same solution, so
+     * they are chosen by including or excluding one row at a time, and each solution is found exactly once.
+     *
+     * @param rowColumns            For each row, the distinct indices of the columns it satisfies.
+     *                              Every row must satisfy at least one column.
+     * @param columnNames           Names to use for the columns. Helpful for debugging.
+     * @param multiplicities        For each column, the number of rows of every solution that satisfy it, at least 1.
+     *                              {@code null} means 1 for every column, i.e. ordinary exact cover.
+     * @param associatedRowDataList Each element is associated with its corresponding row.
+     *                              Therefore, {@code rowColumns.length == associatedRowDataList.size()} must hold.
+     */
+    public Root(int[][] rowColumns, String[] columnNames, int @Nullable [] multiplicities,
+                List<T> associatedRowDataList) {
+        this(rowColumns, columnNames, multiplicities, null, associatedRowDataList);
+    }
+
+    /**
+     * Construct a new instance from a sparse matrix with multiplicities, where some columns are secondary, as in
+     * Knuth's Algorithm M: a secondary column is satisfied by at most its multiplicity of rows, possibly none,
+     * instead of exactly that many. The search never branches on a secondary column; once enough of its rows are
+     * chosen, it is covered like any other, which rules out the rest.
+     *
+     * @param rowColumns            For each row, the distinct indices of the columns it satisfies.
+     *                              Every row must satisfy at least one column.
+     * @param columnNames           Names to use for the columns. Helpful for debugging.
+     * @param multiplicities        For each column, the number of rows of every solution that satisfy it, or the
+     *                              most that may for a secondary column, at least 1. {@code null} means 1 for every
+     *                              column.
+     * @param secondary             For each column, whether it is secondary. {@code null} means none are.
+     * @param associatedRowDataList Each element is associated with its corresponding row.
+     *                              Therefore, {@code rowColumns.length == associatedRowDataList.size()} must hold.
+     */
+    public Root(int[][] rowColumns, String[] columnNames, int @Nullable [] multiplicities,
+                boolean @Nullable [] secondary, List<T> associatedRowDataList) {
         this(null, null);
+        if (multiplicities != null && multiplicities.length != columnNames.length) {
+            throw new IllegalArgumentException("need one multiplicity per column");
+        }
+        if (secondary != null && secondary.length != columnNames.length) {
+            throw new IllegalArgumentException("need to know for every column whether it is secondary");
+        }
 
         List<Column<T>> headers = new ArrayList<>();
         Column<T> header = this;
         for (String name : columnNames) {
-            Column<T> nextHeader = new Column<>(name, header, null, null, null);
-            header.right = nextHeader;
-
-            header = nextHeader;
+            Column<T> nextHeader = new Column<>(name, null, null, null, null);
+            nextHeader.index = headers.size();
+            if (multiplicities != null) {
+                if (multiplicities[nextHeader.index] < 1) {
+                    throw new IllegalArgumentException("multiplicities must be positive");
+                }
+                nextHeader.bound = multiplicities[nextHeader.index];
+            }
+            headers.add(nextHeader);
 
-            headers.add(header);
+            if (secondary != null && secondary[nextHeader.index]) {
+                // linked only to itself, so that covering and uncovering it leaves the header row alone
+                nextHeader.secondary = true;
+                nextHeader.left = nextHeader;
+                nextHeader.right = nextHeader;
+            } else {
+                nextHeader.left = header;
+                header.right = nextHeader;
+                header = nextHeader;
+            }
         }
 
         header.right = this;
         this.left = header;
 
         List<Data<T>> lastDataAtEachIndex = new ArrayList<>(headers);
-        for (int i = 0; i < choices.length; i++) {
-            boolean[] row = choices[i];
+        for (int i = 0; i < rowColumns.length; i++) {
             T rowData = associatedRowDataList.get(i);
 
             final Data<T> dummy = new Data<>(null, null, null, null, null, null);
             Data<T> prevInRow = dummy;
-            for (int j = 0; j < row.length; j++) {
-                if (row[j]) {
-                    Data<T> data = new Data<>(prevInRow, null, lastDataAtEachIndex.get(j), null, headers.get(j), rowData);
-                    prevInRow.right = data;
-                    lastDataAtEachIndex.get(j).down = data;
+            for (int j : rowColumns[i]) {
+                Data<T> data = new Data<>(prevInRow, null, lastDataAtEachIndex.get(j), null, headers.get(j), rowData);
+                data.rowIndex = i;
+                prevInRow.right = data;
+                lastDataAtEachIndex.get(j).down = data;
 
 
-                    lastDataAtEachIndex.set(j, data);
-                    prevInRow = data;
-                }
+                lastDataAtEachIndex.set(j, data);
+                prevInRow = data;
             }
 
             // create wraparound links
             Data<T> firstInRow = dummy.right;
             prevInRow.right = firstInRow;
             firstInRow.left = prevInRow;
+            this.rows.add(firstInRow);
         }
 
         for (int i = 0; i < headers.size(); i++) {
@@ -89,6 +192,27 @@ public final class Root<T> extends Column<T> {
         }
     }
 
+    private static int[][] toColumnIndices(boolean[][] choices) {
+        int[][] out = new int[choices.length][];
+        for (int i = 0; i < choices.length; i++) {
+            boolean[] row = choices[i];
+            int count = 0;
+            for (boolean b : row) {
+                if (b) {
+                    count++;
+                }
+            }
+            out[i] = new int[count];
+            count = 0;
+            for (int j = 0; j < row.length; j++) {
+                if (row[j]) {
+                    out[i][count++] = j;
+                }
+            }
+        }
+        return out;
+    }
+
     /**
      * Create a default instance, where the {@code associatedRowDataList} is just the integer index.
      *
@@ -106,48 +230,271 @@ public final class Root<T> extends Column<T> {
         return new Root<>(choices, columnNames, index);
     }
 
-    private void search(int k) {
-        //System.out.println(k);
+    /**
+     * Get the number of rows in the matrix.
+     *
+     * @return The number of rows this instance was constructed with.
+     */
+    @Override
+    public int getRowCount() {
+        return this.rows.size();
+    }
+
+    /**
+     * Get a row of the matrix.
+     *
+     * @param index The index of the row, as in {@link Data#getRowIndex()}.
+     * @return The first data object of the row. The others can be reached by following {@link Data#right}.
+     */
+    public Data<T> getRow(int index) {
+        return this.rows.get(index);
+    }
+
+    /**
+     * Get the data associated with a row of the matrix.
+     *
+     * @param index The index of the row, as in {@link Data#getRowIndex()}.
+     * @return The {@link Data#getAssociatedRowData()} of the row.
+     */
+    @Override
+    public T getRowData(int index) {
+        return this.rows.get(index).getAssociatedRowData();
+    }
+
+    private boolean shouldStop() {
+        return this.budgetExhausted || this.stopped;
+    }
+
+    private void searchAtDepth(int k) {
+        ++this.nodesVisited;
+        if (this.nodeBudget >= 0 && this.nodesVisited > this.nodeBudget) {
+            this.budgetExhausted = true;
+            return;
+        }
+        if (this.metrics != null && (this.nodesVisited & (REPORT_INTERVAL - 1)) == 0) {
+            this.reportMetrics(k);
+        }
         if (this.right == this) {
-            this.solutions.add(this.getCurrentSolution());
+            if (this.metrics != null) {
+                this.metrics.addSolution();
+            }
+            if (this.trace != null) {
+                this.trace.record(SearchTrace.EventType.SOLUTION, k, 0);
+            }
+            this.stopped = !this.visitor.visit(this.rowIndices, k);
             return;
         }
+        if (k == this.rowIndices.length) {
+            this.rowIndices = Arrays.copyOf(this.rowIndices, 2 * k);
+        }
 
         Column<T> column = this.chooseColumn();
-        column.cover();
+        if (this.trace != null) {
+            this.trace.record(SearchTrace.EventType.CHOOSE_COLUMN, k, column.index);
+        }
+        final int level = k - this.fixedDepth;
+        if (column.bound > 1) {
+            this.searchMultiplicity(column, k, level);
+            return;
+        }
+        if (level < PROGRESS_LEVELS) {
+            this.branchCount[level] = column.getSize();
+            this.branchIndex[level] = 0;
+        }
+        this.updates += column.cover();
 
         for (Data<T> verticalNeighbor = column.down;
              verticalNeighbor != column;
              verticalNeighbor = verticalNeighbor.down) {
-            if (k < this.dataList.size()) {
-                this.dataList.set(k, verticalNeighbor);
-            } else if (k == this.dataList.size()) {
-                this.dataList.add(verticalNeighbor);
-            } else {
-                throw new RuntimeException("index too large");
+            this.rowIndices[k] = verticalNeighbor.rowIndex;
+            if (this.trace != null) {
+                this.trace.record(SearchTrace.EventType.TRY_ROW, k, verticalNeighbor.rowIndex);
             }
 
+            // a column that must be satisfied again only counts down; the row already left it with `column`
             for (Data<T> horizontalNeighbor = verticalNeighbor.right;
                  horizontalNeighbor != verticalNeighbor;
                  horizontalNeighbor = horizontalNeighbor.right) {
-                horizontalNeighbor.column.cover();
+                if (--horizontalNeighbor.column.bound == 0) {
+                    this.updates += horizontalNeighbor.column.cover();
+                }
             }
 
-            this.search(k + 1);
-
-            verticalNeighbor = this.dataList.get(k);
-            column = verticalNeighbor.column;
+            this.searchAtDepth(k + 1);
 
             for (Data<T> horizontalNeighbor = verticalNeighbor.left;
                  horizontalNeighbor != verticalNeighbor;
                  horizontalNeighbor = horizontalNeighbor.left) {
-                horizontalNeighbor.column.uncover();
+                if (horizontalNeighbor.column.bound++ == 0) {
+                    horizontalNeighbor.column.uncover();
+                }
+            }
+            if (this.trace != null) {
+                this.trace.record(SearchTrace.EventType.BACKTRACK, k, verticalNeighbor.rowIndex);
+            }
+
+            if (this.shouldStop()) {
+                break;
+            }
+            if (level < PROGRESS_LEVELS) {
+                this.branchIndex[level]++;
+            }
+        }
+
+        column.uncover();
+    }
+
+    // branch on a column that must be satisfied several more times: either its first remaining row is in the
+    // solution, or it is not, so each combination of its rows is tried once rather than in every order
+    private void searchMultiplicity(Column<T> column, int k, int level) {
+        if (column.getSize() < column.bound) {
+            return;
+        }
+        if (level < PROGRESS_LEVELS) {
+            this.branchCount[level] = 2;
+            this.branchIndex[level] = 0;
+        }
+
+        Data<T> first = column.down;
+        this.rowIndices[k] = first.rowIndex;
+        if (this.trace != null) {
+            this.trace.record(SearchTrace.EventType.TRY_ROW, k, first.rowIndex);
+        }
+        this.selectRow(first);
+        this.searchAtDepth(k + 1);
+        this.deselectRow(first);
+        if (this.trace != null) {
+            this.trace.record(SearchTrace.EventType.BACKTRACK, k, first.rowIndex);
+        }
+        if (this.shouldStop()) {
+            return;
+        }
+
+        if (level < PROGRESS_LEVELS) {
+            this.branchIndex[level]++;
+        }
+        if (this.trace != null) {
+            this.trace.record(SearchTrace.EventType.EXCLUDE_ROW, k, first.rowIndex);
+        }
+        this.hideRow(first);
+        this.searchAtDepth(k);
+        this.unhideRow(first);
+    }
+
+    /**
+     * The counters of the last search, see {@link #saveCounters()}.
+     */
+    record Counters(long nodesVisited, long updates, boolean budgetExhausted) {
+    }
+
+    /**
+     * Save the counters of the last search, so that a search run on the side, like the timing runs of
+     * {@link TreeSizeEstimator}, can put them back afterwards with {@link #restoreCounters}.
+     *
+     * @return The counters.
+     */
+    Counters saveCounters() {
+        return new Counters(this.nodesVisited, this.updates, this.budgetExhausted);
+    }
+
+    void restoreCounters(Counters counters) {
+        this.nodesVisited = counters.nodesVisited();
+        this.nodesReported = counters.nodesVisited();
+        this.updates = counters.updates();
+        this.budgetExhausted = counters.budgetExhausted();
+    }
+
+    /**
+     * Follow one random path from the root of the search tree to a leaf, choosing columns as the search would and
+     * one of their rows uniformly at random, as in Knuth's "Estimating the efficiency of backtrack programs". The
+     * matrix is restored afterwards, and the counters of the last search are left alone.
+     *
+     * @param random Source of randomness.
+     * @return Unbiased estimates of the size of the whole search from this path: each node on it stands for the
+     * product of the numbers of branches above it.
+     */
+    TreeSizeEstimator.Probe probe(Random random) {
+        final long updates = this.updates;
+        double[] totals = new double[3];
+        try {
+            this.probeAtDepth(random, 1, totals);
+        } finally {
+            this.updates = updates;
+        }
+        return new TreeSizeEstimator.Probe(totals[0], totals[1], totals[2]);
+    }
+
+    // the same steps as searchAtDepth, down a single branch; adds the weighted nodes, solutions and updates to totals
+    private void probeAtDepth(Random random, double weight, double[] totals) {
+        totals[0] += weight;
+        if (this.right == this) {
+            totals[1] += weight;
+            return;
+        }
+
+        Column<T> column = this.chooseColumn();
+        long before = this.updates;
+        if (column.bound > 1) {
+            if (column.getSize() < column.bound) {
+                return;
             }
+            Data<T> first = column.down;
+            if (random.nextBoolean()) {
+                this.selectRow(first);
+                totals[2] += 2 * weight * (this.updates - before);
+                this.probeAtDepth(random, 2 * weight, totals);
+                this.deselectRow(first);
+            } else {
+                this.hideRow(first);
+                totals[2] += 2 * weight * (this.updates - before);
+                this.probeAtDepth(random, 2 * weight, totals);
+                this.unhideRow(first);
+            }
+            return;
         }
 
+        final int size = column.getSize();
+        if (size == 0) {
+            return;
+        }
+        this.updates += column.cover();
+        totals[2] += weight * (this.updates - before);
+
+        Data<T> row = column.down;
+        for (int i = random.nextInt(size); i > 0; i--) {
+            row = row.down;
+        }
+        before = this.updates;
+        for (Data<T> d = row.right; d != row; d = d.right) {
+            if (--d.column.bound == 0) {
+                this.updates += d.column.cover();
+            }
+        }
+        totals[2] += size * weight * (this.updates - before);
+
+        this.probeAtDepth(random, size * weight, totals);
+
+        for (Data<T> d = row.left; d != row; d = d.left) {
+            if (d.column.bound++ == 0) {
+                d.column.uncover();
+            }
+        }
         column.uncover();
     }
 
+    private void reportMetrics(int k) {
+        // each level refines the estimate by its share of the branch above it
+        double progress = 0;
+        double share = 1;
+        for (int level = 0; level < Math.min(k - this.fixedDepth, PROGRESS_LEVELS); level++) {
+            share /= this.branchCount[level];
+            progress += this.branchIndex[level] * share;
+        }
+        this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+        this.nodesReported = this.nodesVisited;
+        this.metrics.reportPosition(k, this.branchIndex[0], this.branchCount[0], progress);
+    }
+
     /**
      * Complete a search of the data.
      *
@@ -155,21 +502,256 @@ public final class Root<T> extends Column<T> {
      * from each row in a particular solution.
      */
     public List<Set<T>> search() {
-        // return column labels
-        this.search(0);
-        return this.solutions;
+        return this.search(-1);
+    }
+
+    /**
+     * Search the data, stopping early once enough solutions have been found.
+     *
+     * @param limit The maximum number of solutions to find. A negative value means no limit.
+     * @return A list, where each element (set) is the {@link Data#getAssociatedRowData()}
+     * from each row in a particular solution.
+     */
+    public List<Set<T>> search(int limit) {
+        return this.search(limit, -1);
+    }
+
+    /**
+     * Search the data, giving up after visiting {@code nodeBudget} nodes of the search tree.
+     * Use {@link #isBudgetExhausted()} afterwards to tell an exhaustive search apart from an abandoned one.
+     *
+     * @param limit      The maximum number of solutions to find. A negative value means no limit.
+     * @param nodeBudget The maximum number of search tree nodes to visit. A negative value means no limit.
+     * @return A list, where each element (set) is the {@link Data#getAssociatedRowData()}
+     * from each row in a particular solution found before stopping.
+     */
+    public List<Set<T>> search(int limit, long nodeBudget) {
+        return this.search(List.of(), limit, nodeBudget);
+    }
+
+    /**
+     * Search the data with some rows already chosen. The rows are covered before searching and uncovered
+     * afterwards, so the same instance can be reused for queries with different fixed rows.
+     *
+     * @param fixedRows  Rows that every solution must contain, each given by any of its data objects
+     *                   (see {@link #getRow(int)}). They must not conflict with each other.
+     * @param limit      The maximum number of solutions to find. A negative value means no limit.
+     * @param nodeBudget The maximum number of search tree nodes to visit. A negative value means no limit.
+     * @return A list, where each element (set) is the {@link Data#getAssociatedRowData()}
+     * from each row in a particular solution found before stopping, including the fixed rows.
+     * @throws IllegalArgumentException If two fixed rows share a column.
+     */
+    public List<Set<T>> search(List<Data<T>> fixedRows, int limit, long nodeBudget) {
+        List<Set<T>> solutions = new ArrayList<>();
+        if (limit == 0) {
+            return solutions;
+        }
+        this.visit(fixedRows, nodeBudget, (rowIndices, depth) -> {
+            Set<T> solution = new HashSet<>();
+            for (int i = 0; i < depth; i++) {
+                solution.add(this.getRowData(rowIndices[i]));
+            }
+            solutions.add(solution);
+            return solutions.size() != limit;
+        });
+        return solutions;
+    }
+
+    /**
+     * Visit every solution of the data, without storing any of them.
+     *
+     * @param visitor Called once for each solution, until it returns {@code false}.
+     */
+    @Override
+    public void visit(SolutionVisitor visitor) {
+        this.visit(List.of(), -1, visitor);
+    }
+
+    @Override
+    public void visit(long nodeBudget, SolutionVisitor visitor) {
+        this.visit(List.of(), nodeBudget, visitor);
     }
 
-    private Column<T> chooseColumn() {
+    /**
+     * Visit the solutions of the data as they are found, without storing any of them. Unlike {@link #search},
+     * this allocates nothing per solution, so the memory used stays the same however many solutions there are.
+     *
+     * @param fixedRows  Rows that every solution must contain, as in {@link #search(List, int, long)}.
+     *                   They are passed to {@code visitor} first, in order.
+     * @param nodeBudget The maximum number of search tree nodes to visit. A negative value means no limit.
+     * @param visitor    Called once for each solution, until it returns {@code false}.
+     * @throws IllegalArgumentException If two fixed rows share a column.
+     */
+    public void visit(List<Data<T>> fixedRows, long nodeBudget, SolutionVisitor visitor) {
+        this.visitor = Objects.requireNonNull(visitor);
+        this.stopped = false;
+        this.nodeBudget = nodeBudget;
+        this.nodesVisited = 0;
+        this.updates = 0;
+        this.nodesReported = 0;
+        this.budgetExhausted = false;
+        this.fixedDepth = fixedRows.size();
+        if (this.rowIndices.length < fixedRows.size()) {
+            this.rowIndices = new int[2 * fixedRows.size()];
+        }
+
+        int fixed = 0;
+        try {
+            for (Data<T> row : fixedRows) {
+                if (!this.isRowAvailable(row)) {
+                    throw new IllegalArgumentException("fixed rows conflict: " + row.getAssociatedRowData());
+                }
+                this.rowIndices[fixed] = row.rowIndex;
+                if (this.trace != null) {
+                    this.trace.record(SearchTrace.EventType.TRY_ROW, fixed, row.rowIndex);
+                }
+                this.selectRow(row);
+                fixed++;
+            }
+
+            if (this.metrics != null) {
+                this.metrics.searchStarted();
+            }
+            try {
+                this.searchAtDepth(fixed);
+            } finally {
+                if (this.metrics != null) {
+                    this.metrics.addNodes(this.nodesVisited - this.nodesReported);
+                    this.nodesReported = this.nodesVisited;
+                    this.metrics.searchFinished(!this.shouldStop());
+                }
+            }
+        } finally {
+            for (int i = fixed - 1; i >= 0; i--) {
+                this.deselectRow(fixedRows.get(i));
+                if (this.trace != null) {
+                    this.trace.record(SearchTrace.EventType.BACKTRACK, i, fixedRows.get(i).rowIndex);
+                }
+            }
+            this.visitor = null;
+        }
+    }
+
+    private boolean isRowAvailable(Data<T> row) {
+        Data<T> d = row;
+        do {
+            if (d.up.down != d) {
+                return false; // removed along with a chosen row
+            }
+            // a secondary column is covered once its last allowed row is chosen
+            boolean found = d.column.secondary && d.column.bound > 0;
+            for (Column<T> c = (Column<T>) this.right; c != this && !found; c = (Column<T>) c.right) {
+                if (c == d.column) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+            d = d.right;
+        } while (d != row);
+        return true;
+    }
+
+    // add a row to the solution: take it out of the matrix, then count down each of its columns,
+    // covering those that are now satisfied
+    private void selectRow(Data<T> row) {
+        this.hideRow(row);
+        Data<T> d = row;
+        do {
+            if (--d.column.bound == 0) {
+                this.updates += d.column.cover();
+            }
+            d = d.right;
+        } while (d != row);
+    }
+
+    private void deselectRow(Data<T> row) {
+        Data<T> d = row.left;
+        do {
+            if (d.column.bound++ == 0) {
+                d.column.uncover();
+            }
+            d = d.left;
+        } while (d != row.left);
+        this.unhideRow(row);
+    }
+
+    private void hideRow(Data<T> row) {
+        Data<T> d = row;
+        do {
+            d.column.unlink(d);
+            this.updates++;
+            d = d.right;
+        } while (d != row);
+    }
+
+    private void unhideRow(Data<T> row) {
+        Data<T> d = row.left;
+        do {
+            d.column.relink(d);
+            d = d.left;
+        } while (d != row.left);
+    }
+
+    /**
+     * Whether the last search was abandoned because it ran out of nodes.
+     *
+     * @return {@code true} if the node budget of the last search was exhausted.
+     */
+    @Override
+    public boolean isBudgetExhausted() {
+        return this.budgetExhausted;
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return this.nodesVisited;
+    }
+
+    @Override
+    public long getUpdates() {
+        return this.updates;
+    }
+
+    /**
+     * Randomly permute the order of the rows within each column. Only changes the order in which the search
+     * tries rows, never the set of solutions. Must not be called during a search.
+     *
+     * @param random Source of randomness, seeded by the caller for reproducibility.
+     */
+    public void shuffleRows(Random random) {
+        List<Data<T>> rows = new ArrayList<>();
+        for (Column<T> c = (Column<T>) this.right; c != this; c = (Column<T>) c.right) {
+            rows.clear();
+            for (Data<T> d = c.down; d != c; d = d.down) {
+                rows.add(d);
+            }
+            Collections.shuffle(rows, random);
+
+            Data<T> prev = c;
+            for (Data<T> d : rows) {
+                prev.down = d;
+                d.up = prev;
+                prev = d;
+            }
+            prev.down = c;
+            c.up = prev;
+        }
+    }
+
+    Column<T> chooseColumn() {
         if (this.useShortestColumnAsHeuristic) {
-            // choose column with fewest 1s
+            // choose column with fewest 1s, or rather fewest ways to satisfy it when it needs several rows
             int minSize = Integer.MAX_VALUE;
             Column<T> out = null;
 
             for (Column<T> c = (Column<T>) this.right; c != this; c = (Column<T>) c.right) {
-                if (c.getSize() <= minSize) {
+                int size = c.getSize() - c.bound + 1;
+                if (size <= minSize) {
                     out = c;
-                    minSize = c.getSize();
+                    minSize = size;
                 }
             }
 
@@ -183,10 +765,4 @@ public final class Root<T> extends Column<T> {
     public String toString() {
         return "Root object";
     }
-
-    private Set<T> getCurrentSolution() {
-        return this.dataList.stream()
-                .map(Data::getAssociatedRowData)
-                .collect(Collectors.toSet());
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,278 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Predicate;
+
+/**
+ * Records the steps of a {@link Root} search (see {@link Root#trace}): which column was chosen at each depth, which
+ * rows were tried, and where the search backtracked. Each step is packed into a {@code long} in a ring buffer
+ * allocated up front, so recording allocates nothing.
+ * <p>
+ * With a file, the buffer is written out whenever it fills up, and on {@link #close()}, so the file holds every step.
+ * Without one, the trace is a flight recorder: it keeps the last steps, overwriting the oldest, and
+ * {@link #writeTo(Path)} saves them. Either way, the file is read back with {@link #read(Path, Predicate)}.
+ * <p>
+ * Steps can also be emitted as {@code com.github.a2435191.SearchStep} JFR events, which are disabled by default
+ * since there is one per step; enable them in the recording settings to see the search alongside a profile.
+ */
+public final class SearchTrace implements Closeable {
+    private static final int MAGIC = 0x444c5854; // "DLXT"
+    private static final int VERSION = 1;
+
+    /**
+     * The kinds of step.
+     */
+    public enum EventType {
+        /**
+         * A column was chosen to branch on; the value is its index.
+         */
+        CHOOSE_COLUMN,
+        /**
+         * A row was added to the partial solution at the depth; the value is its index.
+         */
+        TRY_ROW,
+        /**
+         * The row at the depth was taken out of the partial solution again; the value is its index.
+         */
+        BACKTRACK,
+        /**
+         * A row of a column that must be satisfied several times was excluded from the rest of the branch, see
+         * {@link Root#Root(int[][], String[], int[], java.util.List)}; the value is its index.
+         */
+        EXCLUDE_ROW,
+        /**
+         * The partial solution is a solution; the value is 0.
+         */
+        SOLUTION
+    }
+
+    private static final EventType[] TYPES = EventType.values();
+
+    /**
+     * One step of a search.
+     *
+     * @param type  What happened.
+     * @param depth The depth in the search tree, i.e. the number of rows in the partial solution before the step.
+     * @param value The column or row, depending on {@code type}.
+     */
+    public record Event(EventType type, int depth, int value) {
+    }
+
+    @Name("com.github.a2435191.SearchStep")
+    @Label("Search Step")
+    @Category("Pentomino")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class SearchStepEvent extends jdk.jfr.Event {
+        @Label("Type")
+        String type;
+        @Label("Depth")
+        int depth;
+        @Label("Value")
+        int value;
+    }
+
+    private final long[] events;
+    private final int mask;
+    private final @Nullable FileChannel channel;
+    private final @Nullable ByteBuffer output;
+    private long recorded = 0; // in total; events[recorded & mask] is the next slot
+    private long written = 0; // to the file
+
+    /**
+     * If {@code true}, also emit each step as a JFR event, when the recording enables them.
+     */
+    public boolean emitJfrEvents = false;
+
+    /**
+     * Construct a flight recorder, which keeps the last steps in memory.
+     *
+     * @param capacity The number of steps to keep, rounded up to a power of 2.
+     */
+    public SearchTrace(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Construct a trace.
+     *
+     * @param capacity The number of steps buffered, rounded up to a power of 2.
+     * @param file     The file to write every step to, or {@code null} to only keep the last ones in memory. An
+     *                 existing file is overwritten.
+     * @throws UncheckedIOException If the file cannot be created.
+     */
+    public SearchTrace(int capacity, @Nullable Path file) {
+        if (capacity <= 0 || capacity > 1 << 26) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^26");
+        }
+        int size = Integer.highestOneBit(capacity);
+        this.events = new long[size < capacity ? size << 1 : size];
+        this.mask = this.events.length - 1;
+        if (file == null) {
+            this.channel = null;
+            this.output = null;
+            return;
+        }
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.output = ByteBuffer.allocateDirect(Long.BYTES * this.events.length);
+            this.writeHeader(this.channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void record(EventType type, int depth, int value) {
+        if (this.channel != null && this.recorded - this.written == this.events.length) {
+            this.flush();
+        }
+        this.events[(int) this.recorded++ & this.mask] = (long) type.ordinal() << 56
+                | (long) (depth & 0xffffff) << 32
+                | (value & 0xffffffffL);
+        if (this.emitJfrEvents) {
+            SearchStepEvent event = new SearchStepEvent();
+            if (event.isEnabled()) {
+                event.type = type.name();
+                event.depth = depth;
+                event.value = value;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Count the steps recorded so far, including any that were overwritten.
+     *
+     * @return The number of steps.
+     */
+    public long getEventCount() {
+        return this.recorded;
+    }
+
+    /**
+     * Write the buffered steps to the file. Only needed to look at the file while the search is still running.
+     *
+     * @throws IllegalStateException If this trace has no file.
+     * @throws UncheckedIOException  If the file cannot be written.
+     */
+    public void flush() {
+        if (this.channel == null || this.output == null) {
+            throw new IllegalStateException("no file to flush to");
+        }
+        this.output.clear();
+        for (long i = this.written; i < this.recorded; i++) {
+            this.output.putLong(this.events[(int) i & this.mask]);
+        }
+        this.output.flip();
+        try {
+            while (this.output.hasRemaining()) {
+                this.channel.write(this.output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.written = this.recorded;
+    }
+
+    /**
+     * Save the steps kept in memory, oldest first.
+     *
+     * @param file The file to write. An existing file is overwritten.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.writeHeader(out);
+            final long first = Math.max(0, this.recorded - this.events.length);
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (int) (this.recorded - first));
+            for (long i = first; i < this.recorded; i++) {
+                buffer.putLong(this.events[(int) i & this.mask]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+        }
+    }
+
+    private void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES).putInt(MAGIC).putInt(VERSION).flip();
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+    }
+
+    /**
+     * Write the remaining steps to the file, if any, and close it.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.channel != null && this.channel.isOpen()) {
+            try {
+                this.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Read a trace file, a step at a time.
+     *
+     * @param file A file written by a trace.
+     * @param out  Called with each step, in order, until it returns {@code false}, which stops the reading.
+     * @throws IOException If the file cannot be read, or is not a trace.
+     */
+    public static void read(Path file, Predicate<Event> out) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            readFully(in, buffer.limit(2 * Integer.BYTES));
+            if (buffer.flip().getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException(file + " is not a search trace");
+            }
+            buffer.clear();
+            while (in.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= Long.BYTES) {
+                    final long event = buffer.getLong();
+                    final EventType type = TYPES[(int) (event >>> 56)];
+                    if (!out.test(new Event(type, (int) (event >>> 32) & 0xffffff, (int) event))) {
+                        return;
+                    }
+                }
+                buffer.compact();
+            }
+            if (buffer.position() != 0) {
+                throw new EOFException(file + " ends in the middle of a step");
+            }
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.a2435191.solvers.dancing_links;
+
+/**
+ * Receives the solutions of a {@link Root} one at a time, as they are found.
+ */
+@FunctionalInterface
+public interface SolutionVisitor {
+    /**
+     * Handle a solution.
+     *
+     * @param rowIndices The {@link Data#getRowIndex()} of each row in the solution, in the first {@code depth}
+     *                   elements. The array is reused for every solution and its contents change as the search goes
+     *                   on, so copy anything that should outlive this call.
+     * @param depth      The number of rows in the solution.
+     * @return {@code true} to keep searching, {@code false} to stop.
+     */
+    boolean visit(int[] rowIndices, int depth);
+}
@@ -0,0 +1,149 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.solvers.SearchMetrics;
+
+import java.util.Random;
+
+/**
+ * Estimates the size of a search before running it, by Knuth's method: random paths from the root of the search
+ * tree to a leaf, each of which gives an unbiased estimate of the number of nodes, solutions and updates of the whole
+ * tree (see {@link Root#probe}). Averaging many of them converges on the true values, although the distribution
+ * of a single path is very skewed, so the confidence intervals, which assume a normal distribution of the mean, are
+ * only a rough guide on irregular trees.
+ * <p>
+ * Every engine searches the same tree, with the same updates (see {@link ExactCover#getUpdates()}); only the time
+ * per update differs between them, so {@link Estimate#runtimeNanos(double)} rescales the estimate for another one.
+ */
+public final class TreeSizeEstimator {
+    private static final double Z_95 = 1.959964; // two-sided 95% quantile of the normal distribution
+    private static final long CALIBRATION_NODES = 1 << 14;
+
+    private TreeSizeEstimator() {
+    }
+
+    /**
+     * The estimates of one random path.
+     *
+     * @param nodes     The estimated number of nodes.
+     * @param solutions The estimated number of solutions.
+     * @param updates   The estimated number of updates.
+     */
+    record Probe(double nodes, double solutions, double updates) {
+    }
+
+    /**
+     * An estimate with a 95% confidence interval.
+     *
+     * @param mean The estimate.
+     * @param low  The lower end of the interval, at least 0.
+     * @param high The upper end of the interval.
+     */
+    public record Interval(double mean, double low, double high) {
+        private Interval scaled(double factor) {
+            return new Interval(this.mean * factor, this.low * factor, this.high * factor);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.4g [%.4g, %.4g]", this.mean, this.low, this.high);
+        }
+    }
+
+    /**
+     * The estimated size of a search.
+     *
+     * @param probes         The number of random paths the estimate is based on.
+     * @param nodes          The number of search tree nodes, as {@link ExactCover#getNodesVisited()} would count.
+     * @param solutions      The number of solutions.
+     * @param updates        The number of updates, as {@link ExactCover#getUpdates()} would count.
+     * @param nanosPerUpdate The time per update measured on the matrix, by short searches of it.
+     */
+    public record Estimate(int probes, Interval nodes, Interval solutions, Interval updates, double nanosPerUpdate) {
+        /**
+         * Estimate the running time of the search on the matrix the estimate was made for.
+         *
+         * @return The time, in nanoseconds.
+         */
+        public Interval runtimeNanos() {
+            return this.runtimeNanos(this.nanosPerUpdate);
+        }
+
+        /**
+         * Estimate the running time of the search on an engine with a known speed.
+         *
+         * @param nanosPerUpdate The time per update of the engine.
+         * @return The time, in nanoseconds.
+         */
+        public Interval runtimeNanos(double nanosPerUpdate) {
+            return this.updates.scaled(nanosPerUpdate);
+        }
+
+        @Override
+        public String toString() {
+            return "nodes " + this.nodes + ", solutions " + this.solutions + ", updates " + this.updates
+                    + ", runtime (ms) " + this.runtimeNanos().scaled(1e-6) + " from " + this.probes + " probes";
+        }
+    }
+
+    /**
+     * Estimate the size of a search of a matrix, as {@link Root#visit} would run it with the current heuristic.
+     * Besides the probes, this times searches of the matrix cut off after a few thousand nodes; the metrics, trace
+     * and counters of {@code root} are left as the last search left them.
+     *
+     * @param root   The matrix. It must not be searched by another thread meanwhile.
+     * @param probes The number of random paths to follow, at least 2. The width of the intervals shrinks with the
+     *               square root of this.
+     * @param random Source of randomness, seeded by the caller for reproducibility.
+     * @param <T>    The type of the data associated with each row.
+     * @return The estimate.
+     */
+    public static <T> Estimate estimate(Root<T> root, int probes, Random random) {
+        if (probes < 2) {
+            throw new IllegalArgumentException("need at least 2 probes");
+        }
+        // running mean and sum of squared deviations (Welford) of each estimate, in the order nodes, solutions,
+        // updates; the values span many orders of magnitude, so summing their squares would lose the variance
+        double[] mean = new double[3];
+        double[] squares = new double[3];
+        for (int i = 1; i <= probes; i++) {
+            Probe probe = root.probe(random);
+            double[] values = {probe.nodes(), probe.solutions(), probe.updates()};
+            for (int j = 0; j < values.length; j++) {
+                final double delta = values[j] - mean[j];
+                mean[j] += delta / i;
+                squares[j] += delta * (values[j] - mean[j]);
+            }
+        }
+
+        Interval[] intervals = new Interval[3];
+        for (int j = 0; j < intervals.length; j++) {
+            final double halfWidth = Z_95 * Math.sqrt(squares[j] / (probes - 1) / probes);
+            intervals[j] = new Interval(mean[j], Math.max(0, mean[j] - halfWidth), mean[j] + halfWidth);
+        }
+
+        // the calibration search is not one the caller asked for, so keep it out of their metrics, trace and counters
+        final SearchMetrics metrics = root.metrics;
+        final SearchTrace trace = root.trace;
+        final Root.Counters counters = root.saveCounters();
+        root.metrics = null;
+        root.trace = null;
+        long elapsed = 0;
+        long updates = 0;
+        try {
+            // the first run only warms up the search code
+            for (int run = 0; run < 2; run++) {
+                long start = System.nanoTime();
+                root.visit(CALIBRATION_NODES, (rowIndices, depth) -> true);
+                elapsed = System.nanoTime() - start;
+                updates = root.getUpdates();
+            }
+        } finally {
+            root.metrics = metrics;
+            root.trace = trace;
+            root.restoreCounters(counters);
+        }
+        double nanosPerUpdate = updates > 0 ? (double) elapsed / updates : 0;
+
+        return new Estimate(probes, intervals[0], intervals[1], intervals[2], nanosPerUpdate);
+    }
+}
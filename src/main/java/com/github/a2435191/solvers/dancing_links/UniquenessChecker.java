@@ -0,0 +1,163 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Coordinate;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Transformation;
+import com.github.a2435191.solvers.BoardSymmetries;
+
+import java.util.*;
+
+/**
+ * Checks whether a puzzle has exactly one solution, without enumerating all of them.
+ * Solutions can be counted either as they are, or up to the symmetries of the board, so that a solution
+ * and its mirror image on a symmetric board count once.
+ * <p>
+ * Instances are stateless apart from the pieces, and can be shared between threads.
+ */
+public final class UniquenessChecker {
+    private final Pentomino[] pieces;
+    private final DancingLinksPentominoPuzzleSolver solver = new DancingLinksPentominoPuzzleSolver();
+
+    /**
+     * Construct a new instance.
+     *
+     * @param pieces Pentominos to use in solving the puzzles.
+     */
+    public UniquenessChecker(Pentomino[] pieces) {
+        this.pieces = pieces.clone();
+    }
+
+    /**
+     * Check whether a puzzle has exactly one solution. The search stops at the second solution.
+     *
+     * @param board The puzzle space.
+     * @return {@code true} if the puzzle has exactly one solution.
+     */
+    public boolean hasUniqueSolution(Board board) {
+        return this.countSolutions(board, 2) == 1;
+    }
+
+    /**
+     * Check whether a puzzle has exactly one solution up to the symmetries of the board.
+     *
+     * @param board The puzzle space.
+     * @return {@code true} if every solution of the puzzle is a symmetric image of one and the same solution.
+     */
+    public boolean hasUniqueSolutionUpToSymmetry(Board board) {
+        return this.countSolutionsUpToSymmetry(board, 2) == 1;
+    }
+
+    /**
+     * Count solutions, stopping early.
+     *
+     * @param board The puzzle space.
+     * @param limit The count at which to stop searching.
+     * @return The number of solutions, or {@code limit} if there are at least that many.
+     */
+    public int countSolutions(Board board, int limit) {
+        return this.countSolutions(board, limit, PlacementTable.compute(this.pieces, board));
+    }
+
+    /**
+     * Count solutions, stopping early, reusing placements computed for a similar board.
+     *
+     * @param board      The puzzle space.
+     * @param limit      The count at which to stop searching.
+     * @param placements Placements computed for a board with a subset of the filled squares of {@code board}.
+     * @return The number of solutions, or {@code limit} if there are at least that many.
+     */
+    public int countSolutions(Board board, int limit, PlacementTable placements) {
+        if (limit == 0) {
+            return 0;
+        }
+        int[] count = {0};
+        this.solver.createRoot(this.pieces, board, placements).visit((rowIndices, depth) -> ++count[0] != limit);
+        return count[0];
+    }
+
+    /**
+     * Count solutions up to the symmetries of the board, stopping early.
+     *
+     * @param board The puzzle space.
+     * @param limit The count at which to stop searching.
+     * @return The number of solutions that are not symmetric images of each other, or {@code limit} if there are
+     * at least that many.
+     */
+    public int countSolutionsUpToSymmetry(Board board, int limit) {
+        return this.countSolutionsUpToSymmetry(board, limit, PlacementTable.compute(this.pieces, board));
+    }
+
+    /**
+     * Count solutions up to the symmetries of the board, stopping early, reusing placements computed for a
+     * similar board.
+     *
+     * @param board      The puzzle space.
+     * @param limit      The count at which to stop searching.
+     * @param placements Placements computed for a board with a subset of the filled squares of {@code board}.
+     * @return The number of solutions that are not symmetric images of each other, or {@code limit} if there are
+     * at least that many.
+     */
+    public int countSolutionsUpToSymmetry(Board board, int limit, PlacementTable placements) {
+        if (limit <= 0) {
+            return 0;
+        }
+        final int height = board.getHeight();
+        final int width = board.getWidth();
+        List<Transformation> symmetries = BoardSymmetries.of(board);
+        List<int[]> permutations = new ArrayList<>();
+        for (Transformation t : symmetries) {
+            permutations.add(BoardSymmetries.cellPermutation(t, height, width));
+        }
+
+        // every class has at most |symmetries| members, so this many solutions prove there are `limit` classes
+        int rawLimit = (limit - 1) * symmetries.size() + 1;
+        List<Set<Placement>> solutions = this.solver.createRoot(this.pieces, board, placements).search(rawLimit);
+        if (solutions.size() == rawLimit) {
+            return limit;
+        }
+
+        Set<IntArrayWrapper> classes = new HashSet<>();
+        for (Set<Placement> solution : solutions) {
+            classes.add(canonicalLabels(solution, permutations, height, width));
+        }
+        return Math.min(limit, classes.size());
+    }
+
+    private static IntArrayWrapper canonicalLabels(Set<Placement> solution, List<int[]> permutations,
+                                                   int height, int width) {
+        int[] labels = new int[height * width];
+        for (Placement placement : solution) {
+            for (Coordinate c : placement.cells()) {
+                labels[c.y() * width + c.x()] = placement.piece().ordinal() + 1;
+            }
+        }
+
+        int[] best = null;
+        int[] image = new int[labels.length];
+        for (int[] permutation : permutations) {
+            for (int i = 0; i < labels.length; i++) {
+                image[permutation[i]] = labels[i];
+            }
+            if (best == null || Arrays.compare(image, best) < 0) {
+                best = image.clone();
+            }
+        }
+        return new IntArrayWrapper(best);
+    }
+
+    // for comparison
+    private record IntArrayWrapper(int[] array) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof IntArrayWrapper
+                    && Arrays.equals(this.array, ((IntArrayWrapper) other).array());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.array);
+        }
+    }
+}
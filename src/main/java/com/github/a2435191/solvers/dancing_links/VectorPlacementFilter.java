@@ -0,0 +1,46 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The vectorized part of {@link PlacementFilter}, which tests as many rows of offsets at once as a vector has lanes.
+ * Only loaded when the {@code jdk.incubator.vector} module is available.
+ */
+final class VectorPlacementFilter {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * The number of rows tested at once.
+     */
+    static final int LANES = SPECIES.length();
+
+    private VectorPlacementFilter() {
+    }
+
+    /**
+     * Find the offsets at which a shape fits in as many rows as fill whole vectors, as {@link PlacementFilter#offsets}.
+     *
+     * @param emptyRows   The packed board.
+     * @param cellRows    The row of each square of the shape.
+     * @param cellColumns The column of each square of the shape.
+     * @param inBounds    The offsets at which the shape does not stick out on the right.
+     * @param anchors     The number of rows the shape can start in.
+     * @param out         Receives the offsets for each row.
+     * @return The first row not yet tested; the rest are left to the caller.
+     */
+    static int offsets(long[] emptyRows, int[] cellRows, int[] cellColumns, long inBounds, int anchors, long[] out) {
+        final LongVector start = LongVector.broadcast(SPECIES, inBounds);
+        int y = 0;
+        for (; y + LANES <= anchors; y += LANES) {
+            LongVector fits = start;
+            for (int c = 0; c < cellRows.length; c++) {
+                fits = fits.and(LongVector.fromArray(SPECIES, emptyRows, y + cellRows[c])
+                        .lanewise(VectorOperators.LSHR, cellColumns[c]));
+            }
+            fits.intoArray(out, y);
+        }
+        return y;
+    }
+}
@@ -0,0 +1,220 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A zero-suppressed decision diagram representing a family of solutions, as built by {@link ZddBuilder}.
+ * Each node {@code (row, lo, hi)} stands for the family {@code lo} together with every set of {@code hi}
+ * extended by {@code row}. Node {@link #BOTTOM} is the empty family and node {@link #TOP} the family
+ * containing only the empty set.
+ *
+ * @param <T> The type of the additional data associated with each row.
+ */
+public final class Zdd<T> implements Iterable<Set<T>> {
+    /**
+     * The empty family: no solutions.
+     */
+    public static final int BOTTOM = 0;
+
+    /**
+     * The family containing only the empty set: exactly one, empty, solution.
+     */
+    public static final int TOP = 1;
+
+    private static final int MAGIC = 0x5A444401; // "ZDD" and a format version
+
+    private final int[] rows;
+    private final int[] lo;
+    private final int[] hi;
+    private final int root;
+    private final List<T> rowData;
+    private long[] counts = null; // computed lazily
+
+    Zdd(int[] rows, int[] lo, int[] hi, int nodeCount, int root, List<T> rowData) {
+        this.rows = Arrays.copyOf(rows, nodeCount);
+        this.lo = Arrays.copyOf(lo, nodeCount);
+        this.hi = Arrays.copyOf(hi, nodeCount);
+        this.root = root;
+        this.rowData = rowData;
+    }
+
+    /**
+     * Read a diagram written by {@link #write(DataOutput)}.
+     *
+     * @param in      Source of the serialized diagram.
+     * @param rowData Data associated with each row, indexed by row index. Must match the matrix
+     *                the diagram was built from.
+     * @param <T>     The type of the additional data associated with each row.
+     * @return The deserialized diagram.
+     * @throws IOException If reading fails or the input is not a serialized diagram.
+     */
+    public static <T> Zdd<T> read(DataInput in, List<T> rowData) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a serialized ZDD");
+        }
+        int nodeCount = in.readInt();
+        int root = in.readInt();
+        if (nodeCount < 2 || root < 0 || root >= nodeCount) {
+            throw new IOException("corrupt ZDD header");
+        }
+
+        int[] rows = new int[nodeCount];
+        int[] lo = new int[nodeCount];
+        int[] hi = new int[nodeCount];
+        rows[BOTTOM] = rows[TOP] = -1;
+        for (int i = 2; i < nodeCount; i++) {
+            rows[i] = in.readInt();
+            lo[i] = in.readInt();
+            hi[i] = in.readInt();
+            if (lo[i] >= i || hi[i] >= i || lo[i] < 0 || hi[i] < 0 || rows[i] < 0 || rows[i] >= rowData.size()) {
+                throw new IOException("corrupt ZDD node " + i);
+            }
+        }
+        return new Zdd<>(rows, lo, hi, nodeCount, root, rowData);
+    }
+
+    /**
+     * Serialize the diagram. Only the structure is written, not the associated row data.
+     *
+     * @param out Destination of the serialized diagram.
+     * @throws IOException If writing fails.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(this.rows.length);
+        out.writeInt(this.root);
+        for (int i = 2; i < this.rows.length; i++) {
+            out.writeInt(this.rows[i]);
+            out.writeInt(this.lo[i]);
+            out.writeInt(this.hi[i]);
+        }
+    }
+
+    /**
+     * Get the number of nodes in the diagram, including {@link #BOTTOM} and {@link #TOP}.
+     *
+     * @return The node count.
+     */
+    public int getNodeCount() {
+        return this.rows.length;
+    }
+
+    /**
+     * Count the solutions in the family without enumerating them.
+     *
+     * @return The number of solutions.
+     * @throws ArithmeticException If the count does not fit in a {@code long}.
+     */
+    public long count() {
+        return this.getCounts()[this.root];
+    }
+
+    private long[] getCounts() {
+        if (this.counts == null) {
+            long[] out = new long[this.rows.length];
+            out[TOP] = 1;
+            // children always have smaller ids than their parents
+            for (int i = 2; i < out.length; i++) {
+                out[i] = Math.addExact(out[this.lo[i]], out[this.hi[i]]);
+            }
+            this.counts = out;
+        }
+        return this.counts;
+    }
+
+    /**
+     * Get a single solution without enumerating the ones before it.
+     *
+     * @param index Index of the solution, in the same order as {@link #iterator()}.
+     * @return The row indices of the solution.
+     */
+    public int[] getRowIndices(long index) {
+        long[] counts = this.getCounts();
+        if (index < 0 || index >= counts[this.root]) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range for " + counts[this.root]);
+        }
+
+        int[] buffer = new int[16];
+        int size = 0;
+        int node = this.root;
+        while (node != TOP) {
+            if (index < counts[this.lo[node]]) {
+                node = this.lo[node];
+            } else {
+                index -= counts[this.lo[node]];
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, 2 * size);
+                }
+                buffer[size++] = this.rows[node];
+                node = this.hi[node];
+            }
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * View the solutions as a list, decoding each one on access.
+     *
+     * @return An unmodifiable list of solutions, each a set of {@link Data#getAssociatedRowData()}.
+     */
+    public List<Set<T>> asList() {
+        long count = this.count();
+        if (count > Integer.MAX_VALUE) {
+            throw new ArithmeticException("too many solutions for a list: " + count);
+        }
+        return new AbstractList<>() {
+            @Override
+            public Set<T> get(int index) {
+                return Zdd.this.toRowData(Zdd.this.getRowIndices(index));
+            }
+
+            @Override
+            public int size() {
+                return (int) count;
+            }
+        };
+    }
+
+    private Set<T> toRowData(int[] rowIndices) {
+        Set<T> out = new HashSet<>();
+        for (int row : rowIndices) {
+            out.add(this.rowData.get(row));
+        }
+        return out;
+    }
+
+    @Override
+    public Iterator<Set<T>> iterator() {
+        long count = this.count();
+        return new Iterator<>() {
+            private long next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.next < count;
+            }
+
+            @Override
+            public Set<T> next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return Zdd.this.toRowData(Zdd.this.getRowIndices(this.next++));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Zdd (" + this.getNodeCount() + " nodes)";
+    }
+}
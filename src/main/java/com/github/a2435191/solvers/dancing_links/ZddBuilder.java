@@ -0,0 +1,145 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dancing links with memoization, based on Knuth's algorithm DXZ
+ * (<a href="https://arxiv.org/abs/1611.08293">Nishino et al.</a>). Instead of listing solutions,
+ * the search builds a {@link Zdd} of all of them. Subproblems are identified by the set of columns that are
+ * still uncovered (which determines the rows that are still available), so each one is only solved once.
+ *
+ * @param <T> The type of the additional data associated with each row.
+ */
+public final class ZddBuilder<T> {
+    private final Root<T> root;
+    private final Map<BitSet, Integer> memo = new HashMap<>();
+    private final Map<NodeKey, Integer> uniqueTable = new HashMap<>();
+
+    private int[] rows = new int[64];
+    private int[] lo = new int[64];
+    private int[] hi = new int[64];
+    private int nodeCount = 2; // BOTTOM and TOP
+
+    /**
+     * Construct a new instance.
+     *
+     * @param root The matrix to search. It must not be searched by anything else while building.
+     * @throws IllegalArgumentException If a column of {@code root} has a multiplicity other than 1, or is
+     *                                  secondary, since the memo key only records which primary columns are still
+     *                                  uncovered, not how often each column is still needed.
+     */
+    public ZddBuilder(Root<T> root) {
+        for (Column<T> c = (Column<T>) root.right; c != root; c = (Column<T>) c.right) {
+            if (c.bound != 1) {
+                throw new IllegalArgumentException("columns with multiplicities are not supported");
+            }
+        }
+        // secondary columns are not in the header row, so look for them through the rows
+        for (int i = 0; i < root.getRowCount(); i++) {
+            Data<T> row = root.getRow(i);
+            Data<T> d = row;
+            do {
+                if (d.column.secondary) {
+                    throw new IllegalArgumentException("secondary columns are not supported");
+                }
+                d = d.right;
+            } while (d != row);
+        }
+        this.root = root;
+        this.rows[Zdd.BOTTOM] = this.rows[Zdd.TOP] = -1;
+    }
+
+    /**
+     * Search the whole matrix.
+     *
+     * @return A diagram of every solution.
+     */
+    public Zdd<T> build() {
+        int top = this.search();
+
+        List<T> rowData = new ArrayList<>(this.root.getRowCount());
+        for (int i = 0; i < this.root.getRowCount(); i++) {
+            rowData.add(this.root.getRow(i).getAssociatedRowData());
+        }
+        return new Zdd<>(this.rows, this.lo, this.hi, this.nodeCount, top, rowData);
+    }
+
+    private int search() {
+        if (this.root.right == this.root) {
+            return Zdd.TOP;
+        }
+
+        BitSet key = this.activeColumns();
+        Integer cached = this.memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int result = Zdd.BOTTOM;
+        Column<T> column = this.root.chooseColumn();
+        column.cover();
+
+        for (Data<T> verticalNeighbor = column.down;
+             verticalNeighbor != column;
+             verticalNeighbor = verticalNeighbor.down) {
+            for (Data<T> horizontalNeighbor = verticalNeighbor.right;
+                 horizontalNeighbor != verticalNeighbor;
+                 horizontalNeighbor = horizontalNeighbor.right) {
+                horizontalNeighbor.column.cover();
+            }
+
+            int sub = this.search();
+
+            for (Data<T> horizontalNeighbor = verticalNeighbor.left;
+                 horizontalNeighbor != verticalNeighbor;
+                 horizontalNeighbor = horizontalNeighbor.left) {
+                horizontalNeighbor.column.uncover();
+            }
+
+            if (sub != Zdd.BOTTOM) {
+                result = this.makeNode(verticalNeighbor.rowIndex, result, sub);
+            }
+        }
+
+        column.uncover();
+        this.memo.put(key, result);
+        return result;
+    }
+
+    private BitSet activeColumns() {
+        BitSet out = new BitSet();
+        for (Column<T> c = (Column<T>) this.root.right; c != this.root; c = (Column<T>) c.right) {
+            out.set(c.index);
+        }
+        return out;
+    }
+
+    private int makeNode(int row, int lo, int hi) {
+        NodeKey key = new NodeKey(row, lo, hi);
+        Integer existing = this.uniqueTable.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (this.nodeCount == this.rows.length) {
+            int newLength = 2 * this.nodeCount;
+            this.rows = Arrays.copyOf(this.rows, newLength);
+            this.lo = Arrays.copyOf(this.lo, newLength);
+            this.hi = Arrays.copyOf(this.hi, newLength);
+        }
+        int id = this.nodeCount++;
+        this.rows[id] = row;
+        this.lo[id] = lo;
+        this.hi[id] = hi;
+        this.uniqueTable.put(key, id);
+        return id;
+    }
+
+    private record NodeKey(int row, int lo, int hi) {
+    }
+}
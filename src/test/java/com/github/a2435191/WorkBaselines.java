@@ -0,0 +1,119 @@
+package com.github.a2435191;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Committed upper bounds on deterministic measures of work, such as search tree nodes, so that an algorithmic
+ * slowdown fails the build even though wall-clock time is too noisy to check.
+ * <p>
+ * The bounds are read from {@code work-baselines.properties} next to this class. After a change that is meant to
+ * alter the work done, run the tests with {@code -PrecordWorkBaselines=<file>}: every measurement is then written to
+ * that file instead of being checked, ready to replace the committed one.
+ */
+public final class WorkBaselines {
+    private static final String RESOURCE = "work-baselines.properties";
+    private static final String RECORD_PROPERTY = "workBaselines.record";
+
+    // allocation depends on what the JIT has compiled so far, so it gets some headroom
+    private static final double ALLOCATION_TOLERANCE = 0.25;
+    private static final long ALLOCATION_SLACK = 256 * 1024;
+
+    private static final Properties BASELINES = load();
+    private static final Map<String, Long> RECORDED = new TreeMap<>();
+
+    private WorkBaselines() {
+    }
+
+    private static Properties load() {
+        Properties out = new Properties();
+        try (InputStream in = WorkBaselines.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                out.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out;
+    }
+
+    /**
+     * Check a deterministic measurement, like a node count, against its baseline.
+     *
+     * @param key      Name of the baseline.
+     * @param measured The measurement, which must not exceed the baseline.
+     */
+    public static void checkCount(String key, long measured) {
+        if (record(key, measured)) {
+            return;
+        }
+        long baseline = baseline(key, measured);
+        assertTrue(measured <= baseline, () -> key + " regressed: " + measured + " > baseline " + baseline);
+    }
+
+    /**
+     * Check a number of allocated bytes against its baseline, with some tolerance.
+     *
+     * @param key      Name of the baseline.
+     * @param measured The measurement, or a negative value if allocation cannot be measured on this JVM.
+     */
+    public static void checkAllocation(String key, long measured) {
+        if (measured < 0 || record(key, measured)) {
+            return;
+        }
+        long baseline = baseline(key, measured);
+        long limit = (long) (baseline * (1 + ALLOCATION_TOLERANCE)) + ALLOCATION_SLACK;
+        assertTrue(measured <= limit, () -> key + " regressed: " + measured + " bytes > limit " + limit
+                + " (baseline " + baseline + ")");
+    }
+
+    /**
+     * Get the number of bytes the current thread has allocated so far.
+     *
+     * @return A running total, or -1 if the JVM cannot measure it.
+     */
+    public static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long baseline(String key, long measured) {
+        String value = BASELINES.getProperty(key);
+        if (value == null) {
+            fail("no baseline for " + key + " (measured " + measured + ")");
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    private static synchronized boolean record(String key, long measured) {
+        String file = System.getProperty(RECORD_PROPERTY);
+        if (file == null || file.isEmpty()) {
+            return false;
+        }
+        RECORDED.put(key, measured);
+        try (Writer out = Files.newBufferedWriter(Path.of(file), StandardCharsets.UTF_8)) {
+            out.write("# Upper bounds on deterministic work, checked by WorkBaselines.\n");
+            for (Map.Entry<String, Long> entry : RECORDED.entrySet()) {
+                out.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.a2435191.cache;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Coordinate;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import com.github.a2435191.Transformation;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Solves a board, then each of its rotations and reflections through the cache, which must map the cached
+ * solutions onto every one of them.
+ */
+class CachingSolverTest {
+    private static final Pentomino[] PIECES = {
+            Pentomino.PINK, Pentomino.RED, Pentomino.DARK_PURPLE, Pentomino.DARK_GREEN, Pentomino.YELLOW
+    };
+
+    // 6x5 with an L filled in one corner, so that no transformation maps the board onto itself; 2 solutions
+    private static Board board() {
+        Board board = new Board(6, 5);
+        board.fill(0, 0);
+        board.fill(1, 0);
+        board.fill(2, 0);
+        board.fill(0, 1);
+        board.fill(0, 2);
+        return board;
+    }
+
+    @Test
+    void transformedBoardsShareOneEntry() throws IOException {
+        Path directory = Files.createTempDirectory("solutions");
+        try {
+            CachingSolver solver = new CachingSolver(directory, 1 << 20);
+            final int count = solver.solveForMultiple(PIECES, board(), -1).size();
+            assertEquals(2, count);
+
+            for (Transformation t : Transformation.TRANSFORMS) {
+                Board transformed = Board.fromGrid(t.apply(board().toGrid()));
+                List<Solution> solutions = solver.solveForMultiple(PIECES, transformed, -1);
+                assertEquals(count, solutions.size(), "solutions under " + t);
+                Set<Set<Placement>> distinct = new HashSet<>();
+                for (Solution solution : solutions) {
+                    checkTiling(transformed, solution);
+                    assertTrue(distinct.add(new HashSet<>(solution.placements())), "repeated solution under " + t);
+                }
+            }
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.filter(file -> file.toString().endsWith(".sol")).count());
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    // each piece once, covering exactly the empty squares of the board
+    private static void checkTiling(Board board, Solution solution) {
+        List<Pentomino> used = new ArrayList<>();
+        Board covered = board.copy();
+        for (Placement placement : solution.placements()) {
+            used.add(placement.piece());
+            for (Coordinate cell : placement.cells()) {
+                assertTrue(covered.contains(cell.x(), cell.y()), placement + " leaves the board");
+                assertFalse(covered.isFilled(cell.x(), cell.y()), placement + " covers a filled square");
+                covered.fill(cell.x(), cell.y());
+            }
+        }
+        assertEquals(0, covered.emptyCount(), "squares left uncovered by " + solution);
+        used.sort(null);
+        List<Pentomino> expected = new ArrayList<>(List.of(PIECES));
+        expected.sort(null);
+        assertEquals(expected, used);
+    }
+}
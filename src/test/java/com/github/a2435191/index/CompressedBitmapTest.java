@@ -0,0 +1,116 @@
+package com.github.a2435191.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares random sets against {@link BitSet}, with chunks on both sides of the switch from a sorted array to a
+ * bitmap, spread over several chunks of 2<sup>16</sup> values.
+ */
+class CompressedBitmapTest {
+    private static final int CHUNK = 1 << 16;
+    private static final int CHUNKS = 4;
+
+    // values per chunk: empty, a few, the largest array (4096), the smallest bitmap (4097) and a full chunk
+    private static final int[] DENSITIES = {0, 10, 4096, 4097, 30000, CHUNK};
+
+    @Test
+    void matchesBitSet() {
+        Random random = new Random(1);
+        for (int trial = 0; trial < 40; trial++) {
+            BitSet a = randomSet(random);
+            BitSet b = randomSet(random);
+            CompressedBitmap bitmapA = CompressedBitmap.of(a.stream().toArray());
+            CompressedBitmap bitmapB = CompressedBitmap.of(b.stream().toArray());
+            check(a, bitmapA, random);
+            check(b, bitmapB, random);
+
+            BitSet and = (BitSet) a.clone();
+            and.and(b);
+            check(and, bitmapA.and(bitmapB), random);
+            check(and, CompressedBitmap.and(bitmapB, bitmapA), random);
+
+            BitSet or = (BitSet) a.clone();
+            or.or(b);
+            check(or, bitmapA.or(bitmapB), random);
+            check(or, bitmapB.or(bitmapA), random);
+        }
+    }
+
+    @Test
+    void arrayLimit() {
+        for (int size : new int[]{4095, 4096, 4097, 4098}) {
+            // every other value, so that the intersection with the odd values is empty and with itself is whole
+            BitSet even = new BitSet();
+            BitSet odd = new BitSet();
+            for (int i = 0; i < size; i++) {
+                even.set(CHUNK + 2 * i);
+                odd.set(CHUNK + 2 * i + 1);
+            }
+            CompressedBitmap bitmap = CompressedBitmap.of(even.stream().toArray());
+            CompressedBitmap other = CompressedBitmap.of(odd.stream().toArray());
+            Random random = new Random(size);
+            check(even, bitmap, random);
+            check(even, bitmap.and(bitmap), random);
+            check(new BitSet(), bitmap.and(other), random);
+            assertTrue(bitmap.and(other).isEmpty());
+
+            BitSet or = (BitSet) even.clone();
+            or.or(odd);
+            check(or, bitmap.or(other), random);
+            check(even, bitmap.and(bitmap.or(other)), random);
+        }
+    }
+
+    @Test
+    void builderOrdering() {
+        CompressedBitmap.Builder builder = new CompressedBitmap.Builder();
+        builder.add(3).add(CHUNK - 1).add(CHUNK).add(5 * CHUNK + 7);
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5 * CHUNK + 7));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(CHUNK));
+        assertArrayEquals(new int[]{3, CHUNK - 1, CHUNK, 5 * CHUNK + 7}, builder.build().toArray());
+
+        assertTrue(CompressedBitmap.EMPTY.isEmpty());
+        assertTrue(CompressedBitmap.and().isEmpty());
+        assertTrue(CompressedBitmap.of().or(CompressedBitmap.EMPTY).isEmpty());
+    }
+
+    private static BitSet randomSet(Random random) {
+        BitSet out = new BitSet();
+        for (int chunk = 0; chunk < CHUNKS; chunk++) {
+            int density = DENSITIES[random.nextInt(DENSITIES.length)];
+            if (density == CHUNK) {
+                out.set(chunk * CHUNK, (chunk + 1) * CHUNK);
+                continue;
+            }
+            for (int added = 0; added < density; ) {
+                int value = chunk * CHUNK + random.nextInt(CHUNK);
+                if (!out.get(value)) {
+                    out.set(value);
+                    added++;
+                }
+            }
+        }
+        return out;
+    }
+
+    private static void check(BitSet expected, CompressedBitmap actual, Random random) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+        assertArrayEquals(expected.stream().toArray(), actual.stream().toArray());
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt((CHUNKS + 1) * CHUNK);
+            assertEquals(expected.get(value), actual.contains(value));
+        }
+        assertFalse(actual.contains((CHUNKS + 100) * CHUNK));
+    }
+}
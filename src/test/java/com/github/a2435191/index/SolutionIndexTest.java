@@ -0,0 +1,83 @@
+package com.github.a2435191.index;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Coordinate;
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.Solution;
+import com.github.a2435191.Transformation;
+import com.github.a2435191.TransformationAndCoordinate;
+import com.github.a2435191.solvers.dancing_links.DancingLinksPentominoPuzzleSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Indexes every solution of the 6x10 board, enough for bitmap chunks, and checks each kind of query against a
+ * scan of the solutions.
+ */
+class SolutionIndexTest {
+    @Test
+    void queriesMatchScan() {
+        Board board = Main.getRectangularGrid(6, 10);
+        List<Solution> solutions = new DancingLinksPentominoPuzzleSolver()
+                .solveForMultiple(Pentomino.values(), board, -1);
+        assertEquals(9356, solutions.size());
+        SolutionIndex index = SolutionIndex.of(solutions);
+        assertEquals(solutions.size(), index.size());
+        assertArrayEquals(scan(solutions, s -> true), index.all().toArray());
+
+        // a square near the middle, and a corner, which the cross can never cover
+        for (Coordinate square : List.of(new Coordinate(4, 2), new Coordinate(0, 0))) {
+            for (Pentomino piece : Pentomino.values()) {
+                int[] expected = scan(solutions, s -> s.placements().stream()
+                        .anyMatch(p -> p.piece() == piece && p.cells().contains(square)));
+                assertArrayEquals(expected, index.covering(piece, square).toArray(), piece + " on " + square);
+            }
+        }
+
+        // the placements of some solutions, one, two and all at a time
+        for (int id = 0; id < solutions.size(); id += 997) {
+            List<Placement> placements = solutions.get(id).placements();
+            for (int n : new int[]{1, 2, placements.size()}) {
+                List<Placement> query = placements.subList(0, n);
+                int[] expected = scan(solutions, s -> s.placements().containsAll(query));
+                assertArrayEquals(expected, index.matching(query).toArray());
+                assertTrue(index.matching(query).contains(id));
+            }
+            assertArrayEquals(new int[]{id}, index.agreeingWith(solutions.get(id).data()).toArray());
+        }
+
+        // a placement given by another of its equivalent transformations is found all the same
+        Placement placement = solutions.get(0).placements().stream()
+                .filter(p -> p.piece() == Pentomino.LIGHT_BLUE)
+                .findFirst()
+                .orElseThrow();
+        int[] expected = scan(solutions, s -> s.placements().contains(placement));
+        for (Transformation t : Pentomino.LIGHT_BLUE.equivalentTransforms.values().iterator().next()) {
+            Placement equivalent = new Placement(Pentomino.LIGHT_BLUE,
+                    new TransformationAndCoordinate(t, placement.position().coord()));
+            assertArrayEquals(expected, index.withPlacement(equivalent).toArray());
+            assertArrayEquals(expected, index.agreeingWith(Map.of(Pentomino.LIGHT_BLUE, equivalent.position()))
+                    .toArray());
+        }
+    }
+
+    private static int[] scan(List<Solution> solutions, Predicate<Solution> filter) {
+        List<Integer> out = new ArrayList<>();
+        for (int id = 0; id < solutions.size(); id++) {
+            if (filter.test(solutions.get(id))) {
+                out.add(id);
+            }
+        }
+        return out.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
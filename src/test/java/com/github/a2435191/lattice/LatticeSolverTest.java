@@ -0,0 +1,67 @@
+package com.github.a2435191.lattice;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the polyforms and puzzles of each {@link Lattice} against known counts, which count every rotation and
+ * reflection of a packing separately.
+ */
+class LatticeSolverTest {
+    private final LatticeSolver solver = new LatticeSolver(true);
+
+    @Test
+    void enumerate() {
+        // free polyominos, polyhexes and polyiamonds of each size (OEIS A000105, A000228, A000577)
+        long[][] counts = {
+                {1, 1, 2, 5, 12, 35},
+                {1, 1, 3, 7, 22, 82},
+                {1, 1, 1, 3, 4, 12}
+        };
+        Lattice[] lattices = {Lattice.SQUARE, Lattice.HEXAGONAL, Lattice.TRIANGULAR};
+        for (int l = 0; l < lattices.length; l++) {
+            for (int size = 1; size <= counts[l].length; size++) {
+                assertEquals(counts[l][size - 1], Polyform.enumerate(lattices[l], size).size(),
+                        "size " + size + " on " + lattices[l]);
+            }
+        }
+    }
+
+    @Test
+    void pentominos() {
+        // the 2 packings of the 3x20 rectangle, in each of its 4 symmetries
+        Polyform[] pieces = Polyform.enumerate(Lattice.SQUARE, 5).toArray(new Polyform[0]);
+        assertEquals(8, this.solver.countSolutions(pieces, new LatticeBoard(Lattice.SQUARE, 20, 3)));
+    }
+
+    @Test
+    void tetrahexes() {
+        // the 7 tetrahexes pack the 7x4 parallelogram 18 ways, counting its half turn, but never the 14x2 one
+        Polyform[] pieces = Polyform.enumerate(Lattice.HEXAGONAL, 4).toArray(new Polyform[0]);
+        assertEquals(18, this.solver.countSolutions(pieces, new LatticeBoard(Lattice.HEXAGONAL, 7, 4)));
+        assertEquals(0, this.solver.countSolutions(pieces, new LatticeBoard(Lattice.HEXAGONAL, 14, 2)));
+    }
+
+    @Test
+    void hexiamonds() {
+        // the 156 packings of the 6x6 rhombus, in each of its 4 symmetries
+        Polyform[] pieces = Polyform.enumerate(Lattice.TRIANGULAR, 6).toArray(new Polyform[0]);
+        assertEquals(624, this.solver.countSolutions(pieces, new LatticeBoard(Lattice.TRIANGULAR, 6, 6)));
+    }
+
+    @Test
+    void repeatedPieces() {
+        // the 3 domino tilings of a 2x3 rectangle, each found once however its dominos are numbered
+        Polyform domino = Polyform.of("domino", Lattice.SQUARE, new int[]{0, 0}, new int[]{1, 0});
+        Polyform[] dominos = {domino, domino, domino};
+        assertEquals(3, this.solver.countSolutions(dominos, new LatticeBoard(Lattice.SQUARE, 3, 2)));
+        assertEquals(3, this.solver.solveForMultiple(dominos, new LatticeBoard(Lattice.SQUARE, 3, 2), -1).size());
+
+        // two straight triamonds fill the 3x1 parallelogram one way, lying along it
+        Polyform triamond = Polyform.of("triamond", Lattice.TRIANGULAR,
+                new int[]{0, 0, 0}, new int[]{0, 0, 1}, new int[]{1, 0, 0});
+        Polyform[] triamonds = {triamond, triamond};
+        assertEquals(1, this.solver.countSolutions(triamonds, new LatticeBoard(Lattice.TRIANGULAR, 3, 1)));
+    }
+}
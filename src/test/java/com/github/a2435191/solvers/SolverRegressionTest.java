@@ -0,0 +1,135 @@
+package com.github.a2435191.solvers;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.WorkBaselines;
+import com.github.a2435191.solvers.dancing_links.DecomposingPentominoPuzzleSolver;
+import com.github.a2435191.solvers.dancing_links.MaximumPackingSolver;
+import com.github.a2435191.solvers.dancing_links.RestartingDancingLinksPentominoPuzzleSolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the solvers that are too slow for the full boards of
+ * {@link com.github.a2435191.solvers.dancing_links.ExactCoverRegressionTest} on smaller puzzles, comparing the
+ * nodes they report to {@link SearchMetrics} against {@code work-baselines.properties}.
+ */
+class SolverRegressionTest {
+    // the puzzle of Main.smallTest
+    private static final Pentomino[] SMALL_PIECES = {
+            Pentomino.PINK, Pentomino.RED, Pentomino.DARK_PURPLE, Pentomino.DARK_GREEN, Pentomino.YELLOW
+    };
+    private static final int SMALL_SOLUTIONS = 64;
+
+    private static Board smallBoard() {
+        return Main.getRectangularGrid(5, 5);
+    }
+
+    @Test
+    void pentominoPuzzleSolver() {
+        PentominoPuzzleSolver solver = new PentominoPuzzleSolver();
+        long nodes = solver.getMetrics().getNodesVisited();
+        long start = WorkBaselines.allocatedBytes();
+        int solutions = solver.solveForMultiple(SMALL_PIECES, smallBoard(), -1).size();
+        long end = WorkBaselines.allocatedBytes();
+
+        assertEquals(SMALL_SOLUTIONS, solutions);
+        WorkBaselines.checkCount("naive.small.nodes", solver.getMetrics().getNodesVisited() - nodes);
+        if (start >= 0) {
+            WorkBaselines.checkAllocation("naive.small.bytes", end - start);
+        }
+    }
+
+    @Test
+    void parallelBreadthFirstSolver() {
+        // the frontier is expanded on pool threads, so only the merged states are compared, not allocation
+        ParallelBreadthFirstSolver solver = new ParallelBreadthFirstSolver(2);
+        long nodes = solver.getMetrics().getNodesVisited();
+        long solutions = solver.countSolutions(SMALL_PIECES, smallBoard());
+
+        assertEquals(SMALL_SOLUTIONS, solutions);
+        WorkBaselines.checkCount("parallelBfs.small.nodes", solver.getMetrics().getNodesVisited() - nodes);
+
+        // interrupted, it gives up rather than report no solutions, and keeps the interrupt
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> solver.countSolutions(SMALL_PIECES, smallBoard()));
+        } finally {
+            assertTrue(Thread.interrupted(), "interrupt status not restored");
+        }
+    }
+
+    @Test
+    void restartingDancingLinks() {
+        RestartingDancingLinksPentominoPuzzleSolver solver = new RestartingDancingLinksPentominoPuzzleSolver(1);
+        long nodes = solver.getMetrics().getNodesVisited();
+        long start = WorkBaselines.allocatedBytes();
+        assertNotNull(solver.solve(Pentomino.values(), Main.getRectangularGrid(6, 10)));
+        long end = WorkBaselines.allocatedBytes();
+
+        WorkBaselines.checkCount("restarting.6x10.nodes", solver.getMetrics().getNodesVisited() - nodes);
+        if (start >= 0) {
+            WorkBaselines.checkAllocation("restarting.6x10.bytes", end - start);
+        }
+    }
+
+    @Test
+    void decomposingDancingLinks() {
+        // a 5x13 rectangle cut into two 5x6 halves by its middle column
+        Board board = Main.getRectangularGrid(5, 13);
+        for (int y = 0; y < 5; y++) {
+            board.fill(6, y);
+        }
+        DecomposingPentominoPuzzleSolver solver = new DecomposingPentominoPuzzleSolver();
+        long nodes = solver.getMetrics().getNodesVisited();
+        long solutions = solver.countSolutions(Pentomino.values(), board);
+
+        assertEquals(64, solutions);
+        WorkBaselines.checkCount("decomposing.split.nodes", solver.getMetrics().getNodesVisited() - nodes);
+        assertEquals(64, solver.solveForMultiple(Pentomino.values(), board, -1).size());
+
+        // two copies of each small piece on two 5x5 halves, which may share them out unevenly
+        Board halves = Main.getRectangularGrid(5, 11);
+        for (int y = 0; y < 5; y++) {
+            halves.fill(5, y);
+        }
+        Pentomino[] repeated = new Pentomino[2 * SMALL_PIECES.length];
+        for (int i = 0; i < repeated.length; i++) {
+            repeated[i] = SMALL_PIECES[i % SMALL_PIECES.length];
+        }
+        nodes = solver.getMetrics().getNodesVisited();
+        assertEquals(4480, solver.countSolutions(repeated, halves));
+        WorkBaselines.checkCount("decomposing.repeated.nodes", solver.getMetrics().getNodesVisited() - nodes);
+        assertEquals(4480, solver.solveForMultiple(repeated, halves, -1).size());
+    }
+
+    @Test
+    void maximumPacking() {
+        // 59 squares, which no set of pentominos tiles, but room for 11 of the 12 pieces
+        Board board = Main.getRectangularGrid(6, 10);
+        board.fill(0, 0);
+        MaximumPackingSolver solver = new MaximumPackingSolver();
+
+        long nodes = solver.getMetrics().getNodesVisited();
+        MaximumPackingSolver.Packing pieces = solver.pack(
+                Pentomino.values(), board, MaximumPackingSolver.Objective.PIECES);
+        assertEquals(11, pieces.score());
+        assertEquals(11, pieces.solution().placements().size());
+        assertTrue(pieces.optimal());
+        WorkBaselines.checkCount("packing.pieces.nodes", solver.getMetrics().getNodesVisited() - nodes);
+
+        nodes = solver.getMetrics().getNodesVisited();
+        MaximumPackingSolver.Packing squares = solver.pack(
+                Pentomino.values(), board, MaximumPackingSolver.Objective.SQUARES);
+        assertEquals(55, squares.score());
+        assertTrue(squares.optimal());
+        WorkBaselines.checkCount("packing.squares.nodes", solver.getMetrics().getNodesVisited() - nodes);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Board;
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import com.github.a2435191.WorkBaselines;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Enumerates every solution of the standard boards with each {@link ExactCover} engine, checking the number of
+ * solutions and the work done against {@code work-baselines.properties}.
+ */
+class ExactCoverRegressionTest {
+    record Puzzle(String name, Board board, long solutions) {
+    }
+
+    static final List<Puzzle> PUZZLES = List.of(
+            new Puzzle("default", Main.getDefaultGrid(), 16),
+            new Puzzle("3x20", Main.getRectangularGrid(3, 20), 8),
+            new Puzzle("4x15", Main.getRectangularGrid(4, 15), 1472),
+            new Puzzle("5x12", Main.getRectangularGrid(5, 12), 4040),
+            new Puzzle("6x10", Main.getRectangularGrid(6, 10), 9356)
+    );
+
+    @TestFactory
+    Stream<DynamicTest> dancingLinks() {
+        return tests("links", new DancingLinksPentominoPuzzleSolver()::createExactCover);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> dancingCells() {
+        return tests("cells", new DancingCellsPentominoPuzzleSolver()::createExactCover);
+    }
+
+    @TestFactory
+    Stream<DynamicTest> offHeap() {
+        return tests("offHeap", (pieces, board) -> {
+            DancingLinksPentominoPuzzleSolver.Matrix matrix = DancingLinksPentominoPuzzleSolver.buildMatrix(
+                    pieces, board, PlacementTable.compute(pieces, board));
+            OffHeapMatrix.Builder builder = new OffHeapMatrix.Builder(
+                    matrix.columns().length, matrix.multiplicities());
+            for (int[] row : matrix.rows()) {
+                builder.addRow(row);
+            }
+            return builder.build(matrix.rowData()::get);
+        });
+    }
+
+    @Test
+    void offHeapFile() throws IOException {
+        Path file = Files.createTempFile("matrix", ".dlx");
+        try {
+            Board board = Main.getDefaultGrid();
+            DancingLinksPentominoPuzzleSolver.Matrix matrix = DancingLinksPentominoPuzzleSolver.buildMatrix(
+                    Pentomino.values(), board, PlacementTable.compute(Pentomino.values(), board));
+            // the builder starts with a small mapping, so the file is extended several times
+            OffHeapMatrix.Builder builder = new OffHeapMatrix.Builder(
+                    matrix.columns().length, matrix.multiplicities(), file);
+            for (int[] row : matrix.rows()) {
+                builder.addRow(row);
+            }
+            OffHeapMatrix<Placement> built = builder.build(matrix.rowData()::get);
+            assertEquals(16, countSolutions(built));
+
+            // the search maps the file privately, so it is reopened as it was written
+            OffHeapMatrix<Placement> reopened = OffHeapMatrix.open(file, matrix.rowData()::get);
+            assertEquals(matrix.rows().length, reopened.getRowCount());
+            assertEquals(16, countSolutions(reopened));
+            assertEquals(built.getNodesVisited(), reopened.getNodesVisited());
+            assertEquals(built.getUpdates(), reopened.getUpdates());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long countSolutions(ExactCover<?> problem) {
+        long[] solutions = {0};
+        problem.visit((rowIndices, depth) -> {
+            solutions[0]++;
+            return true;
+        });
+        return solutions[0];
+    }
+
+    private static Stream<DynamicTest> tests(
+            String engine, BiFunction<Pentomino[], Board, ExactCover<Placement>> factory) {
+        return PUZZLES.stream().map(puzzle -> dynamicTest(puzzle.name(), () -> {
+            final String key = engine + "." + puzzle.name();
+            // once unmeasured, so that loading classes is not charged to whichever test happens to run first
+            factory.apply(Pentomino.values(), puzzle.board());
+            long start = WorkBaselines.allocatedBytes();
+            ExactCover<Placement> problem = factory.apply(Pentomino.values(), puzzle.board());
+            long built = WorkBaselines.allocatedBytes();
+
+            long[] solutions = {0};
+            problem.visit((rowIndices, depth) -> {
+                solutions[0]++;
+                return true;
+            });
+            long searched = WorkBaselines.allocatedBytes();
+
+            assertEquals(puzzle.solutions(), solutions[0], "solutions of " + puzzle.name());
+            WorkBaselines.checkCount(key + ".nodes", problem.getNodesVisited());
+            WorkBaselines.checkCount(key + ".updates", problem.getUpdates());
+            if (start >= 0) {
+                WorkBaselines.checkAllocation(key + ".setupBytes", built - start);
+                WorkBaselines.checkAllocation(key + ".searchBytes", searched - built);
+            }
+        }));
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Main;
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records searches to a {@link SearchTrace} file and replays them, checking that every step written is read back
+ * and that the rows tried and backtracked pair up as a depth-first search.
+ */
+class SearchTraceTest {
+    // the puzzle of Main.smallTest, with 64 solutions
+    private static final Pentomino[] SMALL_PIECES = {
+            Pentomino.PINK, Pentomino.RED, Pentomino.DARK_PURPLE, Pentomino.DARK_GREEN, Pentomino.YELLOW
+    };
+
+    private static Root<Placement> smallRoot() {
+        return new DancingLinksPentominoPuzzleSolver().createRoot(SMALL_PIECES, Main.getRectangularGrid(5, 5));
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Path file = Files.createTempFile("search", ".trace");
+        try {
+            Root<Placement> root = smallRoot();
+            long[] solutions = {0};
+            long recorded;
+            // a small buffer, so that it is flushed many times during the search
+            try (SearchTrace trace = new SearchTrace(64, file)) {
+                root.trace = trace;
+                root.visit((rowIndices, depth) -> {
+                    solutions[0]++;
+                    return true;
+                });
+                recorded = trace.getEventCount();
+            }
+
+            assertEquals(64, solutions[0]);
+            assertTrue(recorded > 64 * 5);
+            Replay replay = replay(file);
+            assertEquals(recorded, replay.events);
+            assertEquals(solutions[0], replay.solutions);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void fixedRowsAreBacktracked() throws IOException {
+        Path file = Files.createTempFile("search", ".trace");
+        try {
+            Root<Placement> root = smallRoot();
+            long[] solutions = {0};
+            try (SearchTrace trace = new SearchTrace(1 << 10, file)) {
+                root.trace = trace;
+                root.visit(List.of(root.getRow(0)), -1, (rowIndices, depth) -> {
+                    solutions[0]++;
+                    return true;
+                });
+            }
+            assertEquals(solutions[0], replay(file).solutions);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void readingStopsWhenAsked() throws IOException {
+        Path file = Files.createTempFile("search", ".trace");
+        try {
+            Root<Placement> root = smallRoot();
+            try (SearchTrace trace = new SearchTrace(1 << 10, file)) {
+                root.trace = trace;
+                root.visit((rowIndices, depth) -> true);
+            }
+            long[] read = {0};
+            SearchTrace.read(file, event -> ++read[0] < 10);
+            assertEquals(10, read[0]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private record Replay(long events, long solutions) {
+    }
+
+    // read a whole trace, checking that each row is backtracked at the depth it was tried at, in reverse order
+    private static Replay replay(Path file) throws IOException {
+        ArrayDeque<Integer> rows = new ArrayDeque<>();
+        long[] counts = {0, 0};
+        SearchTrace.read(file, event -> {
+            counts[0]++;
+            switch (event.type()) {
+                case TRY_ROW -> {
+                    assertEquals(rows.size(), event.depth());
+                    rows.push(event.value());
+                }
+                case BACKTRACK -> {
+                    assertEquals(rows.size() - 1, event.depth());
+                    assertEquals((int) rows.pop(), event.value());
+                }
+                case SOLUTION -> {
+                    assertEquals(rows.size(), event.depth());
+                    counts[1]++;
+                }
+                case CHOOSE_COLUMN, EXCLUDE_ROW -> assertEquals(rows.size(), event.depth());
+            }
+            return true;
+        });
+        assertTrue(rows.isEmpty(), "rows left after the search: " + rows);
+        return new Replay(counts[0], counts[1]);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Estimates a search tree with a single path, where every probe follows the whole tree, so the estimate must be
+ * exact, and checks that estimating leaves the counters of the last search alone.
+ */
+class TreeSizeEstimatorTest {
+    @Test
+    void exactOnOnePathAndCountersKept() {
+        // each column has one row, so there is one choice per level: 4 nodes, 1 solution
+        int[][] rows = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}};
+        String[] columns = {"a", "b", "c", "d", "e", "f", "g", "h", "i"};
+        Root<Integer> root = new Root<>(rows, columns, List.of(0, 1, 2));
+        long[] solutions = {0};
+        root.visit((rowIndices, depth) -> {
+            solutions[0]++;
+            return true;
+        });
+        final long nodes = root.getNodesVisited();
+        final long updates = root.getUpdates();
+        assertEquals(4, nodes);
+        assertEquals(1, solutions[0]);
+
+        TreeSizeEstimator.Estimate estimate = TreeSizeEstimator.estimate(root, 8, new Random(1));
+        assertEquals(new TreeSizeEstimator.Interval(nodes, nodes, nodes), estimate.nodes());
+        assertEquals(new TreeSizeEstimator.Interval(1, 1, 1), estimate.solutions());
+        assertEquals(new TreeSizeEstimator.Interval(updates, updates, updates), estimate.updates());
+
+        assertEquals(nodes, root.getNodesVisited());
+        assertEquals(updates, root.getUpdates());
+
+        // a search cut short, whose counters differ from those of the timing runs
+        root.visit(2, (rowIndices, depth) -> true);
+        final long cutNodes = root.getNodesVisited();
+        final long cutUpdates = root.getUpdates();
+        assertTrue(root.isBudgetExhausted());
+        TreeSizeEstimator.estimate(root, 2, new Random(2));
+        assertEquals(cutNodes, root.getNodesVisited());
+        assertEquals(cutUpdates, root.getUpdates());
+        assertTrue(root.isBudgetExhausted());
+    }
+}
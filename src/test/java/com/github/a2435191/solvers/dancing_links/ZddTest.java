@@ -0,0 +1,85 @@
+package com.github.a2435191.solvers.dancing_links;
+
+import com.github.a2435191.Pentomino;
+import com.github.a2435191.Placement;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Checks the diagrams built by {@link ZddBuilder} against the solutions {@link Root#visit} enumerates on the boards
+ * of {@link ExactCoverRegressionTest}, and that they survive being written and read back.
+ */
+class ZddTest {
+    @TestFactory
+    Stream<DynamicTest> sameSolutionsAsSearch() {
+        return ExactCoverRegressionTest.PUZZLES.stream().map(puzzle -> dynamicTest(puzzle.name(), () -> {
+            Root<Placement> root = new DancingLinksPentominoPuzzleSolver().createRoot(
+                    Pentomino.values(), puzzle.board());
+            Set<Set<Placement>> expected = new HashSet<>();
+            root.visit((rowIndices, depth) -> {
+                Set<Placement> solution = new HashSet<>();
+                for (int i = 0; i < depth; i++) {
+                    solution.add(root.getRowData(rowIndices[i]));
+                }
+                expected.add(solution);
+                return true;
+            });
+            assertEquals(puzzle.solutions(), expected.size());
+
+            Zdd<Placement> zdd = new ZddBuilder<>(root).build();
+            assertEquals(puzzle.solutions(), zdd.count());
+            List<Set<Placement>> solutions = zdd.asList();
+            assertEquals(expected.size(), solutions.size());
+            assertEquals(expected, new HashSet<>(solutions));
+
+            Zdd<Placement> read = roundTrip(zdd, root);
+            assertEquals(zdd.getNodeCount(), read.getNodeCount());
+            assertEquals(zdd.count(), read.count());
+            assertEquals(solutions, read.asList());
+        }));
+    }
+
+    private static Zdd<Placement> roundTrip(Zdd<Placement> zdd, Root<Placement> root) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            zdd.write(out);
+        }
+        List<Placement> rowData = new ArrayList<>();
+        for (int i = 0; i < root.getRowCount(); i++) {
+            rowData.add(root.getRowData(i));
+        }
+        return Zdd.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), rowData);
+    }
+
+    @Test
+    void secondaryColumnsAreRejected() {
+        // A and B primary, S secondary: {A,S}+{B}, {A}+{B,S} and {A}+{B}, but the memo key cannot tell whether S
+        // is still free, so a diagram would miss one of them
+        int[][] rows = {{0, 2}, {0}, {1, 2}, {1}};
+        Root<Integer> root = new Root<>(rows, new String[]{"A", "B", "S"}, null,
+                new boolean[]{false, false, true}, List.of(0, 1, 2, 3));
+        long[] solutions = {0};
+        root.visit((rowIndices, depth) -> {
+            solutions[0]++;
+            return true;
+        });
+        assertEquals(3, solutions[0]);
+        assertThrows(IllegalArgumentException.class, () -> new ZddBuilder<>(root));
+    }
+}